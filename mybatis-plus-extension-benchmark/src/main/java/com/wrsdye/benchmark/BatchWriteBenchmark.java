@@ -0,0 +1,101 @@
+package com.wrsdye.benchmark;
+
+import com.wrsdye.benchmark.support.BenchmarkApplication;
+import com.wrsdye.benchmark.support.RowWidth;
+import com.wrsdye.core.CommonBaseMapper;
+import com.wrsdye.core.metadata.EntityAccessor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * @author wangrx
+ * @description saveBatch/updateBatchById/saveOrUpdateBatch吞吐量，按批次大小和行宽组合，结果单位为行/秒
+ * @date 2026/10/19 下午4:30
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkApplication.IGNORE_UNRECOGNIZED, BenchmarkApplication.ADD_OPENS})
+public class BatchWriteBenchmark {
+
+    /**
+     * 每次调用写入的行数
+     */
+    private static final int ROWS = 5000;
+
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    @Param({"NARROW", "WIDE"})
+    private RowWidth width;
+
+    private CommonBaseMapper<Object> mapper;
+
+    private BiConsumer<Object, Object> idSetter;
+
+    /**
+     * 已存在的数据，用于更新
+     */
+    private List<Object> existing;
+
+    /**
+     * 主键为空的数据，用于插入
+     */
+    private List<Object> fresh;
+
+    /**
+     * 一半已存在、一半主键为空的数据，用于保存或更新
+     */
+    private List<Object> mixed;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        mapper = BenchmarkApplication.mapper(width.getEntityClass());
+        idSetter = EntityAccessor.of(width.getEntityClass()).setter(mapper.mapperMetadata().getKeyProperty());
+        fresh = width.rows(ROWS);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        BenchmarkApplication.truncate(width.getTable());
+        existing = width.rows(ROWS);
+        mapper.saveBatch(existing, batchSize);
+        mixed = new ArrayList<>(ROWS);
+        mixed.addAll(existing.subList(0, ROWS / 2));
+        mixed.addAll(fresh.subList(0, ROWS / 2));
+    }
+
+    /**
+     * 插入回填了主键，每次调用前清空
+     */
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        for (Object row : fresh) {
+            idSetter.accept(row, null);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public boolean saveBatch() {
+        return mapper.saveBatch(fresh, batchSize);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public boolean updateBatchById() {
+        return mapper.updateBatchById(existing, batchSize);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public boolean saveOrUpdateBatch() {
+        return mapper.saveOrUpdateBatch(mixed, batchSize);
+    }
+}
@@ -0,0 +1,58 @@
+package com.wrsdye.benchmark;
+
+import com.baomidou.mybatisplus.core.toolkit.ReflectionKit;
+import com.wrsdye.benchmark.entity.NarrowRow;
+import com.wrsdye.benchmark.support.RowWidth;
+import com.wrsdye.core.metadata.EntityAccessor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * @author wangrx
+ * @description 批量路径读取主键的单行开销，生成的访问器对比ReflectionKit.getFieldValue
+ * @date 2026/10/19 下午5:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityAccessorBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private List<NarrowRow> rows;
+
+    private Function<Object, Object> idGetter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rows = RowWidth.NARROW.rows(ROWS);
+        long id = 0;
+        for (NarrowRow row : rows) {
+            row.setId(++id);
+        }
+        idGetter = EntityAccessor.of(NarrowRow.class).getter("id");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void reflection(Blackhole blackhole) {
+        for (NarrowRow row : rows) {
+            blackhole.consume(ReflectionKit.getFieldValue(row, "id"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void accessor(Blackhole blackhole) {
+        for (NarrowRow row : rows) {
+            blackhole.consume(idGetter.apply(row));
+        }
+    }
+}
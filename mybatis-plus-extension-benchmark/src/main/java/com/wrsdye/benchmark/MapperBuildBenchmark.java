@@ -0,0 +1,57 @@
+package com.wrsdye.benchmark;
+
+import com.wrsdye.benchmark.support.BenchmarkApplication;
+import com.wrsdye.core.handler.MapperLoadHandler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author wangrx
+ * @description MapperLoadHandler.buildClazz生成N个mapper的耗时
+ * <p>每次调用换一个新的上下文类加载器，避免同名mapper重复定义</p>
+ * @date 2026/10/19 下午4:50
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkApplication.IGNORE_UNRECOGNIZED, BenchmarkApplication.ADD_OPENS})
+public class MapperBuildBenchmark {
+
+    private static final String PACKAGES = "com.wrsdye.benchmark.model";
+
+    @Param({"10", "100", "500"})
+    private int entities;
+
+    private MapperLoadHandler handler;
+
+    private ClassLoader originalClassLoader;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        handler = new MapperLoadHandler();
+        originalClassLoader = Thread.currentThread().getContextClassLoader();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[0], originalClassLoader));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Thread.currentThread().setContextClassLoader(originalClassLoader);
+    }
+
+    @Benchmark
+    public void buildClazz(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < entities; i++) {
+            blackhole.consume(handler.buildClazz(PACKAGES, "Entity" + i));
+        }
+    }
+}
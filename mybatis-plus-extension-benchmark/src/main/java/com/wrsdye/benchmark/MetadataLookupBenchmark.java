@@ -0,0 +1,46 @@
+package com.wrsdye.benchmark;
+
+import com.wrsdye.benchmark.entity.NarrowRow;
+import com.wrsdye.benchmark.support.BenchmarkApplication;
+import com.wrsdye.core.CommonBaseMapper;
+import com.wrsdye.core.metadata.MapperMetadata;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author wangrx
+ * @description 多线程并发下currentModelClass()/getMapper()查找元数据的开销
+ * @date 2026/10/19 下午4:40
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkApplication.IGNORE_UNRECOGNIZED, BenchmarkApplication.ADD_OPENS})
+public class MetadataLookupBenchmark {
+
+    private CommonBaseMapper<NarrowRow> mapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mapper = BenchmarkApplication.mapper(NarrowRow.class);
+    }
+
+    @Benchmark
+    public Class<?> currentModelClass() {
+        return mapper.currentModelClass();
+    }
+
+    @Benchmark
+    public Class<?> getMapper() {
+        return mapper.getMapper();
+    }
+
+    @Benchmark
+    public MapperMetadata mapperMetadata() {
+        return mapper.mapperMetadata();
+    }
+}
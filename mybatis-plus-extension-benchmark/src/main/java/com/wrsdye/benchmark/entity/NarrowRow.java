@@ -0,0 +1,29 @@
+package com.wrsdye.benchmark.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.wrsdye.core.annotation.BuildMapper;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * @author wangrx
+ * @description 窄表，4列
+ * @date 2026/10/19 下午4:10
+ */
+@Data
+@BuildMapper
+@TableName("t_narrow_row")
+public class NarrowRow {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private String name;
+
+    private Double amount;
+
+    private Date createdAt;
+}
@@ -0,0 +1,61 @@
+package com.wrsdye.benchmark.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.wrsdye.core.annotation.BuildMapper;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * @author wangrx
+ * @description 宽表，20列
+ * @date 2026/10/19 下午4:10
+ */
+@Data
+@BuildMapper
+@TableName("t_wide_row")
+public class WideRow {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private String c1;
+
+    private String c2;
+
+    private String c3;
+
+    private String c4;
+
+    private String c5;
+
+    private String c6;
+
+    private String c7;
+
+    private String c8;
+
+    private String c9;
+
+    private Long n1;
+
+    private Long n2;
+
+    private Long n3;
+
+    private Long n4;
+
+    private Long n5;
+
+    private Long n6;
+
+    private Long n7;
+
+    private Long n8;
+
+    private Long n9;
+
+    private Date createdAt;
+}
@@ -0,0 +1,64 @@
+package com.wrsdye.benchmark.support;
+
+import com.wrsdye.core.CommonBaseMapper;
+import com.wrsdye.core.annotation.EnableAutoMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * @author wangrx
+ * @description 基准测试使用的spring容器，内嵌H2，每个JMH进程只启动一次
+ * @date 2026/10/19 下午4:20
+ */
+@SpringBootApplication
+@EnableAutoMapper(basePackages = "com.wrsdye.benchmark.entity")
+public class BenchmarkApplication {
+
+    /**
+     * Java 9+生成mapper需要反射调用ClassLoader.defineClass，Java 8忽略该参数
+     */
+    public static final String IGNORE_UNRECOGNIZED = "-XX:+IgnoreUnrecognizedVMOptions";
+
+    public static final String ADD_OPENS = "--add-opens=java.base/java.lang=ALL-UNNAMED";
+
+    private static ConfigurableApplicationContext context;
+
+    /**
+     * 获取容器，首次调用时启动
+     *
+     * @return spring容器
+     */
+    public static synchronized ConfigurableApplicationContext context() {
+        if (context == null) {
+            SpringApplication application = new SpringApplication(BenchmarkApplication.class);
+            context = application.run("--spring.config.name=benchmark");
+        }
+        return context;
+    }
+
+    /**
+     * 获取实体对应的mapper
+     *
+     * @param entityClass 实体类
+     * @param <T>         实体类型
+     * @return mapper
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CommonBaseMapper<T> mapper(Class<T> entityClass) {
+        ConfigurableApplicationContext context = context();
+        String[] names = context.getBeanNamesForType(ResolvableType.forClassWithGenerics(CommonBaseMapper.class, entityClass));
+        return (CommonBaseMapper<T>) context.getBean(names[0]);
+    }
+
+    /**
+     * 清空表
+     *
+     * @param table 表名
+     */
+    public static void truncate(String table) {
+        context().getBean(JdbcTemplate.class).execute("truncate table " + table);
+    }
+}
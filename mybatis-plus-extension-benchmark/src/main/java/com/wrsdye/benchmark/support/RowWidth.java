@@ -0,0 +1,91 @@
+package com.wrsdye.benchmark.support;
+
+import com.wrsdye.benchmark.entity.NarrowRow;
+import com.wrsdye.benchmark.entity.WideRow;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * @author wangrx
+ * @description 行宽，对应不同列数的实体
+ * @date 2026/10/19 下午4:25
+ */
+public enum RowWidth {
+
+    NARROW(NarrowRow.class, "t_narrow_row", RowWidth::narrow),
+
+    WIDE(WideRow.class, "t_wide_row", RowWidth::wide);
+
+    private final Class<?> entityClass;
+
+    private final String table;
+
+    private final LongFunction<Object> factory;
+
+    RowWidth(Class<?> entityClass, String table, LongFunction<Object> factory) {
+        this.entityClass = entityClass;
+        this.table = table;
+        this.factory = factory;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Class<T> getEntityClass() {
+        return (Class<T>) entityClass;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * 生成主键为空的数据
+     *
+     * @param size 行数
+     * @param <T>  实体类型
+     * @return 数据
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> rows(int size) {
+        List<T> rows = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            rows.add((T) factory.apply(i));
+        }
+        return rows;
+    }
+
+    private static Object narrow(long i) {
+        NarrowRow row = new NarrowRow();
+        row.setName("name-" + i);
+        row.setAmount(i * 1.5);
+        row.setCreatedAt(new Date());
+        return row;
+    }
+
+    private static Object wide(long i) {
+        WideRow row = new WideRow();
+        String value = "value-" + i;
+        row.setC1(value);
+        row.setC2(value);
+        row.setC3(value);
+        row.setC4(value);
+        row.setC5(value);
+        row.setC6(value);
+        row.setC7(value);
+        row.setC8(value);
+        row.setC9(value);
+        row.setN1(i);
+        row.setN2(i);
+        row.setN3(i);
+        row.setN4(i);
+        row.setN5(i);
+        row.setN6(i);
+        row.setN7(i);
+        row.setN8(i);
+        row.setN9(i);
+        row.setCreatedAt(new Date());
+        return row;
+    }
+}
@@ -0,0 +1,2 @@
+create table if not exists t_narrow_row(id bigint auto_increment primary key, name varchar(64), amount double, created_at timestamp);
+create table if not exists t_wide_row(id bigint auto_increment primary key, c1 varchar(32), c2 varchar(32), c3 varchar(32), c4 varchar(32), c5 varchar(32), c6 varchar(32), c7 varchar(32), c8 varchar(32), c9 varchar(32), n1 bigint, n2 bigint, n3 bigint, n4 bigint, n5 bigint, n6 bigint, n7 bigint, n8 bigint, n9 bigint, created_at timestamp);
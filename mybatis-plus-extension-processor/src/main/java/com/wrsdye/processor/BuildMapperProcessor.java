@@ -0,0 +1,171 @@
+package com.wrsdye.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * @author wangrx
+ * @description 编译期为@BuildMapper实体生成mapper接口，并输出索引文件供MapperLoadHandler直接注册
+ * @date 2026/10/18 上午11:20
+ */
+@SupportedAnnotationTypes(BuildMapperProcessor.BUILD_MAPPER)
+public class BuildMapperProcessor extends AbstractProcessor {
+
+    static final String BUILD_MAPPER = "com.wrsdye.core.annotation.BuildMapper";
+
+    /**
+     * 索引文件位置，需与MapperLoadHandler中保持一致
+     */
+    static final String INDEX_LOCATION = "META-INF/build-mapper.index";
+
+    private final static String MAPPER_NAME = "CustomMapper";
+
+    private final static String PACKAGE_NAME = ".mapper";
+
+    /**
+     * 实体全类名 -> mapper全类名
+     */
+    private final Map<String, String> index = new TreeMap<>();
+
+    /**
+     * 本次编译处理过的类型的二进制名
+     */
+    private final Set<String> processedTypes = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            collectProcessedTypes(element);
+        }
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    generateMapper((TypeElement) element);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成mapper接口，命名规则与MapperLoadHandler.buildClazz一致
+     * <p>嵌套类型与没有上级包的类型不生成，以空值写入索引，由MapperLoadHandler在运行时生成</p>
+     * @param entity 实体
+     */
+    private void generateMapper(TypeElement entity) {
+        Element enclosing = entity.getEnclosingElement();
+        if (!(enclosing instanceof PackageElement)) {
+            skip(entity, "nested @BuildMapper type");
+            return;
+        }
+        String packages = ((PackageElement) enclosing).getQualifiedName().toString();
+        if (packages.lastIndexOf('.') < 0) {
+            skip(entity, "@BuildMapper type without parent package");
+            return;
+        }
+        String entityName = entity.getQualifiedName().toString();
+        String mapperPackage = packages.substring(0, packages.lastIndexOf('.')) + PACKAGE_NAME;
+        String mapperSimpleName = entity.getSimpleName() + MAPPER_NAME;
+        String mapperName = mapperPackage + "." + mapperSimpleName;
+        Filer filer = processingEnv.getFiler();
+        try {
+            JavaFileObject source = filer.createSourceFile(mapperName, entity);
+            try (Writer writer = source.openWriter()) {
+                writer.write("package " + mapperPackage + ";\n\n");
+                writer.write("/**\n * generated by " + getClass().getSimpleName() + ", do not edit\n */\n");
+                writer.write("@org.apache.ibatis.annotations.Mapper\n");
+                writer.write("public interface " + mapperSimpleName
+                        + " extends com.wrsdye.core.CommonBaseMapper<" + entityName + "> {\n}\n");
+            }
+            index.put(entityName, mapperName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "generate mapper " + mapperName + " error: " + e.getMessage(), entity);
+        }
+    }
+
+    /**
+     * 索引中登记实体但不指定mapper，运行时由javassist生成
+     */
+    private void skip(TypeElement entity, String reason) {
+        index.put(processingEnv.getElementUtils().getBinaryName(entity).toString(), "");
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "skip " + reason + ", it is indexed without mapper and will be generated at runtime", entity);
+    }
+
+    private void collectProcessedTypes(Element element) {
+        if (element instanceof TypeElement) {
+            processedTypes.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+            for (Element enclosed : element.getEnclosedElements()) {
+                collectProcessedTypes(enclosed);
+            }
+        }
+    }
+
+    /**
+     * 增量编译只处理变更的类型，写入时合并已有索引中本次未编译、且仍然存在的实体，与spring-context-indexer一致
+     */
+    private void writeIndex() {
+        mergeExistingIndex();
+        if (index.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = resource.openWriter()) {
+                for (Map.Entry<String, String> entry : index.entrySet()) {
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "write " + INDEX_LOCATION + " error: " + e.getMessage());
+        }
+    }
+
+    private void mergeExistingIndex() {
+        Properties existing = new Properties();
+        try {
+            FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (InputStream in = resource.openInputStream()) {
+                existing.load(in);
+            }
+        } catch (IOException e) {
+            //全量编译或首次编译时没有已有索引
+            return;
+        }
+        for (String entityName : existing.stringPropertyNames()) {
+            if (!index.containsKey(entityName) && !processedTypes.contains(entityName)
+                    && processingEnv.getElementUtils().getTypeElement(entityName.replace('$', '.')) != null) {
+                index.put(entityName, existing.getProperty(entityName));
+            }
+        }
+    }
+}
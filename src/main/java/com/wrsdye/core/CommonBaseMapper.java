@@ -1,29 +1,51 @@
 package com.wrsdye.core;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.enums.SqlMethod;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-import com.baomidou.mybatisplus.core.metadata.TableInfo;
-import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import com.baomidou.mybatisplus.core.toolkit.*;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.conditions.query.LambdaQueryChainWrapper;
 import com.baomidou.mybatisplus.extension.conditions.update.LambdaUpdateChainWrapper;
 import com.baomidou.mybatisplus.extension.toolkit.ChainWrappers;
 import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import com.google.common.cache.CacheStats;
+import com.wrsdye.core.annotation.InsertMode;
+import com.wrsdye.core.async.MapperAsyncExecutor;
+import com.wrsdye.core.annotation.SaveOrUpdateMode;
+import com.wrsdye.core.batch.BatchOptions;
+import com.wrsdye.core.batch.BatchResult;
+import com.wrsdye.core.batch.WriteBehindOptions;
+import com.wrsdye.core.batch.WriteBehindWriter;
+import com.wrsdye.core.cache.EntityCache;
+import com.wrsdye.core.column.ColumnBatch;
+import com.wrsdye.core.dialect.SqlDialect;
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import com.wrsdye.core.page.KeysetPager;
 import com.wrsdye.core.utils.MapperSqlHelper;
-import com.google.common.collect.Maps;
+import com.wrsdye.core.utils.SessionCursor;
 import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.SqlSession;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.Serializable;
-import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author wangrx
@@ -36,9 +58,7 @@ public interface CommonBaseMapper<T> extends BaseMapper<T>{
 
     int DEFAULT_BATCH_SIZE = 1000;
 
-    Map<Object,Class<?>> entityClassMap = Maps.newHashMap();
-
-    Map<Object,Class<?>> mapperClassMap = Maps.newHashMap();
+    int DEFAULT_FETCH_SIZE = 1000;
 
     /**
      * 链式查询 lambda 式
@@ -81,35 +101,102 @@ public interface CommonBaseMapper<T> extends BaseMapper<T>{
     }
 
 
+    /**
+     * 批量插入，实体标注@AdaptiveBatchSize且插入方式为BATCH时按学习到的行数分片
+     *
+     * @param entityList 实体集合
+     * @return 操作结果
+     */
     @Transactional(rollbackFor = Exception.class)
     default boolean saveBatch(Collection<T> entityList) {
+        MapperMetadata metadata = mapperMetadata();
+        if (metadata.isAdaptiveBatchSize() && metadata.getInsertMode() == InsertMode.BATCH) {
+            return !CollectionUtils.isEmpty(entityList) && saveBatch(entityList.iterator(), BatchOptions.adaptive()) > 0;
+        }
         return saveBatch(entityList,DEFAULT_BATCH_SIZE);
     }
 
 
     @Transactional(rollbackFor = Exception.class)
     default boolean saveBatch(Collection<T> entityList, int batchSize) {
-        String sqlStatement = MapperSqlHelper.getSqlStatement(getMapper(), SqlMethod.INSERT_ONE);
-        return executeBatch(entityList, batchSize, (sqlSession, entity) -> sqlSession.insert(sqlStatement, entity));
+        return saveBatch(entityList, batchSize, mapperMetadata().getInsertMode());
+    }
+
+    /**
+     * 批量插入，指定插入方式
+     *
+     * @param entityList 实体集合
+     * @param batchSize  BATCH为每次flush的条数，MULTI_ROW为单条语句的最大行数
+     * @param insertMode 插入方式，MULTI_ROW在方言不支持时回退到BATCH
+     * @return 操作结果
+     */
+    @Transactional(rollbackFor = Exception.class)
+    default boolean saveBatch(Collection<T> entityList, int batchSize, InsertMode insertMode) {
+        MapperMetadata metadata = mapperMetadata();
+        if (insertMode == InsertMode.MULTI_ROW && MapperSqlHelper.supportsMultiRowInsert(metadata)) {
+            return MapperSqlHelper.executeMultiRowInsert(metadata, log, entityList, batchSize);
+        }
+        String sqlStatement = metadata.getSqlStatement(SqlMethod.INSERT_ONE);
+        return MapperSqlHelper.executeBatch(metadata.getEntityClass(), MapperSqlHelper.OPERATION_SAVE_BATCH, log, entityList, batchSize,
+                (sqlSession, entity) -> sqlSession.insert(sqlStatement, entity));
     }
 
 
 
+    /**
+     * 批量根据ID更新，实体标注@AdaptiveBatchSize时按学习到的行数分片
+     *
+     * @param entityList 实体集合
+     * @return 操作结果
+     */
     @Transactional(rollbackFor = Exception.class)
     default boolean updateBatchById(Collection<T> entityList) {
+        MapperMetadata metadata = mapperMetadata();
+        if (metadata.isAdaptiveBatchSize() && !metadata.isDirtyTracking()) {
+            return !CollectionUtils.isEmpty(entityList) && updateBatchById(entityList.iterator(), BatchOptions.adaptive()) > 0;
+        }
         return updateBatchById(entityList,DEFAULT_BATCH_SIZE);
     }
 
+    /**
+     * 批量根据ID更新，开启dirtyTracking时只更新与查询时快照不同的字段
+     *
+     * @param entityList 实体集合
+     * @param batchSize  批次大小
+     * @return 操作结果
+     */
     @Transactional(rollbackFor = Exception.class)
     default boolean updateBatchById(Collection<T> entityList, int batchSize) {
-        String sqlStatement = MapperSqlHelper.getSqlStatement(getMapper(), SqlMethod.UPDATE_BY_ID);
-        return executeBatch(entityList, batchSize, (sqlSession, entity) -> {
+        MapperMetadata metadata = mapperMetadata();
+        if (metadata.isDirtyTracking()) {
+            return MapperSqlHelper.executeColumnsUpdateBatch(metadata, log, entityList, batchSize, null);
+        }
+        String sqlStatement = metadata.getSqlStatement(SqlMethod.UPDATE_BY_ID);
+        return MapperSqlHelper.executeBatch(metadata.getEntityClass(), MapperSqlHelper.OPERATION_UPDATE_BATCH_BY_ID, log, entityList, batchSize, (sqlSession, entity) -> {
             MapperMethod.ParamMap<T> param = new MapperMethod.ParamMap<>();
             param.put(Constants.ENTITY, entity);
             sqlSession.update(sqlStatement, param);
         });
     }
 
+    /**
+     * 批量根据ID只更新指定字段，值为null的字段同样写入
+     *
+     * @param entityList 实体集合
+     * @param properties 属性名
+     * @return 操作结果
+     */
+    @Transactional(rollbackFor = Exception.class)
+    default boolean updateBatchById(Collection<T> entityList, Collection<String> properties) {
+        return updateBatchById(entityList, properties, DEFAULT_BATCH_SIZE);
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    default boolean updateBatchById(Collection<T> entityList, Collection<String> properties, int batchSize) {
+        Assert.notEmpty(properties, "properties must not be empty");
+        return MapperSqlHelper.executeColumnsUpdateBatch(mapperMetadata(), log, entityList, batchSize, properties);
+    }
+
     /**
      * TableId 注解存在更新记录，否插入一条记录
      *
@@ -119,33 +206,433 @@ public interface CommonBaseMapper<T> extends BaseMapper<T>{
     @Transactional(rollbackFor = Exception.class)
     default boolean saveOrUpdate(T entity) {
         if (null != entity) {
-            TableInfo tableInfo = TableInfoHelper.getTableInfo(this.currentModelClass());
-            Assert.notNull(tableInfo, "error: can not execute. because can not find cache of TableInfo for entity!");
-            String keyProperty = tableInfo.getKeyProperty();
-            Assert.notEmpty(keyProperty, "error: can not execute. because can not find column for id from entity!");
-            Object idVal = ReflectionKit.getFieldValue(entity, tableInfo.getKeyProperty());
+            Object idVal = mapperMetadata().getIdValue(entity);
             return StringUtils.checkValNull(idVal) || Objects.isNull(this.selectById((Serializable) idVal)) ? save(entity) : update(entity);
         }
         return false;
     }
 
+    /**
+     * 批量保存或更新，实体标注@AdaptiveBatchSize且执行方式为QUERY时按学习到的行数分片
+     *
+     * @param entityList 实体集合
+     * @return 操作结果
+     */
+    @Transactional(rollbackFor = Exception.class)
+    default boolean saveOrUpdateBatch(Collection<T> entityList) {
+        MapperMetadata metadata = mapperMetadata();
+        if (metadata.isAdaptiveBatchSize() && metadata.getSaveOrUpdateMode() == SaveOrUpdateMode.QUERY) {
+            return !CollectionUtils.isEmpty(entityList) && saveOrUpdateBatch(entityList.iterator(), BatchOptions.adaptive()) > 0;
+        }
+        return saveOrUpdateBatch(entityList, DEFAULT_BATCH_SIZE);
+    }
+
     @Transactional(rollbackFor = Exception.class)
     default boolean saveOrUpdateBatch(Collection<T> entityList, int batchSize) {
-        TableInfo tableInfo = TableInfoHelper.getTableInfo(currentModelClass());
-        Assert.notNull(tableInfo, "error: can not execute. because can not find cache of TableInfo for entity!");
-        String keyProperty = tableInfo.getKeyProperty();
-        Assert.notEmpty(keyProperty, "error: can not execute. because can not find column for id from entity!");
-        return MapperSqlHelper.saveOrUpdateBatch(currentModelClass(), getMapper(), log, entityList, batchSize, (sqlSession, entity) -> {
-            Object idVal = ReflectionKit.getFieldValue(entity, keyProperty);
-            return StringUtils.checkValNull(idVal)
-                    || CollectionUtils.isEmpty(sqlSession.selectList(MapperSqlHelper.getSqlStatement(getMapper(),SqlMethod.SELECT_BY_ID), entity));
-        }, (sqlSession, entity) -> {
-            MapperMethod.ParamMap<T> param = new MapperMethod.ParamMap<>();
-            param.put(Constants.ENTITY, entity);
-            sqlSession.update(MapperSqlHelper.getSqlStatement(getMapper(),SqlMethod.UPDATE_BY_ID), param);
+        return saveOrUpdateBatch(entityList, batchSize, mapperMetadata().getSaveOrUpdateMode());
+    }
+
+    /**
+     * 批量保存或更新，主键为空的记录插入，其余按执行方式插入或更新
+     *
+     * @param entityList 实体集合
+     * @param batchSize  批次大小，UPSERT为单条语句的最大行数
+     * @param mode       执行方式，UPSERT在方言不支持时回退到QUERY
+     * @return 操作结果
+     */
+    @Transactional(rollbackFor = Exception.class)
+    default boolean saveOrUpdateBatch(Collection<T> entityList, int batchSize, SaveOrUpdateMode mode) {
+        MapperMetadata metadata = mapperMetadata();
+        if (mode != SaveOrUpdateMode.UPSERT || !MapperSqlHelper.supportsUpsert(metadata)) {
+            return MapperSqlHelper.executeSaveOrUpdateBatch(metadata, log, entityList, batchSize);
+        }
+        if (CollectionUtils.isEmpty(entityList)) {
+            return false;
+        }
+        List<T> insertList = new ArrayList<>();
+        List<T> upsertList = new ArrayList<>();
+        for (T entity : entityList) {
+            if (StringUtils.checkValNull(metadata.getIdValue(entity))) {
+                insertList.add(entity);
+            } else {
+                upsertList.add(entity);
+            }
+        }
+        if (!insertList.isEmpty()) {
+            saveBatch(insertList, batchSize);
+        }
+        return upsertList.isEmpty() || MapperSqlHelper.executeUpsert(metadata, log, upsertList, batchSize);
+    }
+
+    /**
+     * 流式批量插入，数据源只遍历一次，内存中只保留一个分片，不需要预先知道总数
+     * <p>不声明事务：在外部事务内时随外部事务提交，否则在结束时提交，开启commitPerChunk时每个分片提交一次</p>
+     *
+     * @param iterator 数据源
+     * @param options  批量参数
+     * @return 写入行数
+     */
+    default long saveBatch(Iterator<T> iterator, BatchOptions options) {
+        String sqlStatement = mapperMetadata().getSqlStatement(SqlMethod.INSERT_ONE);
+        return MapperSqlHelper.executeBatch(mapperMetadata(), MapperSqlHelper.OPERATION_SAVE_BATCH, log, iterator, options, (sqlSession, chunk) -> {
+            for (T entity : chunk) {
+                sqlSession.insert(sqlStatement, entity);
+            }
+        });
+    }
+
+    default long saveBatch(Stream<T> stream, BatchOptions options) {
+        return saveBatch(stream.iterator(), options);
+    }
+
+    default long saveBatch(Spliterator<T> spliterator, BatchOptions options) {
+        return saveBatch(Spliterators.iterator(spliterator), options);
+    }
+
+    /**
+     * 流式批量根据ID更新，说明同{@link #saveBatch(Iterator, BatchOptions)}
+     *
+     * @param iterator 数据源
+     * @param options  批量参数
+     * @return 处理行数
+     */
+    default long updateBatchById(Iterator<T> iterator, BatchOptions options) {
+        String sqlStatement = mapperMetadata().getSqlStatement(SqlMethod.UPDATE_BY_ID);
+        return MapperSqlHelper.executeBatch(mapperMetadata(), MapperSqlHelper.OPERATION_UPDATE_BATCH_BY_ID, log, iterator, options, (sqlSession, chunk) -> {
+            for (T entity : chunk) {
+                MapperMethod.ParamMap<T> param = new MapperMethod.ParamMap<>();
+                param.put(Constants.ENTITY, entity);
+                sqlSession.update(sqlStatement, param);
+            }
+        });
+    }
+
+    default long updateBatchById(Stream<T> stream, BatchOptions options) {
+        return updateBatchById(stream.iterator(), options);
+    }
+
+    default long updateBatchById(Spliterator<T> spliterator, BatchOptions options) {
+        return updateBatchById(Spliterators.iterator(spliterator), options);
+    }
+
+    /**
+     * 流式批量保存或更新，执行方式取@BuildMapper.saveOrUpdateMode，说明同{@link #saveBatch(Iterator, BatchOptions)}
+     * <p>QUERY方式按方言IN列表元素数上限拆分主键查询</p>
+     *
+     * @param iterator 数据源
+     * @param options  批量参数
+     * @return 处理行数
+     */
+    default long saveOrUpdateBatch(Iterator<T> iterator, BatchOptions options) {
+        MapperMetadata metadata = mapperMetadata();
+        if (metadata.getSaveOrUpdateMode() == SaveOrUpdateMode.UPSERT && MapperSqlHelper.supportsUpsert(metadata)) {
+            return MapperSqlHelper.executeBatch(metadata, MapperSqlHelper.OPERATION_SAVE_OR_UPDATE_BATCH, log, iterator, options,
+                    (sqlSession, chunk) -> MapperSqlHelper.upsertChunk(sqlSession, metadata, chunk));
+        }
+        int maxInList = SqlDialect.of(MapperSqlHelper.sqlSessionFactory(metadata.getEntityClass())).getMaxInList();
+        return MapperSqlHelper.executeBatch(metadata, MapperSqlHelper.OPERATION_SAVE_OR_UPDATE_BATCH, log, iterator, options, (sqlSession, chunk) -> {
+            for (int from = 0; from < chunk.size(); from += maxInList) {
+                MapperSqlHelper.saveOrUpdateChunk(sqlSession, metadata, chunk.subList(from, Math.min(chunk.size(), from + maxInList)));
+            }
         });
     }
 
+    default long saveOrUpdateBatch(Stream<T> stream, BatchOptions options) {
+        return saveOrUpdateBatch(stream.iterator(), options);
+    }
+
+    default long saveOrUpdateBatch(Spliterator<T> spliterator, BatchOptions options) {
+        return saveOrUpdateBatch(Spliterators.iterator(spliterator), options);
+    }
+
+    /**
+     * 并行批量插入，数据源切成分片后由多个连接并行写入，每个分片单独提交
+     * <p>只能在没有外部事务时使用，适合全量导入；分片失败不影响其他分片，失败的分片及原因记录在结果中</p>
+     *
+     * @param iterator 数据源
+     * @param options  批量参数，parallelism为0时按连接池大小计算
+     * @return 每个分片的结果
+     */
+    default BatchResult<T> saveBatchParallel(Iterator<T> iterator, BatchOptions options) {
+        String sqlStatement = mapperMetadata().getSqlStatement(SqlMethod.INSERT_ONE);
+        return MapperSqlHelper.executeParallelBatch(mapperMetadata(), MapperSqlHelper.OPERATION_SAVE_BATCH_PARALLEL, log, iterator, options, (sqlSession, chunk) -> {
+            for (T entity : chunk) {
+                sqlSession.insert(sqlStatement, entity);
+            }
+        });
+    }
+
+    default BatchResult<T> saveBatchParallel(Collection<T> entityList, BatchOptions options) {
+        return saveBatchParallel(entityList.iterator(), options);
+    }
+
+    /**
+     * 并行批量根据ID更新，说明同{@link #saveBatchParallel(Iterator, BatchOptions)}
+     *
+     * @param iterator 数据源
+     * @param options  批量参数
+     * @return 每个分片的结果
+     */
+    default BatchResult<T> updateBatchByIdParallel(Iterator<T> iterator, BatchOptions options) {
+        String sqlStatement = mapperMetadata().getSqlStatement(SqlMethod.UPDATE_BY_ID);
+        return MapperSqlHelper.executeParallelBatch(mapperMetadata(), MapperSqlHelper.OPERATION_UPDATE_BATCH_BY_ID_PARALLEL, log, iterator, options, (sqlSession, chunk) -> {
+            for (T entity : chunk) {
+                MapperMethod.ParamMap<T> param = new MapperMethod.ParamMap<>();
+                param.put(Constants.ENTITY, entity);
+                sqlSession.update(sqlStatement, param);
+            }
+        });
+    }
+
+    default BatchResult<T> updateBatchByIdParallel(Collection<T> entityList, BatchOptions options) {
+        return updateBatchByIdParallel(entityList.iterator(), options);
+    }
+
+    /**
+     * 异步合并写入，多个线程的单条写入合并为批量写入，适合高频的日志、事件类记录
+     * <p>写入在后台线程的独立事务中执行，不参与调用方的事务；容器关闭时会写完队列</p>
+     *
+     * @return 当前mapper的异步合并写入实例
+     */
+    default WriteBehindWriter<T> writeBehind() {
+        return writeBehind(WriteBehindOptions.defaults());
+    }
+
+    /**
+     * 异步合并写入，参数只在首次获取时生效
+     *
+     * @param options 参数
+     * @return 当前mapper的异步合并写入实例
+     */
+    default WriteBehindWriter<T> writeBehind(WriteBehindOptions options) {
+        return WriteBehindWriter.of(mapperMetadata(), options);
+    }
+
+    /**
+     * 按主键批量查询，主键按方言IN列表元素数上限分片，按主键列表顺序返回
+     * <p>与selectBatchIds不同，主键数量不受数据库IN列表与绑定参数上限限制</p>
+     *
+     * @param idList 主键ID列表
+     * @return 实体列表，不存在的主键跳过
+     */
+    default List<T> selectByIds(Collection<? extends Serializable> idList) {
+        return selectByIds(idList, true, false);
+    }
+
+    /**
+     * 按主键批量查询
+     * <p>parallel时各分片由{@link MapperAsyncExecutor}并行查询，事务内忽略parallel</p>
+     *
+     * @param idList    主键ID列表
+     * @param keepOrder 是否按主键列表顺序返回
+     * @param parallel  分片是否并行查询
+     * @return 实体列表
+     */
+    default List<T> selectByIds(Collection<? extends Serializable> idList, boolean keepOrder, boolean parallel) {
+        return MapperSqlHelper.selectByIds(mapperMetadata(), idList, keepOrder, parallel);
+    }
+
+    /**
+     * 按主键批量删除，各分片在同一个JDBC批次中执行
+     *
+     * @param idList 主键ID列表
+     * @return 影响行数
+     */
+    default long deleteByIds(Collection<? extends Serializable> idList) {
+        return MapperSqlHelper.deleteByIds(mapperMetadata(), log, idList);
+    }
+
+    /**
+     * 按主键批量更新为实体中不为null的字段，各分片在同一个JDBC批次中执行
+     *
+     * @param entity 更新的字段，主键不生效
+     * @param idList 主键ID列表
+     * @return 影响行数
+     */
+    default long updateByIds(T entity, Collection<? extends Serializable> idList) {
+        return MapperSqlHelper.updateByIds(mapperMetadata(), log, entity, idList);
+    }
+
+    /**
+     * 异步根据 ID 查询
+     * <p>异步方法不能在事务内调用；查询不开启事务，写操作每次调用在自己的事务中执行，见{@link MapperAsyncExecutor}</p>
+     *
+     * @param id 主键ID
+     * @return 实体
+     */
+    default CompletableFuture<T> selectByIdAsync(Serializable id) {
+        return MapperAsyncExecutor.query(mapperMetadata(), () -> selectById(id));
+    }
+
+    default CompletableFuture<List<T>> selectBatchIdsAsync(Collection<? extends Serializable> idList) {
+        return MapperAsyncExecutor.query(mapperMetadata(), () -> selectBatchIds(idList));
+    }
+
+    default CompletableFuture<List<T>> selectListAsync(Wrapper<T> queryWrapper) {
+        return MapperAsyncExecutor.query(mapperMetadata(), () -> selectList(queryWrapper));
+    }
+
+    default CompletableFuture<Integer> selectCountAsync(Wrapper<T> queryWrapper) {
+        return MapperAsyncExecutor.query(mapperMetadata(), () -> selectCount(queryWrapper));
+    }
+
+    default CompletableFuture<Boolean> saveAsync(T entity) {
+        return MapperAsyncExecutor.write(mapperMetadata(), () -> save(entity));
+    }
+
+    default CompletableFuture<Boolean> updateAsync(T entity) {
+        return MapperAsyncExecutor.write(mapperMetadata(), () -> update(entity));
+    }
+
+    default CompletableFuture<Boolean> deleteByIdAsync(Serializable id) {
+        return MapperAsyncExecutor.write(mapperMetadata(), () -> SqlHelper.retBool(deleteById(id)));
+    }
+
+    default CompletableFuture<Boolean> saveBatchAsync(Collection<T> entityList) {
+        return saveBatchAsync(entityList, DEFAULT_BATCH_SIZE);
+    }
+
+    default CompletableFuture<Boolean> saveBatchAsync(Collection<T> entityList, int batchSize) {
+        return MapperAsyncExecutor.write(mapperMetadata(), () -> saveBatch(entityList, batchSize));
+    }
+
+    default CompletableFuture<Boolean> updateBatchByIdAsync(Collection<T> entityList, int batchSize) {
+        return MapperAsyncExecutor.write(mapperMetadata(), () -> updateBatchById(entityList, batchSize));
+    }
+
+    /**
+     * 游标查询，结果按fetchSize分批读取，内存占用与总行数无关
+     * <p>游标需要关闭（try-with-resources），遍历结束时自动关闭；事务内使用事务的连接，事务外使用独立session</p>
+     *
+     * @param queryWrapper 实体对象封装操作类（可以为 null）
+     * @return 游标
+     */
+    default Cursor<T> selectCursor(Wrapper<T> queryWrapper) {
+        return selectCursor(queryWrapper, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * 游标查询
+     * <p>MySQL需在连接参数中开启useCursorFetch=true，或传入Integer.MIN_VALUE逐行读取；PostgreSQL需在事务内才会分批读取</p>
+     *
+     * @param queryWrapper 实体对象封装操作类（可以为 null）
+     * @param fetchSize    JDBC fetchSize
+     * @return 游标
+     */
+    default Cursor<T> selectCursor(Wrapper<T> queryWrapper, int fetchSize) {
+        return MapperSqlHelper.selectCursor(mapperMetadata(), queryWrapper, fetchSize);
+    }
+
+    /**
+     * 流式查询，Stream需要关闭（try-with-resources）
+     *
+     * @param queryWrapper 实体对象封装操作类（可以为 null）
+     * @return Stream
+     */
+    default Stream<T> selectStream(Wrapper<T> queryWrapper) {
+        return selectStream(queryWrapper, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * 流式查询，Stream需要关闭（try-with-resources）
+     *
+     * @param queryWrapper 实体对象封装操作类（可以为 null）
+     * @param fetchSize    JDBC fetchSize
+     * @return Stream
+     */
+    default Stream<T> selectStream(Wrapper<T> queryWrapper, int fetchSize) {
+        SessionCursor<T> cursor = MapperSqlHelper.selectCursor(mapperMetadata(), queryWrapper, fetchSize);
+        return StreamSupport.stream(cursor.spliterator(), false).onClose(cursor::close);
+    }
+
+    /**
+     * 逐条回调查询，查询结束后释放session
+     *
+     * @param queryWrapper  实体对象封装操作类（可以为 null）
+     * @param fetchSize     JDBC fetchSize
+     * @param resultHandler 回调，可通过ResultContext.stop()提前结束
+     */
+    default void selectEach(Wrapper<T> queryWrapper, int fetchSize, ResultHandler<T> resultHandler) {
+        MapperSqlHelper.selectEach(mapperMetadata(), queryWrapper, fetchSize, resultHandler);
+    }
+
+    /**
+     * 按列查询，数值列读入long[]/int[]/double[]，字符串列按字典编码，不为每行创建实体或Map
+     * <pre>
+     * ColumnBatch batch = mapper.selectColumns(wrapper, Arrays.asList(Order::getUserId, Order::getAmount));
+     * long[] userIds = batch.getLongs(0);
+     * double[] amounts = batch.getDoubles(1);
+     * </pre>
+     *
+     * @param queryWrapper 实体对象封装操作类（可以为 null），其中的select不生效
+     * @param columns      查询的列
+     * @return 全部结果
+     */
+    default ColumnBatch selectColumns(Wrapper<T> queryWrapper, List<SFunction<T, ?>> columns) {
+        return selectColumns(queryWrapper, columns, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * 按列查询，指定JDBC fetchSize
+     * <p>MySQL需在连接参数中开启useCursorFetch=true才按fetchSize分批读取，或传入Integer.MIN_VALUE逐行读取；PostgreSQL只在事务内分批读取</p>
+     *
+     * @param queryWrapper 实体对象封装操作类（可以为 null），其中的select不生效
+     * @param columns      查询的列
+     * @param fetchSize    JDBC fetchSize
+     * @return 全部结果
+     */
+    default ColumnBatch selectColumns(Wrapper<T> queryWrapper, List<SFunction<T, ?>> columns, int fetchSize) {
+        ColumnBatch batch = MapperSqlHelper.columnBatch(mapperMetadata(), columns, 0);
+        MapperSqlHelper.selectColumns(mapperMetadata(), queryWrapper, batch, fetchSize, null);
+        return batch;
+    }
+
+    /**
+     * 按列分片查询，每读满chunkRows行回调一次，各分片复用同一批数组，内存占用与总行数无关
+     * <p>回调中不能保留数组引用；字符串字典在各分片间共用，编码保持不变，不同值很多时可在回调末尾调用{@link ColumnBatch#resetDictionaries()}</p>
+     *
+     * @param queryWrapper 实体对象封装操作类（可以为 null），其中的select不生效
+     * @param columns      查询的列
+     * @param chunkRows    分片行数
+     * @param consumer     分片回调
+     * @return 总行数
+     */
+    default long selectColumns(Wrapper<T> queryWrapper, List<SFunction<T, ?>> columns, int chunkRows, Consumer<ColumnBatch> consumer) {
+        return selectColumns(queryWrapper, columns, chunkRows, DEFAULT_FETCH_SIZE, consumer);
+    }
+
+    /**
+     * 按列分片查询，指定JDBC fetchSize
+     * <p>MySQL需在连接参数中开启useCursorFetch=true才按fetchSize分批读取，或传入Integer.MIN_VALUE逐行读取；PostgreSQL只在事务内分批读取，
+     * 否则驱动会一次读入全部结果，分片只限制了数组的大小</p>
+     *
+     * @param queryWrapper 实体对象封装操作类（可以为 null），其中的select不生效
+     * @param columns      查询的列
+     * @param chunkRows    分片行数
+     * @param fetchSize    JDBC fetchSize
+     * @param consumer     分片回调
+     * @return 总行数
+     */
+    default long selectColumns(Wrapper<T> queryWrapper, List<SFunction<T, ?>> columns, int chunkRows, int fetchSize, Consumer<ColumnBatch> consumer) {
+        Assert.isFalse(chunkRows < 1, "chunkRows must not be less than one");
+        ColumnBatch batch = MapperSqlHelper.columnBatch(mapperMetadata(), columns, chunkRows);
+        return MapperSqlHelper.selectColumns(mapperMetadata(), queryWrapper, batch, fetchSize, consumer);
+    }
+
+    /**
+     * 键集分页遍历，每页 WHERE key > lastSeen ORDER BY key LIMIT pageSize，深度翻页不变慢
+     * <p>分页列不是主键时以主键作为第二排序键</p>
+     * <pre>
+     * for (List&lt;T&gt; page : mapper.selectKeyset(1000).where(w -&gt; w.eq("status", 1)).prefetch()) { ... }
+     * </pre>
+     *
+     * @param pageSize 每页条数
+     * @return 惰性分页，遍历时才查询
+     */
+    default KeysetPager<T> selectKeyset(int pageSize) {
+        return new KeysetPager<>(this, mapperMetadata(), pageSize);
+    }
+
     /**
      * 执行批量操作
      *
@@ -160,38 +647,45 @@ public interface CommonBaseMapper<T> extends BaseMapper<T>{
         return MapperSqlHelper.executeBatch(currentModelClass(), log, list, batchSize, consumer);
     }
 
-    default Class<?>  currentModelClass(){
-        if(entityClassMap.get(this)!=null){
-            return entityClassMap.get(this);
+    /**
+     * 实体缓存的命中、未命中、淘汰统计
+     *
+     * @return 统计，未开启实体缓存时返回null
+     */
+    default CacheStats entityCacheStats() {
+        EntityCache cache = mapperMetadata().getEntityCache();
+        return cache == null ? null : cache.stats();
+    }
+
+    /**
+     * 清空实体缓存，绕过mapper修改表数据后调用
+     */
+    default void evictEntityCache() {
+        EntityCache cache = mapperMetadata().getEntityCache();
+        if (cache != null) {
+            cache.invalidateAll();
         }
-        ParameterizedType parameterizedType= (ParameterizedType) this.getMapper().getGenericInterfaces()[0];
-        Class<?> clazz = (Class) parameterizedType.getActualTypeArguments()[0];
-        entityClassMap.put(this,clazz);
-        return clazz;
+    }
+
+    /**
+     * 获取当前mapper的元数据，注册时已生成，这里只做无锁查表
+     *
+     * @return mapper元数据
+     */
+    default MapperMetadata mapperMetadata() {
+        return MapperMetadataRegistry.resolve(this);
+    }
+
+    default Class<?> currentModelClass() {
+        return mapperMetadata().getEntityClass();
     }
 
 
     /**
      * 获取 目标对象
-     * @return
-     * @throws Exception
+     * @return mapper接口
      */
-    default Class<?> getMapper()  {
-        if(mapperClassMap.get(this)!=null){
-            return mapperClassMap.get(this);
-        }
-        try {
-            Field h = this.getClass().getSuperclass().getDeclaredField("h");
-            h.setAccessible(true);
-            Object o1 = h.get(this);
-            Field mapperInterface = o1.getClass().getDeclaredField("mapperInterface");
-            mapperInterface.setAccessible(true);
-            Class<?> clazz = (Class<?>) mapperInterface.get(o1);
-            mapperClassMap.put(this,clazz);
-            return clazz;
-        }catch (Exception e){
-            log.error("",e);
-        }
-        return null;
+    default Class<?> getMapper() {
+        return mapperMetadata().getMapperInterface();
     }
 }
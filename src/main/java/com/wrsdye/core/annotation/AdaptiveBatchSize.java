@@ -0,0 +1,29 @@
+package com.wrsdye.core.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * @author wangrx
+ * @description 自适应批次大小，标注在实体上后未指定batchSize的批量写入按flush耗时调整分片行数
+ * @date 2026/10/19 上午9:10
+ */
+@Target({ ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface AdaptiveBatchSize {
+
+    /**
+     * 分片最小行数
+     */
+    int min() default 50;
+
+    /**
+     * 分片最大行数
+     */
+    int max() default 10000;
+
+    /**
+     * 单个分片期望的写入耗时，毫秒
+     */
+    long targetFlushMillis() default 100;
+}
@@ -1,5 +1,7 @@
 package com.wrsdye.core.annotation;
 
+import org.springframework.stereotype.Indexed;
+
 import java.lang.annotation.*;
 
 /**
@@ -10,7 +12,33 @@ import java.lang.annotation.*;
 @Target({ ElementType.TYPE })
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
+@Indexed
 public @interface BuildMapper {
 
     String value() default "";
+
+    /**
+     * saveBatch默认的插入方式
+     */
+    InsertMode insertMode() default InsertMode.BATCH;
+
+    /**
+     * saveOrUpdateBatch默认的执行方式
+     */
+    SaveOrUpdateMode saveOrUpdateMode() default SaveOrUpdateMode.QUERY;
+
+    /**
+     * selectById/selectBatchIds实体缓存的最大条数，0为不开启，开启时必须指定cacheExpireSeconds
+     */
+    long cacheMaximumSize() default 0;
+
+    /**
+     * 实体缓存写入后的过期秒数，开启实体缓存时必须大于0，限制绕过mapper修改的数据被读到的时长
+     */
+    long cacheExpireSeconds() default 0;
+
+    /**
+     * 查询出的实体保存快照，updateBatchById只更新与快照不同的字段
+     */
+    boolean dirtyTracking() default false;
 }
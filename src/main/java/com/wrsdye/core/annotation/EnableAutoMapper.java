@@ -16,4 +16,40 @@ import java.lang.annotation.*;
 @Documented
 public @interface EnableAutoMapper {
     String[] basePackages() default {};
+
+    /**
+     * 并行生成mapper字节码的线程数，小于1时取CPU核数
+     */
+    int buildThreads() default 0;
+
+    /**
+     * mapper字节码磁盘缓存目录，为空时不缓存；重启时命中缓存的mapper直接由字节码定义，不再经过javassist
+     */
+    String classCacheDir() default "";
+
+    /**
+     * @BuildMapper实体的发现方式，默认读索引，只扫描没有索引的类路径根
+     */
+    MapperDiscovery discovery() default MapperDiscovery.AUTO;
+
+    /**
+     * 延迟初始化：mapper注册为lazy-init的代理，首次调用方法时才解析mapper并注入MappedStatement
+     * <p>需要mybatis配置为ConcurrentMybatisConfiguration，使用mybatis-plus自动配置时自动替换，否则在启动时初始化</p>
+     */
+    boolean lazy() default false;
+
+    /**
+     * 延迟初始化时仍在启动时初始化的实体
+     */
+    Class<?>[] warmUp() default {};
+
+    /**
+     * 启动报告JSON文件路径，为空时不写文件；报告在容器中的单例初始化完成后写入，JFR事件不受此项影响
+     */
+    String startupReport() default "";
+
+    /**
+     * 启动报告中列出的耗时最长的实体数
+     */
+    int startupReportTop() default 10;
 }
@@ -0,0 +1,20 @@
+package com.wrsdye.core.annotation;
+
+/**
+ * @author wangrx
+ * @description 批量插入方式
+ * @date 2026/10/18 下午4:02
+ */
+public enum InsertMode {
+
+    /**
+     * 每条记录一条INSERT，通过BATCH执行器批量提交
+     */
+    BATCH,
+
+    /**
+     * 每个分片一条 INSERT ... VALUES (...),(...)，方言不支持时回退到BATCH
+     * <p>注意：所有字段都会写入，值为null的字段不会使用数据库默认值</p>
+     */
+    MULTI_ROW
+}
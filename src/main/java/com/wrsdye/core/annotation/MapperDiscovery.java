@@ -0,0 +1,24 @@
+package com.wrsdye.core.annotation;
+
+/**
+ * @author wangrx
+ * @description @BuildMapper实体的发现方式
+ * @date 2026/10/18 下午3:30
+ */
+public enum MapperDiscovery {
+
+    /**
+     * 合并注解处理器索引与META-INF/spring.components，再扫描没有索引的类路径根
+     */
+    AUTO,
+
+    /**
+     * 只读索引，不扫描类路径，没有索引的类路径根中的实体不会被发现
+     */
+    INDEX,
+
+    /**
+     * 总是扫描类路径
+     */
+    SCAN
+}
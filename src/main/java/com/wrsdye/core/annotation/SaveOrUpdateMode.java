@@ -0,0 +1,20 @@
+package com.wrsdye.core.annotation;
+
+/**
+ * @author wangrx
+ * @description 批量保存或更新的执行方式
+ * @date 2026/10/18 下午6:02
+ */
+public enum SaveOrUpdateMode {
+
+    /**
+     * 每个分片先按主键集合查询一次已存在的记录，再分组批量插入、批量更新
+     */
+    QUERY,
+
+    /**
+     * 使用数据库原生的插入或更新语句，不需要查询，方言不支持时回退到QUERY
+     * <p>注意：主键冲突时会用本次的值覆盖全部非主键字段，包括为null的字段</p>
+     */
+    UPSERT
+}
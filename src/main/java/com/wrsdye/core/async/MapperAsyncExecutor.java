@@ -0,0 +1,150 @@
+package com.wrsdye.core.async;
+
+import com.baomidou.mybatisplus.core.toolkit.Assert;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.utils.MapperSqlHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * @author wangrx
+ * @description CommonBaseMapper异步方法的执行器，同一数据源上同时执行的异步调用数不超过连接池大小
+ * <p>Java 21及以上默认使用虚拟线程，否则使用守护线程的缓存线程池；可通过setExecutor替换</p>
+ * <p>事务语义：不能在事务内调用（直接报错，不会静默脱离调用方事务）；查询不开启事务，写操作每次调用在自己的事务中执行，
+ * 事务管理器见{@link MapperSqlHelper#transactionManager}</p>
+ * @date 2026/10/19 上午9:30
+ */
+@Slf4j
+public final class MapperAsyncExecutor {
+
+    private static final ConcurrentMap<SqlSessionFactory, AsyncContext> CONTEXTS = new ConcurrentHashMap<>();
+
+    private static volatile Executor executor;
+
+    /**
+     * 同时执行的异步调用数上限，小于1时取连接池大小
+     */
+    private static volatile int maxConcurrency;
+
+    private MapperAsyncExecutor() {
+    }
+
+    /**
+     * 替换执行异步调用的线程池
+     *
+     * @param asyncExecutor 线程池
+     */
+    public static void setExecutor(Executor asyncExecutor) {
+        executor = asyncExecutor;
+    }
+
+    /**
+     * 设置每个数据源同时执行的异步调用数上限，需在首次异步调用前设置
+     *
+     * @param concurrency 上限，小于1时取连接池大小
+     */
+    public static void setMaxConcurrency(int concurrency) {
+        maxConcurrency = concurrency;
+    }
+
+    /**
+     * 异步查询，不开启事务
+     *
+     * @param metadata mapper元数据
+     * @param supplier 查询
+     * @param <R>      结果
+     * @return 结果
+     */
+    public static <R> CompletableFuture<R> query(MapperMetadata metadata, Supplier<R> supplier) {
+        return submit(metadata, false, supplier);
+    }
+
+    /**
+     * 异步写入，在独立的事务中执行
+     *
+     * @param metadata mapper元数据
+     * @param supplier 写操作
+     * @param <R>      结果
+     * @return 结果
+     */
+    public static <R> CompletableFuture<R> write(MapperMetadata metadata, Supplier<R> supplier) {
+        return submit(metadata, true, supplier);
+    }
+
+    private static <R> CompletableFuture<R> submit(MapperMetadata metadata, boolean transactional, Supplier<R> supplier) {
+        Assert.isFalse(TransactionSynchronizationManager.isActualTransactionActive(),
+                "async mapper method can not be called inside a transaction, it would run outside of it");
+        AsyncContext context = CONTEXTS.computeIfAbsent(MapperSqlHelper.sqlSessionFactory(metadata.getEntityClass()), AsyncContext::new);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                context.permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return transactional ? new TransactionTemplate(MapperSqlHelper.transactionManager(context.dataSource)).execute(status -> supplier.get())
+                        : supplier.get();
+            } finally {
+                context.permits.release();
+            }
+        }, getExecutor());
+    }
+
+    private static Executor getExecutor() {
+        Executor current = executor;
+        if (current == null) {
+            synchronized (MapperAsyncExecutor.class) {
+                if (executor == null) {
+                    executor = createDefaultExecutor();
+                }
+                current = executor;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Java 21及以上使用虚拟线程，项目按1.8编译，通过反射创建
+     */
+    private static Executor createDefaultExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService virtualExecutor = (ExecutorService) method.invoke(null);
+            log.info("MapperAsyncExecutor use virtual threads");
+            return virtualExecutor;
+        } catch (ReflectiveOperationException e) {
+            log.info("MapperAsyncExecutor use platform threads, virtual threads require Java 21");
+            return Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("mapper-async-%d").setDaemon(true).build());
+        }
+    }
+
+    private static class AsyncContext {
+
+        private final Semaphore permits;
+
+        private final DataSource dataSource;
+
+        AsyncContext(SqlSessionFactory sqlSessionFactory) {
+            DataSource dataSource = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource();
+            int concurrency = maxConcurrency > 0 ? maxConcurrency : MapperSqlHelper.dataSourcePoolSize(dataSource);
+            this.permits = new Semaphore(concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors(), true);
+            this.dataSource = dataSource;
+        }
+    }
+}
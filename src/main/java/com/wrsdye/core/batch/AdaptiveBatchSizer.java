@@ -0,0 +1,93 @@
+package com.wrsdye.core.batch;
+
+import com.baomidou.mybatisplus.core.toolkit.Assert;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author wangrx
+ * @description 按实体学习的分片行数，根据每个分片的写入耗时与估算字节数向目标耗时调整，线程安全
+ * @date 2026/10/19 上午9:15
+ */
+public class AdaptiveBatchSizer {
+
+    /**
+     * 新观测值的权重，避免单个分片的抖动使行数大幅波动
+     */
+    private static final double SMOOTHING = 0.5;
+
+    /**
+     * 单次调整的最大倍数
+     */
+    private static final int MAX_STEP = 2;
+
+    private final int minBatchSize;
+
+    private final int maxBatchSize;
+
+    private final long targetNanos;
+
+    private final long maxBatchBytes;
+
+    private volatile int batchSize;
+
+    /**
+     * @param minBatchSize      分片最小行数
+     * @param maxBatchSize      分片最大行数
+     * @param targetFlushMillis 单个分片期望的写入耗时
+     * @param maxBatchBytes     单个分片的估算字节数上限，0为不限制
+     * @param initialBatchSize  初始行数
+     */
+    public AdaptiveBatchSizer(int minBatchSize, int maxBatchSize, long targetFlushMillis, long maxBatchBytes, int initialBatchSize) {
+        Assert.isFalse(minBatchSize < 1, "min batch size must not be less than one");
+        Assert.isFalse(maxBatchSize < minBatchSize, "max batch size must not be less than min batch size");
+        Assert.isFalse(targetFlushMillis < 1, "target flush millis must not be less than one");
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetFlushMillis);
+        this.maxBatchBytes = maxBatchBytes;
+        this.batchSize = clamp(initialBatchSize);
+    }
+
+    /**
+     * 下一个分片的行数
+     *
+     * @return 行数
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * 记录一个分片的写入结果并调整行数
+     * <p>行数不足当前值四分之一的分片（通常是数据源的最后一个分片）耗时主要是固定开销，不参与调整</p>
+     *
+     * @param rows  分片行数
+     * @param bytes 分片估算字节数，未知时为0
+     * @param nanos 分片写入耗时，包含生成语句与flush
+     */
+    public synchronized void record(int rows, long bytes, long nanos) {
+        int current = batchSize;
+        if (rows < 1 || rows < current / 4) {
+            return;
+        }
+        double ideal = (double) targetNanos * rows / Math.max(nanos, 1);
+        ideal = Math.max((double) current / MAX_STEP, Math.min((double) current * MAX_STEP, ideal));
+        long next = (long) (current + (ideal - current) * SMOOTHING);
+        if (maxBatchBytes > 0 && bytes > 0) {
+            //字节数上限是硬限制，不做平滑
+            next = Math.min(next, maxBatchBytes * rows / bytes);
+        }
+        batchSize = clamp(next);
+    }
+
+    private int clamp(long size) {
+        return (int) Math.max(minBatchSize, Math.min(maxBatchSize, size));
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveBatchSizer{batchSize=" + batchSize + ", min=" + minBatchSize + ", max=" + maxBatchSize
+                + ", targetMillis=" + TimeUnit.NANOSECONDS.toMillis(targetNanos) + "}";
+    }
+}
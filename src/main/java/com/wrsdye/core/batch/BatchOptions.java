@@ -0,0 +1,56 @@
+package com.wrsdye.core.batch;
+
+import com.wrsdye.core.CommonBaseMapper;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.function.Consumer;
+
+/**
+ * @author wangrx
+ * @description 流式批量写入参数
+ * @date 2026/10/18 下午9:20
+ */
+@Getter
+@Builder(toBuilder = true)
+public class BatchOptions {
+
+    /**
+     * 每个分片的最大行数，达到后flush
+     */
+    @Builder.Default
+    private final int batchSize = CommonBaseMapper.DEFAULT_BATCH_SIZE;
+
+    /**
+     * 每个分片的最大估算字节数，达到后flush，0为不限制
+     */
+    private final long maxBatchBytes;
+
+    /**
+     * 每个分片flush后提交，只在没有外部事务时生效；失败时已提交的分片不会回滚
+     */
+    private final boolean commitPerChunk;
+
+    /**
+     * 并行写入的线程数，0为按连接池大小计算，只对并行写入生效
+     */
+    private final int parallelism;
+
+    /**
+     * 每个分片写入后的回调，并行写入时会串行调用
+     */
+    private final Consumer<BatchProgress> progressListener;
+
+    /**
+     * 按实体学习到的行数切分分片，并根据每个分片的写入耗时调整，开启后忽略batchSize
+     */
+    private final boolean adaptive;
+
+    public static BatchOptions defaults() {
+        return builder().build();
+    }
+
+    public static BatchOptions adaptive() {
+        return builder().adaptive(true).build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.wrsdye.core.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @author wangrx
+ * @description 流式批量写入进度，每个分片写入后回调一次
+ * @date 2026/10/18 下午9:25
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class BatchProgress {
+
+    /**
+     * 分片序号，从0开始
+     */
+    private final int chunkIndex;
+
+    /**
+     * 当前分片行数
+     */
+    private final int chunkRows;
+
+    /**
+     * 当前分片估算字节数，未设置maxBatchBytes时为0
+     */
+    private final long chunkBytes;
+
+    /**
+     * 累计已写入行数
+     */
+    private final long totalRows;
+
+    /**
+     * 当前分片是否已提交
+     */
+    private final boolean committed;
+
+    /**
+     * 累计耗时，毫秒
+     */
+    private final long elapsedMillis;
+}
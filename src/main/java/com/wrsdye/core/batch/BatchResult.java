@@ -0,0 +1,72 @@
+package com.wrsdye.core.batch;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * @author wangrx
+ * @description 并行批量写入结果，每个分片单独提交，部分分片失败时其余分片不受影响
+ * @date 2026/10/18 下午10:12
+ */
+@Getter
+@ToString
+public class BatchResult<E> {
+
+    private final List<ChunkResult<E>> succeeded;
+
+    private final List<ChunkResult<E>> failed;
+
+    /**
+     * 总耗时，毫秒
+     */
+    private final long elapsedMillis;
+
+    public BatchResult(List<ChunkResult<E>> chunks, long elapsedMillis) {
+        List<ChunkResult<E>> succeededChunks = new ArrayList<>();
+        List<ChunkResult<E>> failedChunks = new ArrayList<>();
+        for (ChunkResult<E> chunk : chunks) {
+            (chunk.isSucceeded() ? succeededChunks : failedChunks).add(chunk);
+        }
+        succeededChunks.sort(Comparator.comparingInt(ChunkResult::getChunkIndex));
+        failedChunks.sort(Comparator.comparingInt(ChunkResult::getChunkIndex));
+        this.succeeded = Collections.unmodifiableList(succeededChunks);
+        this.failed = Collections.unmodifiableList(failedChunks);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isSucceeded() {
+        return failed.isEmpty();
+    }
+
+    /**
+     * 写入成功的行数
+     *
+     * @return 行数
+     */
+    public long getSucceededRows() {
+        return succeeded.stream().mapToLong(ChunkResult::getRowCount).sum();
+    }
+
+    /**
+     * 写入失败的行数
+     *
+     * @return 行数
+     */
+    public long getFailedRows() {
+        return failed.stream().mapToLong(ChunkResult::getRowCount).sum();
+    }
+
+    /**
+     * 按成功行数与总耗时计算的吞吐
+     *
+     * @return 行/秒
+     */
+    public double getRowsPerSecond() {
+        return getSucceededRows() * 1000d / Math.max(elapsedMillis, 1);
+    }
+}
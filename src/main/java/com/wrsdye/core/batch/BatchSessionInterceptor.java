@@ -0,0 +1,197 @@
+package com.wrsdye.core.batch;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.defaults.DefaultSqlSession;
+import org.apache.ibatis.transaction.Transaction;
+import org.mybatis.spring.MyBatisExceptionTranslator;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author wangrx
+ * @description 事务内复用的BATCH session，同一事务内的批量操作共用一个session，事务提交前flush
+ * <p>其他执行器（SIMPLE/REUSE）执行语句前先flush该session并清空自身一级缓存，保证语句顺序与读到已写入的数据</p>
+ * @date 2026/10/19 下午2:10
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class BatchSessionInterceptor implements Interceptor {
+
+    /**
+     * mybatis配置 -> 拦截器，拦截器同时作为事务资源的key
+     */
+    private static final Map<Configuration, BatchSessionInterceptor> INTERCEPTORS = new ConcurrentHashMap<>();
+
+    private static final String UPDATE = "update";
+
+    /**
+     * 注册到mybatis配置，已注册时返回已有的拦截器
+     * <p>注册前已创建的session不经过拦截器，应在mapper初始化时注册</p>
+     *
+     * @param configuration mybatis配置
+     * @return 拦截器
+     */
+    public static BatchSessionInterceptor register(Configuration configuration) {
+        BatchSessionInterceptor interceptor = INTERCEPTORS.get(configuration);
+        if (interceptor != null) {
+            return interceptor;
+        }
+        return INTERCEPTORS.computeIfAbsent(configuration, c -> {
+            BatchSessionInterceptor created = new BatchSessionInterceptor();
+            synchronized (c) {
+                c.addInterceptor(created);
+            }
+            return created;
+        });
+    }
+
+    /**
+     * 获取当前事务绑定的BATCH session，没有时创建并绑定到事务
+     * <p>只在spring管理的事务内可用，返回的session由事务结束时关闭，调用方不能关闭</p>
+     *
+     * @param configuration mybatis配置
+     * @return session，不在spring事务内或未使用spring事务工厂时返回null
+     */
+    public static SqlSession currentSession(Configuration configuration) {
+        Environment environment = configuration.getEnvironment();
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !(environment.getTransactionFactory() instanceof SpringManagedTransactionFactory)) {
+            return null;
+        }
+        BatchSessionInterceptor interceptor = register(configuration);
+        SessionHolder holder = (SessionHolder) TransactionSynchronizationManager.getResource(interceptor);
+        if (holder == null) {
+            //同openSession，只是保留Transaction用于识别该session的执行器
+            Transaction transaction = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, false);
+            Executor executor = configuration.newExecutor(transaction, ExecutorType.BATCH);
+            holder = new SessionHolder(new DefaultSqlSession(configuration, executor, false), transaction);
+            TransactionSynchronizationManager.bindResource(interceptor, holder);
+            TransactionSynchronizationManager.registerSynchronization(new SessionSynchronization(interceptor, holder, environment));
+        }
+        return holder.session;
+    }
+
+    /**
+     * 写入当前事务绑定的BATCH session中未执行的语句，绕过mybatis执行器直接使用连接前调用
+     *
+     * @param configuration mybatis配置
+     */
+    public static void flushPending(Configuration configuration) {
+        BatchSessionInterceptor interceptor = INTERCEPTORS.get(configuration);
+        SessionHolder holder = interceptor == null ? null : (SessionHolder) TransactionSynchronizationManager.getResource(interceptor);
+        if (holder != null && holder.pending) {
+            holder.pending = false;
+            holder.session.flushStatements();
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        SessionHolder holder = (SessionHolder) TransactionSynchronizationManager.getResource(this);
+        if (holder == null) {
+            return invocation.proceed();
+        }
+        Executor executor = (Executor) invocation.getTarget();
+        if (executor.getTransaction() == holder.transaction) {
+            if (UPDATE.equals(invocation.getMethod().getName())) {
+                holder.pending = true;
+            }
+            return invocation.proceed();
+        }
+        if (holder.pending) {
+            holder.pending = false;
+            holder.session.flushStatements();
+            executor.clearLocalCache();
+        }
+        return invocation.proceed();
+    }
+
+    private static class SessionHolder {
+
+        private final SqlSession session;
+
+        private final Transaction transaction;
+
+        /**
+         * 上次其他执行器执行后，该session是否执行过写语句
+         */
+        private boolean pending;
+
+        SessionHolder(SqlSession session, Transaction transaction) {
+            this.session = session;
+            this.transaction = transaction;
+        }
+    }
+
+    private static class SessionSynchronization implements TransactionSynchronization, Ordered {
+
+        private final BatchSessionInterceptor key;
+
+        private final SessionHolder holder;
+
+        private final Environment environment;
+
+        SessionSynchronization(BatchSessionInterceptor key, SessionHolder holder, Environment environment) {
+            this.key = key;
+            this.holder = holder;
+            this.environment = environment;
+        }
+
+        @Override
+        public int getOrder() {
+            //与mybatis-spring的SqlSessionSynchronization一致，在连接释放前执行
+            return DataSourceUtils.CONNECTION_SYNCHRONIZATION_ORDER - 1000;
+        }
+
+        @Override
+        public void suspend() {
+            //挂起前写入外层事务的连接，新事务会绑定自己的session
+            holder.session.flushStatements();
+            TransactionSynchronizationManager.unbindResource(key);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(key, holder);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            //flush失败时异常抛给事务管理器，事务回滚
+            try {
+                holder.session.flushStatements();
+            } catch (PersistenceException e) {
+                RuntimeException translated = new MyBatisExceptionTranslator(environment.getDataSource(), true).translateExceptionIfPossible(e);
+                throw translated == null ? e : translated;
+            }
+        }
+
+        @Override
+        public void beforeCompletion() {
+            //回滚时未flush的语句随close丢弃；连接由事务管理器释放
+            TransactionSynchronizationManager.unbindResourceIfPossible(key);
+            holder.session.close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.wrsdye.core.batch;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.wrsdye.core.utils.MapperSqlHelper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * @author wangrx
+ * @description 按行数或估算字节数把数据源切成分片，每次只读取一个分片
+ * @date 2026/10/18 下午10:05
+ */
+public class ChunkIterator<E> implements Iterator<List<E>> {
+
+    /**
+     * 分片集合的初始容量上限
+     */
+    private static final int DEFAULT_CHUNK_CAPACITY = 1024;
+
+    private final Iterator<E> iterator;
+
+    private int batchSize;
+
+    private final long maxBatchBytes;
+
+    private final TableInfo tableInfo;
+
+    private long lastChunkBytes;
+
+    /**
+     * @param iterator  数据源
+     * @param options   批量参数
+     * @param tableInfo 表信息，设置了maxBatchBytes时用于估算字节数
+     */
+    public ChunkIterator(Iterator<E> iterator, BatchOptions options, TableInfo tableInfo) {
+        this.iterator = iterator;
+        this.batchSize = options.getBatchSize();
+        this.maxBatchBytes = options.getMaxBatchBytes();
+        this.tableInfo = tableInfo;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return iterator.hasNext();
+    }
+
+    @Override
+    public List<E> next() {
+        if (!iterator.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<E> chunk = new ArrayList<>(Math.min(batchSize, DEFAULT_CHUNK_CAPACITY));
+        long chunkBytes = 0;
+        boolean countBytes = maxBatchBytes > 0 && tableInfo != null;
+        while (iterator.hasNext()) {
+            E element = iterator.next();
+            chunk.add(element);
+            if (countBytes) {
+                chunkBytes += MapperSqlHelper.estimateRowBytes(tableInfo, element);
+            }
+            if (chunk.size() >= batchSize || (countBytes && chunkBytes >= maxBatchBytes)) {
+                break;
+            }
+        }
+        lastChunkBytes = chunkBytes;
+        return chunk;
+    }
+
+    /**
+     * 调整后续分片的最大行数
+     *
+     * @param batchSize 行数
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 上一个分片的估算字节数，未设置maxBatchBytes时为0
+     *
+     * @return 字节数
+     */
+    public long getLastChunkBytes() {
+        return lastChunkBytes;
+    }
+}
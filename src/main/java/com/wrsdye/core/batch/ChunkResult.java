@@ -0,0 +1,47 @@
+package com.wrsdye.core.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * @author wangrx
+ * @description 并行批量写入中单个分片的结果
+ * @date 2026/10/18 下午10:10
+ */
+@Getter
+@ToString(exclude = "rows")
+@AllArgsConstructor
+public class ChunkResult<E> {
+
+    /**
+     * 分片序号，从0开始
+     */
+    private final int chunkIndex;
+
+    /**
+     * 分片行数
+     */
+    private final int rowCount;
+
+    /**
+     * 分片耗时，毫秒
+     */
+    private final long elapsedMillis;
+
+    /**
+     * 失败的分片保留原始数据以便重试，成功时为null
+     */
+    private final List<E> rows;
+
+    /**
+     * 失败原因，成功时为null
+     */
+    private final Throwable exception;
+
+    public boolean isSucceeded() {
+        return exception == null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.wrsdye.core.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @author wangrx
+ * @description 工作单元flush后单个实体的影响行数
+ * @date 2026/10/19 下午4:20
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class EntityRowCount {
+
+    private final Class<?> entityClass;
+
+    private final long inserted;
+
+    private final long updated;
+
+    private final long deleted;
+
+    public long getTotal() {
+        return inserted + updated + deleted;
+    }
+}
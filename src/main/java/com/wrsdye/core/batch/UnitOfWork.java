@@ -0,0 +1,320 @@
+package com.wrsdye.core.batch;
+
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.Assert;
+import com.baomidou.mybatisplus.core.toolkit.ClassUtils;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.baomidou.mybatisplus.core.toolkit.ExceptionUtils;
+import com.wrsdye.core.metadata.EntityAccessor;
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import com.wrsdye.core.utils.MapperSqlHelper;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author wangrx
+ * @description 工作单元，收集多个实体的插入、更新、删除，flush时在一个BATCH session中按依赖顺序执行
+ * <p>执行顺序：按依赖顺序插入，再按依赖顺序更新，最后按依赖的逆序删除；没有声明依赖的实体按首次登记的顺序</p>
+ * <p>同一实体同一操作的语句连续执行，并按值为null的字段组合分组，使生成的SQL相同的行落在同一个JDBC批次中</p>
+ * <p>数据库自增主键在flush后回填，子实体需要引用父实体自增主键时应分两次flush</p>
+ * <p>非线程安全，flush成功后清空，可继续使用</p>
+ * @date 2026/10/19 下午4:30
+ */
+public class UnitOfWork {
+
+    private static final Log log = LogFactory.getLog(UnitOfWork.class);
+
+    /**
+     * 实体类 -> 操作 -> 待执行的参数，按首次登记的顺序
+     */
+    private final Map<Class<?>, EnumMap<Operation, List<Object>>> operations = new LinkedHashMap<>();
+
+    /**
+     * 实体类 -> 依赖的实体类（需要先插入、后删除）
+     */
+    private final Map<Class<?>, Set<Class<?>>> dependencies = new HashMap<>();
+
+    public static UnitOfWork create() {
+        return new UnitOfWork();
+    }
+
+    /**
+     * 声明依赖，被依赖的实体先插入、后删除
+     *
+     * @param entityClass 实体类
+     * @param dependsOn   依赖的实体类，如子表实体依赖主表实体
+     * @return this
+     */
+    public UnitOfWork dependsOn(Class<?> entityClass, Class<?>... dependsOn) {
+        Set<Class<?>> parents = dependencies.computeIfAbsent(entityClass, k -> new LinkedHashSet<>());
+        Collections.addAll(parents, dependsOn);
+        return this;
+    }
+
+    public UnitOfWork insert(Object entity) {
+        return register(Operation.INSERT, entity.getClass(), entity);
+    }
+
+    public UnitOfWork insertAll(Collection<?> entityList) {
+        entityList.forEach(this::insert);
+        return this;
+    }
+
+    /**
+     * 登记根据ID更新，非null字段参与更新
+     *
+     * @param entity 实体
+     * @return this
+     */
+    public UnitOfWork update(Object entity) {
+        MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+        param.put(Constants.ENTITY, entity);
+        return register(Operation.UPDATE, entity.getClass(), param);
+    }
+
+    public UnitOfWork updateAll(Collection<?> entityList) {
+        entityList.forEach(this::update);
+        return this;
+    }
+
+    public UnitOfWork delete(Object entity) {
+        Class<?> entityClass = ClassUtils.getUserClass(entity.getClass());
+        Object id = metadata(entityClass).getIdValue(entity);
+        Assert.notNull(id, "can not delete entity %s without id", entityClass.getName());
+        return register(Operation.DELETE, entityClass, id);
+    }
+
+    public UnitOfWork deleteAll(Collection<?> entityList) {
+        entityList.forEach(this::delete);
+        return this;
+    }
+
+    public UnitOfWork deleteById(Class<?> entityClass, Serializable id) {
+        return register(Operation.DELETE, entityClass, id);
+    }
+
+    /**
+     * 是否没有待执行的操作
+     *
+     * @return 没有时返回true
+     */
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * 丢弃待执行的操作，声明的依赖保留
+     */
+    public void clear() {
+        operations.clear();
+    }
+
+    /**
+     * 执行所有登记的操作
+     * <p>在事务内时使用事务绑定的BATCH session，随事务提交；否则在一个session中执行并提交</p>
+     * <p>失败时抛出异常，登记的操作保留，可调用clear丢弃</p>
+     *
+     * @return 每个实体的影响行数
+     */
+    public UnitOfWorkResult flush() {
+        if (operations.isEmpty()) {
+            return new UnitOfWorkResult(Collections.emptyMap(), 0, 0);
+        }
+        long start = System.currentTimeMillis();
+        List<Class<?>> order = sortByDependencies();
+        SqlSessionFactory sqlSessionFactory = MapperSqlHelper.sqlSessionFactory(order.get(0));
+        //statementId -> 实体类与操作，用于把批量结果归到实体
+        Map<String, Step> steps = new HashMap<>();
+        for (Class<?> entityClass : order) {
+            Assert.isTrue(MapperSqlHelper.sqlSessionFactory(entityClass) == sqlSessionFactory,
+                    "entity %s uses a different SqlSessionFactory, can not flush in one session", entityClass.getName());
+            MapperMetadata metadata = metadata(entityClass);
+            //延迟初始化的mapper在这里注入MappedStatement
+            metadata.getTableInfo();
+            for (Operation operation : operations.get(entityClass).keySet()) {
+                steps.put(metadata.getSqlStatement(operation.sqlMethod), new Step(entityClass, operation));
+            }
+        }
+        Map<Class<?>, long[]> counts = new LinkedHashMap<>();
+        int[] statementCount = new int[1];
+        MapperSqlHelper.executeBatch(order.get(0), MapperSqlHelper.OPERATION_UNIT_OF_WORK, log, sqlSession -> {
+            //事务内复用的session可能还有之前调用未flush的语句，不计入本次结果
+            sqlSession.flushStatements();
+            for (Class<?> entityClass : order) {
+                execute(sqlSession, entityClass, Operation.INSERT);
+            }
+            for (Class<?> entityClass : order) {
+                execute(sqlSession, entityClass, Operation.UPDATE);
+            }
+            for (int i = order.size() - 1; i >= 0; i--) {
+                execute(sqlSession, order.get(i), Operation.DELETE);
+            }
+            for (org.apache.ibatis.executor.BatchResult batchResult : sqlSession.flushStatements()) {
+                statementCount[0]++;
+                Step step = steps.get(batchResult.getMappedStatement().getId());
+                if (step != null) {
+                    counts.computeIfAbsent(step.entityClass, k -> new long[Operation.values().length])[step.operation.ordinal()]
+                            += MapperSqlHelper.rowCount(batchResult.getUpdateCounts());
+                }
+            }
+        });
+        Map<Class<?>, EntityRowCount> rowCounts = new LinkedHashMap<>();
+        for (Class<?> entityClass : order) {
+            long[] count = counts.getOrDefault(entityClass, new long[Operation.values().length]);
+            rowCounts.put(entityClass, new EntityRowCount(entityClass, count[Operation.INSERT.ordinal()],
+                    count[Operation.UPDATE.ordinal()], count[Operation.DELETE.ordinal()]));
+        }
+        operations.clear();
+        return new UnitOfWorkResult(rowCounts, statementCount[0], System.currentTimeMillis() - start);
+    }
+
+    private UnitOfWork register(Operation operation, Class<?> entityClass, Object parameter) {
+        Class<?> userClass = ClassUtils.getUserClass(entityClass);
+        metadata(userClass);
+        operations.computeIfAbsent(userClass, k -> new EnumMap<>(Operation.class))
+                .computeIfAbsent(operation, k -> new ArrayList<>())
+                .add(parameter);
+        return this;
+    }
+
+    private void execute(SqlSession sqlSession, Class<?> entityClass, Operation operation) {
+        List<Object> parameters = operations.get(entityClass).get(operation);
+        if (parameters == null) {
+            return;
+        }
+        MapperMetadata metadata = metadata(entityClass);
+        String sqlStatement = metadata.getSqlStatement(operation.sqlMethod);
+        for (List<Object> group : groupBySql(metadata, operation, parameters)) {
+            for (Object parameter : group) {
+                if (operation == Operation.INSERT) {
+                    sqlSession.insert(sqlStatement, parameter);
+                } else if (operation == Operation.UPDATE) {
+                    sqlSession.update(sqlStatement, parameter);
+                } else {
+                    sqlSession.delete(sqlStatement, parameter);
+                }
+            }
+        }
+    }
+
+    /**
+     * 插入与更新语句只包含非null字段，按null字段组合分组，组内保持登记顺序
+     * <p>同一主键登记了多次时按出现次数分轮，第n次出现的操作在第n轮内分组，同一主键的操作仍按登记顺序执行</p>
+     */
+    private static Collection<List<Object>> groupBySql(MapperMetadata metadata, Operation operation, List<Object> parameters) {
+        if (operation == Operation.DELETE || parameters.size() == 1) {
+            return Collections.singletonList(parameters);
+        }
+        TableInfo tableInfo = metadata.getTableInfo();
+        EntityAccessor accessor = metadata.getEntityAccessor();
+        List<TableFieldInfo> fieldList = tableInfo.getFieldList();
+        List<Map<BitSet, List<Object>>> rounds = new ArrayList<>();
+        Map<Object, Integer> occurrences = new HashMap<>();
+        for (Object parameter : parameters) {
+            Object entity = operation == Operation.UPDATE ? ((Map<?, ?>) parameter).get(Constants.ENTITY) : parameter;
+            Object id = tableInfo.havePK() ? accessor.get(entity, tableInfo.getKeyProperty()) : null;
+            BitSet nulls = new BitSet(fieldList.size() + 1);
+            if (tableInfo.havePK() && id == null) {
+                nulls.set(fieldList.size());
+            }
+            for (int i = 0; i < fieldList.size(); i++) {
+                if (accessor.get(entity, fieldList.get(i).getProperty()) == null) {
+                    nulls.set(i);
+                }
+            }
+            //没有主键值的插入不会与其他操作冲突
+            int round = id == null ? 0 : occurrences.merge(id, 1, Integer::sum) - 1;
+            while (rounds.size() <= round) {
+                rounds.add(new LinkedHashMap<>());
+            }
+            rounds.get(round).computeIfAbsent(nulls, k -> new ArrayList<>()).add(parameter);
+        }
+        List<List<Object>> groups = new ArrayList<>();
+        rounds.forEach(round -> groups.addAll(round.values()));
+        return groups;
+    }
+
+    /**
+     * 按依赖拓扑排序，没有依赖关系的实体保持首次登记的顺序
+     */
+    private List<Class<?>> sortByDependencies() {
+        List<Class<?>> registered = new ArrayList<>(operations.keySet());
+        List<Class<?>> sorted = new ArrayList<>(registered.size());
+        Set<Class<?>> visiting = new LinkedHashSet<>();
+        Set<Class<?>> visited = new LinkedHashSet<>();
+        for (Class<?> entityClass : registered) {
+            visit(entityClass, visiting, visited, sorted);
+        }
+        return sorted;
+    }
+
+    private void visit(Class<?> entityClass, Set<Class<?>> visiting, Set<Class<?>> visited, List<Class<?>> sorted) {
+        if (visited.contains(entityClass)) {
+            return;
+        }
+        if (!visiting.add(entityClass)) {
+            throw ExceptionUtils.mpe("cyclic dependency between entities: %s", visiting);
+        }
+        for (Class<?> parent : dependencies.getOrDefault(entityClass, Collections.emptySet())) {
+            visit(parent, visiting, visited, sorted);
+        }
+        visiting.remove(entityClass);
+        visited.add(entityClass);
+        //只依赖、本次没有登记操作的实体不参与执行
+        if (operations.containsKey(entityClass)) {
+            sorted.add(entityClass);
+        }
+    }
+
+    private static MapperMetadata metadata(Class<?> entityClass) {
+        MapperMetadata metadata = MapperMetadataRegistry.getByEntity(entityClass);
+        Assert.notNull(metadata, "can not find mapper for entity %s", entityClass.getName());
+        return metadata;
+    }
+
+    private enum Operation {
+
+        INSERT(SqlMethod.INSERT_ONE),
+
+        UPDATE(SqlMethod.UPDATE_BY_ID),
+
+        DELETE(SqlMethod.DELETE_BY_ID);
+
+        private final SqlMethod sqlMethod;
+
+        Operation(SqlMethod sqlMethod) {
+            this.sqlMethod = sqlMethod;
+        }
+    }
+
+    private static class Step {
+
+        private final Class<?> entityClass;
+
+        private final Operation operation;
+
+        Step(Class<?> entityClass, Operation operation) {
+            this.entityClass = entityClass;
+            this.operation = operation;
+        }
+    }
+}
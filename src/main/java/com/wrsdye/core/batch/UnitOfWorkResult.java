@@ -0,0 +1,56 @@
+package com.wrsdye.core.batch;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author wangrx
+ * @description 工作单元flush结果，按执行顺序记录每个实体的影响行数
+ * @date 2026/10/19 下午4:22
+ */
+@Getter
+@ToString
+public class UnitOfWorkResult {
+
+    private final Map<Class<?>, EntityRowCount> rowCounts;
+
+    /**
+     * JDBC批次数，即发送到数据库的批量语句数
+     */
+    private final int statementCount;
+
+    /**
+     * 总耗时，毫秒
+     */
+    private final long elapsedMillis;
+
+    public UnitOfWorkResult(Map<Class<?>, EntityRowCount> rowCounts, int statementCount, long elapsedMillis) {
+        this.rowCounts = Collections.unmodifiableMap(new LinkedHashMap<>(rowCounts));
+        this.statementCount = statementCount;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * 获取实体的影响行数
+     *
+     * @param entityClass 实体类
+     * @return 影响行数，未参与flush时各项为0
+     */
+    public EntityRowCount get(Class<?> entityClass) {
+        EntityRowCount rowCount = rowCounts.get(entityClass);
+        return rowCount == null ? new EntityRowCount(entityClass, 0, 0, 0) : rowCount;
+    }
+
+    /**
+     * 总影响行数
+     *
+     * @return 行数
+     */
+    public long getTotalRows() {
+        return rowCounts.values().stream().mapToLong(EntityRowCount::getTotal).sum();
+    }
+}
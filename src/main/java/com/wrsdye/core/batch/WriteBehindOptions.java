@@ -0,0 +1,48 @@
+package com.wrsdye.core.batch;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * @author wangrx
+ * @description 异步合并写入参数
+ * @date 2026/10/18 下午11:05
+ */
+@Getter
+@Builder(toBuilder = true)
+public class WriteBehindOptions {
+
+    /**
+     * 累计达到该条数时立即写入，也是单批写入的最大条数
+     */
+    @Builder.Default
+    private final int batchSize = 500;
+
+    /**
+     * 未达到batchSize时，最长等待该时间后写入
+     */
+    @Builder.Default
+    private final long flushIntervalMillis = 50;
+
+    /**
+     * 队列容量，已提交未写入的条数达到该值时提交方等待
+     */
+    @Builder.Default
+    private final int queueCapacity = 10000;
+
+    /**
+     * 队列满时提交方的最长等待时间，超时后返回失败的future，小于0为一直等待
+     */
+    @Builder.Default
+    private final long offerTimeoutMillis = -1;
+
+    /**
+     * 关闭时等待队列写完的最长时间
+     */
+    @Builder.Default
+    private final long shutdownTimeoutMillis = 30000;
+
+    public static WriteBehindOptions defaults() {
+        return builder().build();
+    }
+}
@@ -0,0 +1,296 @@
+package com.wrsdye.core.batch;
+
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.core.toolkit.Assert;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.wrsdye.core.CommonBaseMapper;
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.utils.MapperSqlHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.SqlSession;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @author wangrx
+ * @description 异步合并写入，多个线程的单条save/update先进入无锁队列，达到条数或时间窗口后由后台线程合并为一批写入
+ * <p>每个mapper一个实例；写入在后台线程的独立事务中执行，不参与调用方的事务，事务管理器见{@link MapperSqlHelper#transactionManager}</p>
+ * <p>一批写入失败时逐条重试，只有出错的记录对应的future失败；future的结果取该条语句的影响行数，update未匹配到记录时为false</p>
+ * @date 2026/10/18 下午11:10
+ */
+@Slf4j
+public class WriteBehindWriter<T> implements AutoCloseable {
+
+    private static final ConcurrentMap<Class<?>, WriteBehindWriter<?>> WRITERS = new ConcurrentHashMap<>();
+
+    private final MapperMetadata metadata;
+
+    private final WriteBehindOptions options;
+
+    private final Queue<PendingWrite<T>> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 队列剩余容量，满时提交方阻塞
+     */
+    private final Semaphore capacity;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final DataSource dataSource;
+
+    private final String insertStatement;
+
+    private final String updateStatement;
+
+    private final Thread flusher;
+
+    private volatile boolean closed;
+
+    private WriteBehindWriter(MapperMetadata metadata, WriteBehindOptions options) {
+        Assert.isFalse(options.getBatchSize() < 1, "batchSize must not be less than one");
+        Assert.isFalse(options.getQueueCapacity() < options.getBatchSize(), "queueCapacity must not be less than batchSize");
+        this.metadata = metadata;
+        this.options = options;
+        this.capacity = new Semaphore(options.getQueueCapacity());
+        this.dataSource = MapperSqlHelper.sqlSessionFactory(metadata.getEntityClass()).getConfiguration().getEnvironment().getDataSource();
+        this.insertStatement = metadata.getSqlStatement(SqlMethod.INSERT_ONE);
+        this.updateStatement = metadata.getSqlStatement(SqlMethod.UPDATE_BY_ID);
+        this.flusher = new Thread(this::runFlusher, "write-behind-" + metadata.getEntityClass().getSimpleName());
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * 获取mapper的异步合并写入实例，首次获取时创建，之后的options不再生效
+     *
+     * @param metadata mapper元数据
+     * @param options  参数
+     * @param <T>      实体
+     * @return 实例
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> WriteBehindWriter<T> of(MapperMetadata metadata, WriteBehindOptions options) {
+        WriteBehindWriter<?> writer = WRITERS.get(metadata.getMapperInterface());
+        if (writer == null) {
+            writer = WRITERS.computeIfAbsent(metadata.getMapperInterface(), m -> new WriteBehindWriter<>(metadata, options));
+        }
+        return (WriteBehindWriter<T>) writer;
+    }
+
+    /**
+     * 关闭全部实例，等待队列写完
+     */
+    public static void closeAll() {
+        List<WriteBehindWriter<?>> writers = new ArrayList<>(WRITERS.values());
+        writers.forEach(writer -> writer.closed = true);
+        writers.forEach(WriteBehindWriter::close);
+    }
+
+    /**
+     * 异步插入
+     *
+     * @param entity 实体对象
+     * @return 写入完成后的结果
+     */
+    public CompletableFuture<Boolean> save(T entity) {
+        return submit(true, entity);
+    }
+
+    /**
+     * 异步根据ID更新
+     *
+     * @param entity 实体对象
+     * @return 写入完成后的结果
+     */
+    public CompletableFuture<Boolean> update(T entity) {
+        return submit(false, entity);
+    }
+
+    /**
+     * 已提交未写入的条数
+     *
+     * @return 条数
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * 停止接收新的写入，等待队列写完
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(options.getShutdownTimeoutMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            log.warn("WriteBehindWriter [{}] not drained in {} ms, {} writes pending",
+                    metadata.getEntityClass().getName(), options.getShutdownTimeoutMillis(), pending.get());
+        }
+        WRITERS.remove(metadata.getMapperInterface(), this);
+    }
+
+    private CompletableFuture<Boolean> submit(boolean insert, T entity) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("WriteBehindWriter is closed"));
+            return future;
+        }
+        try {
+            if (options.getOfferTimeoutMillis() < 0) {
+                capacity.acquire();
+            } else if (!capacity.tryAcquire(options.getOfferTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                future.completeExceptionally(new RejectedExecutionException("WriteBehindWriter queue is full"));
+                return future;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return future;
+        }
+        queue.offer(new PendingWrite<>(insert, entity, future));
+        if (pending.incrementAndGet() >= options.getBatchSize()) {
+            LockSupport.unpark(flusher);
+        }
+        if (closed && !flusher.isAlive()) {
+            //关闭与提交并发时，后台线程已退出，剩余的写入直接失败
+            failRemaining();
+        }
+        return future;
+    }
+
+    private void runFlusher() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(options.getFlushIntervalMillis());
+        while (!closed || !queue.isEmpty()) {
+            if (!closed && pending.get() < options.getBatchSize()) {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+            List<PendingWrite<T>> batch;
+            while (!(batch = drain()).isEmpty()) {
+                write(batch);
+            }
+        }
+    }
+
+    private List<PendingWrite<T>> drain() {
+        List<PendingWrite<T>> batch = new ArrayList<>(Math.min(options.getBatchSize(), pending.get()));
+        PendingWrite<T> write;
+        while (batch.size() < options.getBatchSize() && (write = queue.poll()) != null) {
+            batch.add(write);
+        }
+        return batch;
+    }
+
+    private void write(List<PendingWrite<T>> batch) {
+        try {
+            Map<Object, Boolean> results = execute(batch);
+            batch.forEach(write -> write.complete(results));
+        } catch (Throwable t) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(t);
+            } else {
+                log.warn("WriteBehindWriter [{}] batch of {} failed, retry one by one: {}",
+                        metadata.getEntityClass().getName(), batch.size(), t.getMessage());
+                for (PendingWrite<T> write : batch) {
+                    try {
+                        write.complete(execute(Collections.singletonList(write)));
+                    } catch (Throwable e) {
+                        write.future.completeExceptionally(e);
+                    }
+                }
+            }
+        } finally {
+            pending.addAndGet(-batch.size());
+            capacity.release(batch.size());
+        }
+    }
+
+    /**
+     * 在独立事务中写入一批，事务提交后返回
+     *
+     * @param batch 一批写入
+     * @return 语句参数 -> 是否影响了行，按参数对象的identity匹配
+     */
+    private Map<Object, Boolean> execute(List<PendingWrite<T>> batch) {
+        Map<Object, Boolean> results = new IdentityHashMap<>(batch.size());
+        new TransactionTemplate(MapperSqlHelper.transactionManager(dataSource)).executeWithoutResult(status -> MapperSqlHelper.executeBatch(metadata.getEntityClass(),
+                MapperSqlHelper.OPERATION_WRITE_BEHIND, CommonBaseMapper.log, sqlSession -> {
+                    batch.forEach(write -> apply(sqlSession, write));
+                    for (BatchResult batchResult : sqlSession.flushStatements()) {
+                        List<Object> parameters = batchResult.getParameterObjects();
+                        int[] updateCounts = batchResult.getUpdateCounts();
+                        for (int i = 0; i < parameters.size() && i < updateCounts.length; i++) {
+                            results.put(parameters.get(i), MapperSqlHelper.rowCount(new int[]{updateCounts[i]}) > 0);
+                        }
+                    }
+                }));
+        return results;
+    }
+
+    private void apply(SqlSession sqlSession, PendingWrite<T> write) {
+        if (write.insert) {
+            sqlSession.insert(insertStatement, write.parameter);
+        } else {
+            sqlSession.update(updateStatement, write.parameter);
+        }
+    }
+
+    private void failRemaining() {
+        PendingWrite<T> write;
+        while ((write = queue.poll()) != null) {
+            write.future.completeExceptionally(new IllegalStateException("WriteBehindWriter is closed"));
+            pending.decrementAndGet();
+            capacity.release();
+        }
+    }
+
+    private static class PendingWrite<T> {
+
+        private final boolean insert;
+
+        /**
+         * 语句参数，insert为实体，update为包装了实体的参数，用于从flush结果中找到本条的影响行数
+         */
+        private final Object parameter;
+
+        private final CompletableFuture<Boolean> future;
+
+        PendingWrite(boolean insert, T entity, CompletableFuture<Boolean> future) {
+            this.insert = insert;
+            if (insert) {
+                this.parameter = entity;
+            } else {
+                MapperMethod.ParamMap<T> param = new MapperMethod.ParamMap<>();
+                param.put(Constants.ENTITY, entity);
+                this.parameter = param;
+            }
+            this.future = future;
+        }
+
+        void complete(Map<Object, Boolean> results) {
+            future.complete(Boolean.TRUE.equals(results.get(parameter)));
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.wrsdye.core.cache;
+
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.Assert;
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.wrsdye.core.metadata.EntityAccessor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.NumberUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * @author wangrx
+ * @description 实体缓存，主键 -> 实体，不存在的主键也会缓存
+ * <p>缓存中保存的实例不对外暴露，读取时返回按列属性复制的新实例，调用方可以修改，也可以作为按变化字段更新的快照来源</p>
+ * <p>每次失效递增代数，加载期间发生过失效时加载结果不放入缓存，避免失效前读到的旧数据在失效后写入</p>
+ * @date 2026/10/19 上午10:20
+ */
+public class EntityCache {
+
+    private final Class<?> keyType;
+
+    private final Class<?> entityType;
+
+    private final Cache<Object, Optional<Object>> cache;
+
+    /**
+     * 失效次数，加载前后不一致说明加载期间有写操作
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 复制实例时读写的属性，主键与全部列
+     */
+    private final List<Function<Object, Object>> getters = new ArrayList<>();
+
+    private final List<BiConsumer<Object, Object>> setters = new ArrayList<>();
+
+    public EntityCache(TableInfo tableInfo, long maximumSize, long expireSeconds) {
+        Assert.isFalse(expireSeconds <= 0, "error: entity cache of [%s] requires cacheExpireSeconds greater than zero!",
+                tableInfo.getEntityType().getName());
+        this.keyType = tableInfo.getKeyType();
+        this.entityType = tableInfo.getEntityType();
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireSeconds, TimeUnit.SECONDS).recordStats().build();
+        EntityAccessor accessor = EntityAccessor.of(entityType);
+        if (StringUtils.isNotBlank(tableInfo.getKeyProperty())) {
+            getters.add(accessor.getter(tableInfo.getKeyProperty()));
+            setters.add(accessor.setter(tableInfo.getKeyProperty()));
+        }
+        for (TableFieldInfo fieldInfo : tableInfo.getFieldList()) {
+            getters.add(accessor.getter(fieldInfo.getProperty()));
+            setters.add(accessor.setter(fieldInfo.getProperty()));
+        }
+    }
+
+    /**
+     * 读取缓存，未命中时加载；同一主键的并发加载只执行一次
+     *
+     * @param id     主键
+     * @param loader 加载，返回null表示不存在
+     * @return 实体的副本，不存在时返回null
+     */
+    public Object get(Object id, Callable<Object> loader) throws Throwable {
+        Object key = key(id);
+        long start = generation.get();
+        Optional<Object> value;
+        try {
+            value = cache.get(key, () -> {
+                Optional<Object> loaded = Optional.ofNullable(loader.call());
+                if (generation.get() != start) {
+                    //加载期间有写操作，不放入缓存
+                    throw new StaleLoadException(loaded);
+                }
+                return loaded;
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (!(e.getCause() instanceof StaleLoadException)) {
+                throw e.getCause();
+            }
+            //等待同一次加载的其他线程得到的也是该异常，重新查询数据库
+            StaleLoadException stale = (StaleLoadException) e.getCause();
+            return stale.owner == Thread.currentThread() ? stale.loaded.orElse(null) : loader.call();
+        }
+        if (generation.get() != start) {
+            //放入缓存与失效并发，移除可能已过期的结果
+            cache.asMap().remove(key, value);
+        }
+        return value.map(this::copy).orElse(null);
+    }
+
+    /**
+     * 读取缓存，不加载
+     *
+     * @param id 主键
+     * @return 未命中时返回null，命中但不存在时返回Optional.empty()，存在时为实体的副本
+     */
+    public Optional<Object> getIfPresent(Object id) {
+        Optional<Object> value = cache.getIfPresent(key(id));
+        return value == null ? null : value.map(this::copy);
+    }
+
+    /**
+     * 按缓存key去重，保持首次出现的顺序，如1与1L只保留一个
+     *
+     * @param ids 主键
+     * @return 去重后的主键
+     */
+    public List<Object> distinct(Collection<?> ids) {
+        Map<Object, Object> distinct = new LinkedHashMap<>(ids.size() * 4 / 3 + 1);
+        for (Object id : ids) {
+            distinct.putIfAbsent(key(id), id);
+        }
+        return new ArrayList<>(distinct.values());
+    }
+
+    /**
+     * 当前的失效代数，批量加载前获取，写入时用于判断加载期间是否有写操作
+     *
+     * @return 代数
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * 写入一批主键的加载结果，加载结果中没有的主键按不存在缓存；缓存中保存副本，调用方持有的实例不受影响
+     *
+     * @param ids        主键
+     * @param entities   加载结果
+     * @param idGetter   获取实体主键
+     * @param generation 加载前的{@link #generation()}，加载期间有失效时不写入
+     */
+    public void putAll(Collection<?> ids, Collection<?> entities, Function<Object, Object> idGetter, long generation) {
+        if (this.generation.get() != generation) {
+            return;
+        }
+        Map<Object, Object> loaded = new HashMap<>(entities.size() * 2);
+        for (Object entity : entities) {
+            loaded.put(key(idGetter.apply(entity)), copy(entity));
+        }
+        for (Object id : ids) {
+            Object key = key(id);
+            cache.put(key, Optional.ofNullable(loaded.get(key)));
+        }
+        if (this.generation.get() != generation) {
+            ids.forEach(this::invalidate);
+        }
+    }
+
+    public void invalidate(Object id) {
+        generation.incrementAndGet();
+        cache.invalidate(key(id));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * 命中、未命中、淘汰等统计
+     *
+     * @return 统计
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * 按主键与列属性复制实例，不复制非表字段
+     */
+    private Object copy(Object entity) {
+        Object copy = BeanUtils.instantiateClass(entityType);
+        for (int i = 0; i < getters.size(); i++) {
+            setters.get(i).accept(copy, getters.get(i).apply(entity));
+        }
+        return copy;
+    }
+
+    /**
+     * selectById(1)与selectById(1L)应命中同一条缓存，数字主键统一转换为实体的主键类型
+     */
+    @SuppressWarnings("unchecked")
+    private Object key(Object id) {
+        if (id instanceof Number && keyType != null && Number.class.isAssignableFrom(keyType) && !keyType.isInstance(id)) {
+            return NumberUtils.convertNumberToTargetClass((Number) id, (Class<? extends Number>) keyType);
+        }
+        return id;
+    }
+
+    /**
+     * 加载期间发生了失效，结果交给发起加载的线程直接返回
+     */
+    private static class StaleLoadException extends RuntimeException {
+
+        private final transient Optional<Object> loaded;
+
+        private final transient Thread owner = Thread.currentThread();
+
+        StaleLoadException(Optional<Object> loaded) {
+            super(null, null, false, false);
+            this.loaded = loaded;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.wrsdye.core.cache;
+
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.wrsdye.core.injector.ExtensionMethod;
+import com.wrsdye.core.injector.methods.InsertMultiRow;
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * @author wangrx
+ * @description 实体缓存拦截器，selectById/selectBatchIds读缓存，写语句按主键失效
+ * <p>失效时机：语句执行后立即失效；BATCH执行器flush、提交、回滚时再次失效；事务结束后再次失效</p>
+ * <p>当前事务写过的实体在事务结束前不读也不写缓存，避免未提交的数据进入缓存；加载期间发生失效的结果不写缓存</p>
+ * <p>返回的实体都是副本，在{@link com.wrsdye.core.dirty.DirtyTrackingInterceptor}之内执行，每次命中得到各自的快照</p>
+ * @date 2026/10/19 上午10:40
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {}),
+        @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "rollback", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "close", args = {boolean.class})
+})
+public class EntityCacheInterceptor implements Interceptor {
+
+    /**
+     * 主键无法确定时失效整个缓存的标记
+     */
+    private static final Object ALL = new Object();
+
+    private static final String SELECT_BY_ID = SqlMethod.SELECT_BY_ID.getMethod();
+
+    private static final String SELECT_BATCH_BY_IDS = SqlMethod.SELECT_BATCH_BY_IDS.getMethod();
+
+    /**
+     * 执行器 -> 已执行但未提交的写语句涉及的主键
+     */
+    private final Map<Executor, Map<EntityCache, Set<Object>>> pending = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * 注册到mybatis配置，已注册时忽略
+     *
+     * @param configuration mybatis配置
+     */
+    public static void register(Configuration configuration) {
+        synchronized (configuration) {
+            for (Interceptor interceptor : configuration.getInterceptors()) {
+                if (interceptor instanceof EntityCacheInterceptor) {
+                    return;
+                }
+            }
+            configuration.addInterceptor(new EntityCacheInterceptor());
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Executor executor = (Executor) invocation.getTarget();
+        Object[] args = invocation.getArgs();
+        switch (invocation.getMethod().getName()) {
+            case "query":
+                return query(invocation, executor, (MappedStatement) args[0], args[1], (RowBounds) args[2], (ResultHandler<?>) args[3]);
+            case "update":
+                return update(invocation, executor, (MappedStatement) args[0], args[1]);
+            case "close":
+                try {
+                    return invocation.proceed();
+                } finally {
+                    invalidatePending(pending.remove(executor));
+                }
+            default:
+                //flush、提交、回滚后BATCH执行器的语句已执行或已撤销，再次失效
+                Object result = invocation.proceed();
+                invalidatePending(pending.remove(executor));
+                return result;
+        }
+    }
+
+    private Object query(Invocation invocation, Executor executor, MappedStatement ms, Object parameter,
+                         RowBounds rowBounds, ResultHandler<?> resultHandler) throws Throwable {
+        MapperMetadata metadata = metadata(ms);
+        EntityCache cache = metadata == null ? null : metadata.getEntityCache();
+        if (cache == null || rowBounds != RowBounds.DEFAULT || resultHandler != Executor.NO_RESULT_HANDLER
+                || TransactionSynchronizationManager.hasResource(cache)) {
+            return invocation.proceed();
+        }
+        String method = method(ms);
+        if (SELECT_BY_ID.equals(method) && !(parameter instanceof Map)) {
+            Object entity = cache.get(parameter, () -> single((List<?>) invocation.proceed()));
+            return entity == null ? new ArrayList<>() : new ArrayList<>(Collections.singletonList(entity));
+        }
+        if (SELECT_BATCH_BY_IDS.equals(method) && parameter instanceof Map) {
+            //与数据库IN列表一致，重复的主键只返回一次
+            List<Object> ids = cache.distinct((Collection<?>) ((Map<?, ?>) parameter).get(Constants.COLLECTION));
+            List<Object> result = new ArrayList<>(ids.size());
+            List<Object> missIds = new ArrayList<>();
+            for (Object id : ids) {
+                Optional<Object> cached = cache.getIfPresent(id);
+                if (cached == null) {
+                    missIds.add(id);
+                } else {
+                    cached.ifPresent(result::add);
+                }
+            }
+            if (!missIds.isEmpty()) {
+                MapperMethod.ParamMap<Object> missParam = new MapperMethod.ParamMap<>();
+                missParam.put(Constants.COLLECTION, missIds);
+                missParam.put("param1", missIds);
+                long generation = cache.generation();
+                List<Object> loaded = executor.query(ms, missParam, rowBounds, resultHandler);
+                cache.putAll(missIds, loaded, metadata::getIdValue, generation);
+                result.addAll(loaded);
+            }
+            return result;
+        }
+        return invocation.proceed();
+    }
+
+    private Object update(Invocation invocation, Executor executor, MappedStatement ms, Object parameter) throws Throwable {
+        Object result = invocation.proceed();
+        MapperMetadata metadata = metadata(ms);
+        EntityCache cache = metadata == null ? null : metadata.getEntityCache();
+        if (cache == null || ms.getSqlCommandType() == SqlCommandType.SELECT) {
+            return result;
+        }
+        Set<Object> ids = writtenIds(metadata, method(ms), parameter);
+        invalidate(cache, ids);
+        pending.computeIfAbsent(executor, e -> new HashMap<>()).computeIfAbsent(cache, c -> new HashSet<>()).addAll(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            bindTransaction(cache).addAll(ids);
+        }
+        return result;
+    }
+
+    /**
+     * 写语句涉及的主键，无法确定时返回ALL
+     */
+    private Set<Object> writtenIds(MapperMetadata metadata, String method, Object parameter) {
+        Set<Object> ids = new HashSet<>();
+        if (SqlMethod.INSERT_ONE.getMethod().equals(method) && metadata.getEntityClass().isInstance(parameter)) {
+            addId(ids, metadata.getIdValue(parameter));
+        } else if (SqlMethod.DELETE_BY_ID.getMethod().equals(method) && !(parameter instanceof Map)) {
+            addId(ids, parameter);
+        } else if ((SqlMethod.UPDATE_BY_ID.getMethod().equals(method) || ExtensionMethod.UPDATE_COLUMNS_BY_ID.getMethod().equals(method))
+                && parameter instanceof Map) {
+            addId(ids, metadata.getIdValue(((Map<?, ?>) parameter).get(Constants.ENTITY)));
+        } else if (SqlMethod.DELETE_BATCH_BY_IDS.getMethod().equals(method) && parameter instanceof Map) {
+            ((Collection<?>) ((Map<?, ?>) parameter).get(Constants.COLLECTION)).forEach(id -> addId(ids, id));
+        } else if ((ExtensionMethod.INSERT_MULTI_ROW.getMethod().equals(method) || ExtensionMethod.UPSERT.getMethod().equals(method))
+                && parameter instanceof Map) {
+            ((Collection<?>) ((Map<?, ?>) parameter).get(InsertMultiRow.LIST)).forEach(entity -> addId(ids, metadata.getIdValue(entity)));
+        } else {
+            ids.add(ALL);
+        }
+        return ids;
+    }
+
+    private void addId(Set<Object> ids, Object id) {
+        //插入时自增主键可能尚未回填，没有缓存可失效
+        if (!StringUtils.checkValNull(id)) {
+            ids.add(id);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Object> bindTransaction(EntityCache cache) {
+        Set<Object> ids = (Set<Object>) TransactionSynchronizationManager.getResource(cache);
+        if (ids == null) {
+            Set<Object> transactionIds = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(cache, transactionIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(cache);
+                    invalidate(cache, transactionIds);
+                }
+            });
+            ids = transactionIds;
+        }
+        return ids;
+    }
+
+    private void invalidatePending(Map<EntityCache, Set<Object>> caches) {
+        if (caches != null) {
+            caches.forEach(this::invalidate);
+        }
+    }
+
+    private void invalidate(EntityCache cache, Set<Object> ids) {
+        if (ids.contains(ALL)) {
+            cache.invalidateAll();
+            return;
+        }
+        ids.forEach(cache::invalidate);
+    }
+
+    private static Object single(List<?> list) {
+        return list == null || list.isEmpty() ? null : list.get(0);
+    }
+
+    private static MapperMetadata metadata(MappedStatement ms) {
+        String id = ms.getId();
+        int index = id.lastIndexOf('.');
+        return index < 0 ? null : MapperMetadataRegistry.getByMapperName(id.substring(0, index));
+    }
+
+    private static String method(MappedStatement ms) {
+        return ms.getId().substring(ms.getId().lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,339 @@
+package com.wrsdye.core.column;
+
+import com.baomidou.mybatisplus.core.toolkit.ExceptionUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * @author wangrx
+ * @description 按列存放的查询结果，数值列为基本类型数组，字符串列为字典编码，不为每行创建对象
+ * <p>数组长度可能大于行数，只有前getRowCount()个元素有效；值为null时数组中为0（字符串编码为-1），可通过isNull判断</p>
+ * @date 2026/10/20 下午6:10
+ */
+public class ColumnBatch {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final String[] properties;
+
+    private final ColumnType[] types;
+
+    /**
+     * 每列的数组：long[]、int[]或double[]，字符串列为int[]编码
+     */
+    private final Object[] columns;
+
+    /**
+     * 每列值为null的行，没有null时为null
+     */
+    private final BitSet[] nulls;
+
+    /**
+     * 字符串列的字典，分片读取时默认各分片共用，编码保持不变；可在回调中调用resetDictionaries按分片清空
+     */
+    private final Dictionary[] dictionaries;
+
+    /**
+     * 分片行数，小于1时不分片，数组按需扩容
+     */
+    private final int chunkRows;
+
+    private int capacity;
+
+    private int rowCount;
+
+    public ColumnBatch(String[] properties, ColumnType[] types, int chunkRows) {
+        this.properties = properties;
+        this.types = types;
+        this.columns = new Object[types.length];
+        this.nulls = new BitSet[types.length];
+        this.dictionaries = new Dictionary[types.length];
+        this.chunkRows = chunkRows;
+        this.capacity = chunkRows > 0 ? chunkRows : INITIAL_CAPACITY;
+        for (int i = 0; i < types.length; i++) {
+            columns[i] = newArray(types[i], capacity);
+            if (types[i] == ColumnType.STRING) {
+                dictionaries[i] = new Dictionary();
+            }
+        }
+    }
+
+    /**
+     * 从结果集读取全部行，结果集的列顺序与属性顺序一致
+     * <p>分片时每读满chunkRows行回调一次，回调后复用同一批数组，回调方不能保留数组引用</p>
+     *
+     * @param resultSet 结果集
+     * @param consumer  分片回调，不分片时可以为null
+     * @return 读取的总行数
+     * @throws SQLException 读取失败
+     */
+    public long read(ResultSet resultSet, Consumer<ColumnBatch> consumer) throws SQLException {
+        long total = 0;
+        while (resultSet.next()) {
+            if (rowCount == capacity) {
+                if (chunkRows > 0) {
+                    consumer.accept(this);
+                    clear();
+                } else {
+                    grow();
+                }
+            }
+            for (int i = 0; i < types.length; i++) {
+                readValue(resultSet, i);
+            }
+            rowCount++;
+            total++;
+        }
+        if (chunkRows > 0 && rowCount > 0) {
+            consumer.accept(this);
+        }
+        return total;
+    }
+
+    private void readValue(ResultSet resultSet, int column) throws SQLException {
+        int index = column + 1;
+        switch (types[column]) {
+            case LONG: {
+                long value = resultSet.getLong(index);
+                ((long[]) columns[column])[rowCount] = value;
+                if (value == 0 && resultSet.wasNull()) {
+                    markNull(column);
+                }
+                break;
+            }
+            case INT: {
+                int value = resultSet.getInt(index);
+                ((int[]) columns[column])[rowCount] = value;
+                if (value == 0 && resultSet.wasNull()) {
+                    markNull(column);
+                }
+                break;
+            }
+            case DOUBLE: {
+                double value = resultSet.getDouble(index);
+                ((double[]) columns[column])[rowCount] = value;
+                if (value == 0 && resultSet.wasNull()) {
+                    markNull(column);
+                }
+                break;
+            }
+            case TIMESTAMP: {
+                Timestamp value = resultSet.getTimestamp(index);
+                ((long[]) columns[column])[rowCount] = value == null ? 0 : value.getTime();
+                if (value == null) {
+                    markNull(column);
+                }
+                break;
+            }
+            case STRING: {
+                String value = resultSet.getString(index);
+                ((int[]) columns[column])[rowCount] = value == null ? -1 : dictionaries[column].encode(value);
+                if (value == null) {
+                    markNull(column);
+                }
+                break;
+            }
+            default:
+                throw ExceptionUtils.mpe("unsupported column type %s", types[column]);
+        }
+    }
+
+    private void markNull(int column) {
+        BitSet bitSet = nulls[column];
+        if (bitSet == null) {
+            bitSet = new BitSet();
+            nulls[column] = bitSet;
+        }
+        bitSet.set(rowCount);
+    }
+
+    private void clear() {
+        rowCount = 0;
+        for (BitSet bitSet : nulls) {
+            if (bitSet != null) {
+                bitSet.clear();
+            }
+        }
+    }
+
+    private void grow() {
+        capacity = capacity << 1;
+        for (int i = 0; i < types.length; i++) {
+            Object array = columns[i];
+            if (array instanceof long[]) {
+                columns[i] = Arrays.copyOf((long[]) array, capacity);
+            } else if (array instanceof int[]) {
+                columns[i] = Arrays.copyOf((int[]) array, capacity);
+            } else {
+                columns[i] = Arrays.copyOf((double[]) array, capacity);
+            }
+        }
+    }
+
+    /**
+     * 清空字符串列的字典，分片读取时在回调中处理完当前分片后调用，下一分片的编码从0开始
+     * <p>不同值很多的列（如订单号）共用字典时字典随总行数增长，按分片清空后内存只与分片行数有关；清空后之前的编码与getDictionary返回的列表失效</p>
+     */
+    public void resetDictionaries() {
+        for (Dictionary dictionary : dictionaries) {
+            if (dictionary != null) {
+                dictionary.codes.clear();
+                dictionary.values.clear();
+            }
+        }
+    }
+
+    private static Object newArray(ColumnType type, int capacity) {
+        switch (type) {
+            case LONG:
+            case TIMESTAMP:
+                return new long[capacity];
+            case DOUBLE:
+                return new double[capacity];
+            default:
+                return new int[capacity];
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return types.length;
+    }
+
+    /**
+     * 属性所在的列
+     *
+     * @param property 属性名
+     * @return 列下标
+     */
+    public int indexOf(String property) {
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i].equals(property)) {
+                return i;
+            }
+        }
+        throw ExceptionUtils.mpe("property %s is not selected", property);
+    }
+
+    public String getProperty(int column) {
+        return properties[column];
+    }
+
+    public ColumnType getType(int column) {
+        return types[column];
+    }
+
+    /**
+     * LONG、TIMESTAMP列的值
+     *
+     * @param column 列下标
+     * @return 数组，前getRowCount()个有效
+     */
+    public long[] getLongs(int column) {
+        checkType(column, ColumnType.LONG, ColumnType.TIMESTAMP);
+        return (long[]) columns[column];
+    }
+
+    /**
+     * INT列的值
+     *
+     * @param column 列下标
+     * @return 数组，前getRowCount()个有效
+     */
+    public int[] getInts(int column) {
+        checkType(column, ColumnType.INT, ColumnType.INT);
+        return (int[]) columns[column];
+    }
+
+    /**
+     * DOUBLE列的值
+     *
+     * @param column 列下标
+     * @return 数组，前getRowCount()个有效
+     */
+    public double[] getDoubles(int column) {
+        checkType(column, ColumnType.DOUBLE, ColumnType.DOUBLE);
+        return (double[]) columns[column];
+    }
+
+    /**
+     * STRING列的字典编码，null为-1
+     *
+     * @param column 列下标
+     * @return 数组，前getRowCount()个有效
+     */
+    public int[] getCodes(int column) {
+        checkType(column, ColumnType.STRING, ColumnType.STRING);
+        return (int[]) columns[column];
+    }
+
+    /**
+     * STRING列的字典，下标即编码
+     *
+     * @param column 列下标
+     * @return 字典
+     */
+    public List<String> getDictionary(int column) {
+        checkType(column, ColumnType.STRING, ColumnType.STRING);
+        return Collections.unmodifiableList(dictionaries[column].values);
+    }
+
+    /**
+     * STRING列某行的值
+     *
+     * @param column 列下标
+     * @param row    行下标
+     * @return 值
+     */
+    public String getString(int column, int row) {
+        int code = getCodes(column)[row];
+        return code < 0 ? null : dictionaries[column].values.get(code);
+    }
+
+    /**
+     * 某行的值是否为null
+     *
+     * @param column 列下标
+     * @param row    行下标
+     * @return 为null时返回true
+     */
+    public boolean isNull(int column, int row) {
+        return nulls[column] != null && nulls[column].get(row);
+    }
+
+    private void checkType(int column, ColumnType type, ColumnType other) {
+        if (types[column] != type && types[column] != other) {
+            throw ExceptionUtils.mpe("column %s is %s", properties[column], types[column]);
+        }
+    }
+
+    private static class Dictionary {
+
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+    }
+}
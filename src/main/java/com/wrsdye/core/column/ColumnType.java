@@ -0,0 +1,66 @@
+package com.wrsdye.core.column;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * @author wangrx
+ * @description 列式读取的列类型，由实体属性类型决定
+ * @date 2026/10/20 下午6:00
+ */
+public enum ColumnType {
+
+    /**
+     * long/Long，存入long[]
+     */
+    LONG,
+
+    /**
+     * int/Integer/short/Short/byte/Byte，boolean/Boolean按0、1存入int[]
+     */
+    INT,
+
+    /**
+     * double/Double/float/Float/BigDecimal，存入double[]，BigDecimal可能损失精度
+     */
+    DOUBLE,
+
+    /**
+     * 日期时间，按毫秒时间戳存入long[]
+     */
+    TIMESTAMP,
+
+    /**
+     * 字符串，按字典编码存入int[]，相同的值只保存一份
+     */
+    STRING;
+
+    /**
+     * 根据属性类型获取列类型
+     *
+     * @param type 属性类型
+     * @return 列类型，不支持时返回null
+     */
+    public static ColumnType of(Class<?> type) {
+        if (type == long.class || type == Long.class) {
+            return LONG;
+        }
+        if (type == int.class || type == Integer.class || type == short.class || type == Short.class
+                || type == byte.class || type == Byte.class || type == boolean.class || type == Boolean.class) {
+            return INT;
+        }
+        if (type == double.class || type == Double.class || type == float.class || type == Float.class || type == BigDecimal.class) {
+            return DOUBLE;
+        }
+        if (Date.class.isAssignableFrom(type) || type == LocalDateTime.class || type == LocalDate.class || type == Instant.class) {
+            return TIMESTAMP;
+        }
+        if (type == String.class) {
+            return STRING;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,164 @@
+package com.wrsdye.core.dialect;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.extension.toolkit.JdbcUtils;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author wangrx
+ * @description 批量操作相关的数据库方言限制
+ * @date 2026/10/18 下午4:10
+ */
+public enum SqlDialect {
+
+    /**
+     * max_allowed_packet 5.7默认4M，按4M估算；IN列表过长时范围优化按统计估算，执行计划变差
+     */
+    MYSQL(65535, 1000, 4 * 1024 * 1024, true, true, "LIMIT %d"),
+
+    POSTGRESQL(32767, 5000, 64 * 1024 * 1024, true, true, "LIMIT %d"),
+
+    H2(32767, 1000, 64 * 1024 * 1024, true, true, "LIMIT %d"),
+
+    /**
+     * FETCH FIRST 需要12c及以上；IN列表最多1000个元素（ORA-01795）
+     */
+    ORACLE(65535, 1000, 64 * 1024 * 1024, false, false, "FETCH FIRST %d ROWS ONLY"),
+
+    /**
+     * 单条语句最多2100个参数，IN列表预留部分给其他条件
+     */
+    SQL_SERVER(2100, 2000, 64 * 1024 * 1024, false, false, "OFFSET 0 ROWS FETCH NEXT %d ROWS ONLY"),
+
+    OTHER(2000, 1000, 4 * 1024 * 1024, false, false, "LIMIT %d");
+
+    private static final Map<SqlSessionFactory, SqlDialect> FACTORY_DIALECT = new ConcurrentHashMap<>();
+
+    /**
+     * 单条语句最大绑定参数数
+     */
+    private final int maxParameters;
+
+    /**
+     * 单个IN列表的最大元素数
+     */
+    private final int maxInList;
+
+    /**
+     * 单条语句最大字节数
+     */
+    private final int maxPacketBytes;
+
+    /**
+     * 是否支持 INSERT ... VALUES (...),(...)
+     */
+    private final boolean multiRowInsert;
+
+    /**
+     * 是否支持不需要先查询的原生插入或更新
+     */
+    private final boolean upsert;
+
+    /**
+     * 排序后取前n行的语句片段
+     */
+    private final String limitClause;
+
+    SqlDialect(int maxParameters, int maxInList, int maxPacketBytes, boolean multiRowInsert, boolean upsert, String limitClause) {
+        this.maxParameters = maxParameters;
+        this.maxInList = maxInList;
+        this.maxPacketBytes = maxPacketBytes;
+        this.multiRowInsert = multiRowInsert;
+        this.upsert = upsert;
+        this.limitClause = limitClause;
+    }
+
+    public int getMaxParameters() {
+        return maxParameters;
+    }
+
+    public int getMaxInList() {
+        return maxInList;
+    }
+
+    public int getMaxPacketBytes() {
+        return maxPacketBytes;
+    }
+
+    public boolean isMultiRowInsert() {
+        return multiRowInsert;
+    }
+
+    public boolean isUpsert() {
+        return upsert;
+    }
+
+    /**
+     * 取前n行的语句片段，需放在ORDER BY之后
+     *
+     * @param rows 行数
+     * @return 语句片段
+     */
+    public String limit(int rows) {
+        return String.format(limitClause, rows);
+    }
+
+    /**
+     * 获取SqlSessionFactory对应的方言，按连接url识别，每个factory只识别一次
+     *
+     * @param sqlSessionFactory SqlSessionFactory
+     * @return 方言
+     */
+    public static SqlDialect of(SqlSessionFactory sqlSessionFactory) {
+        SqlDialect dialect = FACTORY_DIALECT.get(sqlSessionFactory);
+        if (dialect != null) {
+            return dialect;
+        }
+        return FACTORY_DIALECT.computeIfAbsent(sqlSessionFactory, SqlDialect::resolve);
+    }
+
+    /**
+     * 根据mybatis-plus的DbType获取方言
+     *
+     * @param dbType 数据库类型
+     * @return 方言
+     */
+    public static SqlDialect of(DbType dbType) {
+        switch (dbType) {
+            case MYSQL:
+            case MARIADB:
+                return MYSQL;
+            case POSTGRE_SQL:
+                return POSTGRESQL;
+            case H2:
+                return H2;
+            case ORACLE:
+            case ORACLE_12C:
+                return ORACLE;
+            case SQL_SERVER:
+            case SQL_SERVER2005:
+                return SQL_SERVER;
+            default:
+                return OTHER;
+        }
+    }
+
+    private static SqlDialect resolve(SqlSessionFactory sqlSessionFactory) {
+        DataSource dataSource = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return of(JdbcUtils.getDbType(connection.getMetaData().getURL()));
+        } catch (SQLException e) {
+            return OTHER;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+}
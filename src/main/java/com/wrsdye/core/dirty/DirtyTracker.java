@@ -0,0 +1,107 @@
+package com.wrsdye.core.dirty;
+
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.wrsdye.core.metadata.EntityAccessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * @author wangrx
+ * @description 实体快照，按对象引用保存查询时的字段值，实体被回收后快照自动清除，线程安全
+ * @date 2026/10/19 下午5:30
+ */
+public class DirtyTracker {
+
+    /**
+     * weakKeys按引用比较，不依赖实体的equals
+     */
+    private final Cache<Object, Object[]> snapshots = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * 参与比较的属性，不含主键
+     */
+    private final List<String> properties;
+
+    private final List<Function<Object, Object>> getters;
+
+    public DirtyTracker(TableInfo tableInfo) {
+        EntityAccessor accessor = EntityAccessor.of(tableInfo.getEntityType());
+        List<String> propertyList = new ArrayList<>();
+        List<Function<Object, Object>> getterList = new ArrayList<>();
+        for (TableFieldInfo fieldInfo : tableInfo.getFieldList()) {
+            propertyList.add(fieldInfo.getProperty());
+            getterList.add(accessor.getter(fieldInfo.getProperty()));
+        }
+        this.properties = Collections.unmodifiableList(propertyList);
+        this.getters = getterList;
+    }
+
+    /**
+     * 保存实体当前的字段值，已有快照时覆盖
+     *
+     * @param entity 实体
+     */
+    public void snapshot(Object entity) {
+        Object[] values = new Object[getters.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getters.get(i).apply(entity);
+        }
+        snapshots.put(entity, values);
+    }
+
+    /**
+     * 是否有快照
+     *
+     * @param entity 实体
+     * @return 有快照返回true
+     */
+    public boolean isTracked(Object entity) {
+        return snapshots.getIfPresent(entity) != null;
+    }
+
+    /**
+     * 与快照不同的属性
+     *
+     * @param entity 实体
+     * @return 属性名，按字段顺序；没有快照时返回null
+     */
+    public Set<String> dirtyProperties(Object entity) {
+        Object[] values = snapshots.getIfPresent(entity);
+        if (values == null) {
+            return null;
+        }
+        Set<String> dirty = new LinkedHashSet<>();
+        for (int i = 0; i < values.length; i++) {
+            if (!Objects.deepEquals(values[i], getters.get(i).apply(entity))) {
+                dirty.add(properties.get(i));
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * 丢弃快照
+     *
+     * @param entity 实体
+     */
+    public void forget(Object entity) {
+        snapshots.invalidate(entity);
+    }
+
+    public List<String> getProperties() {
+        return properties;
+    }
+
+    public long size() {
+        return snapshots.size();
+    }
+}
@@ -0,0 +1,64 @@
+package com.wrsdye.core.dirty;
+
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.List;
+
+/**
+ * @author wangrx
+ * @description 开启dirtyTracking的mapper查询出实体后保存快照，只处理返回列表的查询
+ * @date 2026/10/19 下午5:40
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class})
+})
+public class DirtyTrackingInterceptor implements Interceptor {
+
+    /**
+     * 注册到mybatis配置，已注册时忽略
+     *
+     * @param configuration mybatis配置
+     */
+    public static void register(Configuration configuration) {
+        synchronized (configuration) {
+            for (Interceptor interceptor : configuration.getInterceptors()) {
+                if (interceptor instanceof DirtyTrackingInterceptor) {
+                    return;
+                }
+            }
+            configuration.addInterceptor(new DirtyTrackingInterceptor());
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        MapperMetadata metadata = metadata((MappedStatement) invocation.getArgs()[0]);
+        DirtyTracker tracker = metadata == null ? null : metadata.getDirtyTracker();
+        if (tracker != null && result instanceof List) {
+            for (Object entity : (List<?>) result) {
+                //selectMaps、selectObjs等返回的不是实体
+                if (entity != null && entity.getClass() == metadata.getEntityClass()) {
+                    tracker.snapshot(entity);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static MapperMetadata metadata(MappedStatement ms) {
+        String id = ms.getId();
+        int index = id.lastIndexOf('.');
+        return index < 0 ? null : MapperMetadataRegistry.getByMapperName(id.substring(0, index));
+    }
+}
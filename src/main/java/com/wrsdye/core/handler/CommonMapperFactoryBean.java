@@ -0,0 +1,67 @@
+package com.wrsdye.core.handler;
+
+import com.baomidou.mybatisplus.core.toolkit.Assert;
+import com.wrsdye.core.batch.BatchSessionInterceptor;
+import com.wrsdye.core.cache.EntityCacheInterceptor;
+import com.wrsdye.core.dirty.DirtyTrackingInterceptor;
+import com.wrsdye.core.injector.ExtensionSqlInjector;
+import com.wrsdye.core.instrument.StartupPhase;
+import com.wrsdye.core.instrument.StartupProfiler;
+import com.wrsdye.core.instrument.StartupStep;
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import com.wrsdye.core.routing.ReadWriteRoutingInterceptor;
+import com.wrsdye.core.utils.FetchSizeInterceptor;
+import org.apache.ibatis.session.Configuration;
+import org.mybatis.spring.mapper.MapperFactoryBean;
+
+/**
+ * @author wangrx
+ * @description 在mybatis-plus注入CRUD方法后，继续注入CommonBaseMapper的扩展方法
+ * @date 2026/10/18 下午4:50
+ */
+public class CommonMapperFactoryBean<T> extends MapperFactoryBean<T> {
+
+    public CommonMapperFactoryBean() {
+    }
+
+    public CommonMapperFactoryBean(Class<T> mapperInterface) {
+        super(mapperInterface);
+    }
+
+    @Override
+    protected void checkDaoConfig() {
+        MapperMetadata metadata = MapperMetadataRegistry.getByMapper(getMapperInterface());
+        if (metadata == null) {
+            super.checkDaoConfig();
+            return;
+        }
+        StartupStep step = StartupProfiler.begin(StartupPhase.INJECT, metadata.getEntityClass().getName());
+        super.checkDaoConfig();
+        ExtensionSqlInjector.inject(getSqlSession().getConfiguration(), getMapperInterface(), metadata.getEntityClass());
+        MapperMetadataRegistry.markExtensionInjected(getMapperInterface());
+        step.end();
+        registerInterceptors(getSqlSession().getConfiguration(), metadata);
+    }
+
+    /**
+     * 注册mapper用到的拦截器，已注册时忽略
+     *
+     * @param configuration mybatis配置
+     * @param metadata      mapper元数据
+     */
+    protected void registerInterceptors(Configuration configuration, MapperMetadata metadata) {
+        BatchSessionInterceptor.register(configuration);
+        ReadWriteRoutingInterceptor.register(configuration);
+        FetchSizeInterceptor.register(configuration);
+        if (metadata.isEntityCacheEnabled()) {
+            Assert.isFalse(metadata.getEntityCacheExpireSeconds() <= 0, "error: entity cache of [%s] requires cacheExpireSeconds greater than zero!",
+                    metadata.getEntityClass().getName());
+        }
+        if (metadata.isEntityCacheEnabled() || metadata.isDirtyTracking()) {
+            //后注册的拦截器在外层，快照须保存在缓存返回的副本上，两者与mapper的初始化顺序无关，总是按此顺序一起注册
+            EntityCacheInterceptor.register(configuration);
+            DirtyTrackingInterceptor.register(configuration);
+        }
+    }
+}
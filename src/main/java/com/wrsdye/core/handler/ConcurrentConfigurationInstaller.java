@@ -0,0 +1,45 @@
+package com.wrsdye.core.handler;
+
+import com.baomidou.mybatisplus.autoconfigure.MybatisPlusProperties;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.util.StringUtils;
+
+/**
+ * @author wangrx
+ * @description 延迟初始化时，mybatis-plus自动配置使用{@link ConcurrentMybatisConfiguration}
+ * <p>在配置属性绑定之前放入，mybatis-plus.configuration.*绑定到该实例上；指定了configLocation时不替换</p>
+ * @date 2026/10/20 下午5:30
+ */
+public class ConcurrentConfigurationInstaller implements BeanPostProcessor, PriorityOrdered {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof MybatisPlusProperties && ((MybatisPlusProperties) bean).getConfiguration() == null) {
+            ((MybatisPlusProperties) bean).setConfiguration(new ConcurrentMybatisConfiguration());
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof MybatisPlusProperties) {
+            MybatisPlusProperties properties = (MybatisPlusProperties) bean;
+            //configLocation与configuration不能同时指定，由xml创建配置
+            if (StringUtils.hasText(properties.getConfigLocation()) && properties.getConfiguration() instanceof ConcurrentMybatisConfiguration) {
+                properties.setConfiguration(null);
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * 早于ConfigurationPropertiesBindingPostProcessor
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
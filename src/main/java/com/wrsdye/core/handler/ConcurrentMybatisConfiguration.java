@@ -0,0 +1,184 @@
+package com.wrsdye.core.handler;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMap;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.SqlSession;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * @author wangrx
+ * @description 支持运行期注册mapper的mybatis配置，延迟初始化mapper时使用
+ * <p>mybatis配置中的语句、mapper、结果映射等保存在非线程安全的HashMap中，运行期注册与其他线程的读取并发时可能读到不完整的数据</p>
+ * <p>注册在{@link #exclusive}中执行，期间其他线程的读取等待；没有注册时读取只做乐观校验，不加锁</p>
+ * <p>拦截器链在每次创建执行器、语句处理器时遍历，不在此保护范围内，拦截器都在启动时注册</p>
+ * @date 2026/10/20 下午5:10
+ */
+public class ConcurrentMybatisConfiguration extends MybatisConfiguration {
+
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * 正在执行注册的线程，注册过程中的读取与嵌套注册不再加锁
+     */
+    private volatile Thread writer;
+
+    public ConcurrentMybatisConfiguration() {
+        super();
+    }
+
+    public ConcurrentMybatisConfiguration(Environment environment) {
+        super(environment);
+    }
+
+    /**
+     * 独占执行注册，可重入
+     *
+     * @param action 注册
+     */
+    public void exclusive(Runnable action) {
+        if (writer == Thread.currentThread()) {
+            action.run();
+            return;
+        }
+        long stamp = lock.writeLock();
+        writer = Thread.currentThread();
+        try {
+            action.run();
+        } finally {
+            writer = null;
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private <R> R read(Supplier<R> reader) {
+        if (writer == Thread.currentThread()) {
+            return reader.get();
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                //读取期间没有注册时是正常的异常，如语句不存在
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void addMappedStatement(MappedStatement ms) {
+        exclusive(() -> super.addMappedStatement(ms));
+    }
+
+    /**
+     * 未完成的语句在读锁之外解析，解析出的语句通过{@link #addMappedStatement}独占注册
+     */
+    @Override
+    public MappedStatement getMappedStatement(String id, boolean validateIncompleteStatements) {
+        if (validateIncompleteStatements) {
+            buildAllStatements();
+        }
+        return read(() -> super.getMappedStatement(id, false));
+    }
+
+    @Override
+    public boolean hasStatement(String statementName, boolean validateIncompleteStatements) {
+        if (validateIncompleteStatements) {
+            buildAllStatements();
+        }
+        return read(() -> super.hasStatement(statementName, false));
+    }
+
+    @Override
+    public <T> void addMapper(Class<T> type) {
+        exclusive(() -> super.addMapper(type));
+    }
+
+    @Override
+    public <T> T getMapper(Class<T> type, SqlSession sqlSession) {
+        return read(() -> super.getMapper(type, sqlSession));
+    }
+
+    @Override
+    public boolean hasMapper(Class<?> type) {
+        return read(() -> super.hasMapper(type));
+    }
+
+    @Override
+    public void addResultMap(ResultMap rm) {
+        exclusive(() -> super.addResultMap(rm));
+    }
+
+    @Override
+    public ResultMap getResultMap(String id) {
+        return read(() -> super.getResultMap(id));
+    }
+
+    @Override
+    public boolean hasResultMap(String id) {
+        return read(() -> super.hasResultMap(id));
+    }
+
+    @Override
+    public void addKeyGenerator(String id, KeyGenerator keyGenerator) {
+        exclusive(() -> super.addKeyGenerator(id, keyGenerator));
+    }
+
+    @Override
+    public KeyGenerator getKeyGenerator(String id) {
+        return read(() -> super.getKeyGenerator(id));
+    }
+
+    @Override
+    public boolean hasKeyGenerator(String id) {
+        return read(() -> super.hasKeyGenerator(id));
+    }
+
+    @Override
+    public void addCache(Cache cache) {
+        exclusive(() -> super.addCache(cache));
+    }
+
+    @Override
+    public Cache getCache(String id) {
+        return read(() -> super.getCache(id));
+    }
+
+    @Override
+    public void addParameterMap(ParameterMap pm) {
+        exclusive(() -> super.addParameterMap(pm));
+    }
+
+    @Override
+    public ParameterMap getParameterMap(String id) {
+        return read(() -> super.getParameterMap(id));
+    }
+
+    @Override
+    public void addLoadedResource(String resource) {
+        exclusive(() -> super.addLoadedResource(resource));
+    }
+
+    @Override
+    public boolean isResourceLoaded(String resource) {
+        return read(() -> super.isResourceLoaded(resource));
+    }
+}
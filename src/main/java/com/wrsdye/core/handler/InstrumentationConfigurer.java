@@ -0,0 +1,54 @@
+package com.wrsdye.core.handler;
+
+import com.wrsdye.core.instrument.BatchInstrumentation;
+import com.wrsdye.core.instrument.MapperInstrumentation;
+import com.wrsdye.core.instrument.MicrometerBatchInstrumentation;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.util.ClassUtils;
+
+/**
+ * @author wangrx
+ * @description 容器启动后注册批量操作监控：优先使用BatchInstrumentation bean，否则存在micrometer的MeterRegistry时自动绑定
+ * @date 2026/10/19 下午7:00
+ */
+@Slf4j
+public class InstrumentationConfigurer implements SmartInitializingSingleton, BeanFactoryAware {
+
+    private static final boolean MICROMETER_PRESENT = ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry",
+            InstrumentationConfigurer.class.getClassLoader());
+
+    private BeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        BatchInstrumentation instrumentation = beanFactory.getBeanProvider(BatchInstrumentation.class).getIfUnique();
+        if (instrumentation == null && MICROMETER_PRESENT) {
+            instrumentation = Micrometer.instrumentation(beanFactory);
+        }
+        if (instrumentation != null) {
+            MapperInstrumentation.register(instrumentation);
+            log.info("batch instrumentation registered: {}", instrumentation.getClass().getName());
+        }
+    }
+
+    /**
+     * 隔离micrometer的类引用，没有micrometer时不加载
+     */
+    private static class Micrometer {
+
+        static BatchInstrumentation instrumentation(BeanFactory beanFactory) {
+            MeterRegistry registry = beanFactory.getBeanProvider(MeterRegistry.class).getIfUnique();
+            return registry == null ? null : new MicrometerBatchInstrumentation(registry);
+        }
+    }
+}
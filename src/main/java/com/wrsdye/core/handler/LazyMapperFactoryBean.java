@@ -0,0 +1,125 @@
+package com.wrsdye.core.handler;
+
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.util.Assert;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * @author wangrx
+ * @description 延迟初始化的mapper，容器刷新时只返回代理，首次调用方法时才解析mapper并注入MappedStatement
+ * <p>运行期初始化需要mybatis配置为{@link ConcurrentMybatisConfiguration}，初始化独占执行，与其他线程读取语句、mapper互斥；
+ * 其他配置下在启动时直接初始化。热点mapper可通过EnableAutoMapper.warmUp在启动时初始化</p>
+ * @date 2026/10/20 上午10:10
+ */
+@Slf4j
+public class LazyMapperFactoryBean<T> extends CommonMapperFactoryBean<T> {
+
+    private volatile T delegate;
+
+    private T proxy;
+
+    public LazyMapperFactoryBean() {
+    }
+
+    public LazyMapperFactoryBean(Class<T> mapperInterface) {
+        super(mapperInterface);
+    }
+
+    /**
+     * 只做校验与拦截器注册，mapper的解析推迟到首次使用
+     */
+    @Override
+    protected void checkDaoConfig() {
+        Assert.notNull(getSqlSessionTemplate(), "Property 'sqlSessionFactory' or 'sqlSessionTemplate' are required");
+        Assert.notNull(getMapperInterface(), "Property 'mapperInterface' is required");
+        MapperMetadata metadata = MapperMetadataRegistry.getByMapper(getMapperInterface());
+        if (metadata != null) {
+            Configuration configuration = getSqlSession().getConfiguration();
+            //拦截器在启动时注册，运行期初始化不再修改拦截器链
+            registerInterceptors(configuration, metadata);
+            if (!(configuration instanceof ConcurrentMybatisConfiguration)) {
+                log.warn("lazy Mapper [{}] initialized at startup, mybatis configuration [{}] is not a {}",
+                        getMapperInterface().getName(), configuration.getClass().getName(), ConcurrentMybatisConfiguration.class.getSimpleName());
+                initialize();
+                return;
+            }
+            //不经过mapper直接使用元数据（如UnitOfWork）时同样触发初始化
+            MapperMetadataRegistry.setInitializer(getMapperInterface(), this::initialize);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized T getObject() {
+        if (proxy == null) {
+            Class<T> mapperInterface = getMapperInterface();
+            proxy = (T) Proxy.newProxyInstance(mapperInterface.getClassLoader(), new Class<?>[]{mapperInterface}, this::invoke);
+        }
+        return proxy;
+    }
+
+    /**
+     * 是否已初始化
+     *
+     * @return 已解析mapper并注入MappedStatement时返回true
+     */
+    public boolean isInitialized() {
+        return delegate != null;
+    }
+
+    /**
+     * 解析mapper并注入MappedStatement，已初始化时直接返回
+     *
+     * @return mybatis生成的mapper
+     */
+    public T initialize() {
+        T mapper = delegate;
+        if (mapper != null) {
+            return mapper;
+        }
+        Configuration configuration = getSqlSession().getConfiguration();
+        if (configuration instanceof ConcurrentMybatisConfiguration) {
+            ((ConcurrentMybatisConfiguration) configuration).exclusive(this::initializeDelegate);
+        } else {
+            synchronized (configuration) {
+                initializeDelegate();
+            }
+        }
+        return delegate;
+    }
+
+    private void initializeDelegate() {
+        if (delegate == null) {
+            long time = System.currentTimeMillis();
+            super.checkDaoConfig();
+            delegate = getSqlSession().getMapper(getMapperInterface());
+            log.debug("lazy Mapper [{}] initialized，耗时【{}】毫秒", getMapperInterface().getName(), System.currentTimeMillis() - time);
+        }
+    }
+
+    private Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "LazyMapperProxy[" + getMapperInterface().getName() + "]";
+                default:
+                    return method.invoke(this, args);
+            }
+        }
+        try {
+            return method.invoke(initialize(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.wrsdye.core.handler;
+
+import com.wrsdye.core.CommonBaseMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * @author wangrx
+ * @description mapper字节码磁盘缓存，key为实体class内容、mapper名称与工具版本的摘要
+ * @date 2026/10/18 下午2:40
+ */
+@Slf4j
+public class MapperClassCache {
+
+    /**
+     * 生成逻辑有变化时递增，使旧缓存失效
+     */
+    private final static int GENERATOR_VERSION = 1;
+
+    private final static String CLASS_SUFFIX = ".class";
+
+    private final Path directory;
+
+    private final ClassLoader classLoader;
+
+    public MapperClassCache(String directory, ClassLoader classLoader) {
+        this.directory = Paths.get(directory);
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * 读取缓存的字节码
+     * @param entityClassName 实体类名
+     * @param mapperClassName mapper类名
+     * @return 字节码，未命中返回null
+     */
+    public byte[] get(String entityClassName, String mapperClassName) {
+        Path file = resolve(entityClassName, mapperClassName);
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            log.warn("MapperClassCache read [{}] error: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 写入缓存，先写临时文件再原子替换，并发启动的多个进程不会读到半个文件
+     * @param entityClassName 实体类名
+     * @param mapperClassName mapper类名
+     * @param bytecode 字节码
+     */
+    public void put(String entityClassName, String mapperClassName, byte[] bytecode) {
+        Path file = resolve(entityClassName, mapperClassName);
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, mapperClassName, ".tmp");
+            Files.write(tmp, bytecode);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("MapperClassCache write [{}] error: {}", file, e.getMessage());
+        }
+    }
+
+    private Path resolve(String entityClassName, String mapperClassName) {
+        String resourceName = entityClassName.replace('.', '/') + CLASS_SUFFIX;
+        try (InputStream in = classLoader.getResourceAsStream(resourceName)) {
+            if (in == null) {
+                return null;
+            }
+            byte[] entityBytes = StreamUtils.copyToByteArray(in);
+            String version = GENERATOR_VERSION + ":" + libraryVersion() + ":" + CommonBaseMapper.class.getName() + ":" + mapperClassName + ":";
+            byte[] versionBytes = version.getBytes(StandardCharsets.UTF_8);
+            byte[] key = new byte[versionBytes.length + entityBytes.length];
+            System.arraycopy(versionBytes, 0, key, 0, versionBytes.length);
+            System.arraycopy(entityBytes, 0, key, versionBytes.length, entityBytes.length);
+            return directory.resolve(mapperClassName + "-" + DigestUtils.md5DigestAsHex(key) + CLASS_SUFFIX);
+        } catch (IOException e) {
+            log.warn("MapperClassCache read entity [{}] error: {}", resourceName, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String libraryVersion() {
+        String version = MapperClassCache.class.getPackage().getImplementationVersion();
+        return version == null ? "dev" : version;
+    }
+}
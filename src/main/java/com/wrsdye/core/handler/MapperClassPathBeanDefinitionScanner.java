@@ -1,12 +1,25 @@
 package com.wrsdye.core.handler;
 
 import com.wrsdye.core.annotation.BuildMapper;
-import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.annotation.AnnotationBeanNameGenerator;
 import org.springframework.context.annotation.ClassPathBeanDefinitionScanner;
+import org.springframework.context.index.CandidateComponentsIndex;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.core.type.filter.TypeFilter;
 
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -15,14 +28,137 @@ import java.util.Set;
  * @date 2021/12/3 下午1:57
  */
 public class MapperClassPathBeanDefinitionScanner extends ClassPathBeanDefinitionScanner {
+
+    /**
+     * 扫描时读取并解析过元数据的类数量
+     */
+    private int examinedCount;
+
     public MapperClassPathBeanDefinitionScanner(BeanDefinitionRegistry registry) {
-        super(registry);
+        super(registry, false);
+        this.setBeanNameGenerator(new AnnotationBeanNameGenerator());
+        //包一层再注册，spring不会自行用spring.components替代扫描，是否走索引由findIndexedTypes决定
+        TypeFilter buildMapperFilter = new AnnotationTypeFilter(BuildMapper.class);
+        this.addIncludeFilter((metadataReader, metadataReaderFactory) -> {
+            examinedCount++;
+            return buildMapperFilter.match(metadataReader, metadataReaderFactory);
+        });
     }
 
-    @Override
-    public Set<BeanDefinitionHolder> doScan(String... basePackages){
-        this.setBeanNameGenerator(new AnnotationBeanNameGenerator());
-        this.addIncludeFilter(new AnnotationTypeFilter(BuildMapper.class));
-        return super.doScan(basePackages);
+    /**
+     * 从META-INF/spring.components中读取@BuildMapper实体，需要编译期引入spring-context-indexer
+     * @param basePackages 扫描包
+     * @return 实体类名，索引中没有任何@BuildMapper实体时返回null
+     */
+    public Set<String> findIndexedTypes(String... basePackages) {
+        CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(getResourceLoader().getClassLoader());
+        String stereotype = BuildMapper.class.getName();
+        if (index == null || index.getCandidateTypes("", stereotype).isEmpty()) {
+            return null;
+        }
+        Set<String> types = new LinkedHashSet<>();
+        for (String basePackage : basePackages) {
+            types.addAll(index.getCandidateTypes(getEnvironment().resolveRequiredPlaceholders(basePackage), stereotype));
+        }
+        return types;
+    }
+
+    /**
+     * 包含指定索引文件的类路径根，如file:/app/classes/、jar:file:/app/lib/a.jar!/
+     * <p>META-INF/spring.components在spring.index.ignore=true时不生效，此时返回空</p>
+     * @param location 索引文件位置
+     * @return 类路径根URL
+     * @throws IOException
+     */
+    public Set<String> findIndexedRoots(String location) throws IOException {
+        Set<String> roots = new LinkedHashSet<>();
+        ClassLoader classLoader = getResourceLoader().getClassLoader();
+        if (CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION.equals(location)
+                && CandidateComponentsIndexLoader.loadIndex(classLoader) == null) {
+            return roots;
+        }
+        Enumeration<URL> urls = classLoader == null ? ClassLoader.getSystemResources(location) : classLoader.getResources(location);
+        while (urls.hasMoreElements()) {
+            String url = urls.nextElement().toString();
+            roots.add(url.substring(0, url.length() - location.length()));
+        }
+        return roots;
+    }
+
+    /**
+     * 扫描类路径上的@BuildMapper实体，只查找不注册bean
+     * @param basePackages 扫描包
+     * @return 实体类名
+     */
+    public Set<String> scanTypes(String... basePackages) {
+        return scanTypes(Collections.emptySet(), basePackages);
+    }
+
+    /**
+     * 扫描类路径上的@BuildMapper实体，跳过已有索引的类路径根，这些根下的类不读取元数据
+     * @param indexedRoots 已有索引的类路径根，见findIndexedRoots
+     * @param basePackages 扫描包
+     * @return 实体类名
+     */
+    public Set<String> scanTypes(Set<String> indexedRoots, String... basePackages) {
+        if (!indexedRoots.isEmpty()) {
+            setResourceLoader(new UnindexedResourceResolver(ResourcePatternUtils.getResourcePatternResolver(getResourceLoader()), indexedRoots));
+        }
+        Set<String> types = new LinkedHashSet<>();
+        for (String basePackage : basePackages) {
+            for (BeanDefinition candidate : findCandidateComponents(basePackage)) {
+                types.add(candidate.getBeanClassName());
+            }
+        }
+        return types;
+    }
+
+    public int getExaminedCount() {
+        return examinedCount;
+    }
+
+    /**
+     * 过滤掉已有索引的类路径根下的资源
+     */
+    private static class UnindexedResourceResolver implements ResourcePatternResolver {
+
+        private final ResourcePatternResolver delegate;
+
+        private final Set<String> indexedRoots;
+
+        UnindexedResourceResolver(ResourcePatternResolver delegate, Set<String> indexedRoots) {
+            this.delegate = delegate;
+            this.indexedRoots = indexedRoots;
+        }
+
+        @Override
+        public Resource[] getResources(String locationPattern) throws IOException {
+            List<Resource> resources = new ArrayList<>();
+            for (Resource resource : delegate.getResources(locationPattern)) {
+                if (!isIndexed(resource.getURL().toString())) {
+                    resources.add(resource);
+                }
+            }
+            return resources.toArray(new Resource[0]);
+        }
+
+        private boolean isIndexed(String url) {
+            for (String root : indexedRoots) {
+                if (url.startsWith(root)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Resource getResource(String location) {
+            return delegate.getResource(location);
+        }
+
+        @Override
+        public ClassLoader getClassLoader() {
+            return delegate.getClassLoader();
+        }
     }
 }
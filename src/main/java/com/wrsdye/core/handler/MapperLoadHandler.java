@@ -2,6 +2,12 @@ package com.wrsdye.core.handler;
 
 import com.wrsdye.core.CommonBaseMapper;
 import com.wrsdye.core.annotation.EnableAutoMapper;
+import com.wrsdye.core.annotation.MapperDiscovery;
+import com.wrsdye.core.instrument.StartupPhase;
+import com.wrsdye.core.instrument.StartupProfiler;
+import com.wrsdye.core.instrument.StartupStep;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import javassist.CannotCompileException;
 import javassist.ClassPool;
 import javassist.CtClass;
@@ -10,24 +16,45 @@ import javassist.bytecode.AnnotationsAttribute;
 import javassist.bytecode.ConstPool;
 import javassist.bytecode.SignatureAttribute;
 import javassist.bytecode.annotation.Annotation;
+import javassist.util.proxy.DefineClassHelper;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ibatis.annotations.Mapper;
 import org.mybatis.spring.mapper.MapperFactoryBean;
 import org.springframework.beans.BeansException;
-import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.beans.factory.support.GenericBeanDefinition;
 import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
 import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
 import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.util.ClassUtils;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author wangrx
@@ -41,8 +68,56 @@ public class MapperLoadHandler implements BeanDefinitionRegistryPostProcessor, I
 
     private final static String PACKAGE_NAME = ".mapper.";
 
+    /**
+     * 注解处理器生成的索引文件，需与mybatis-plus-extension-processor中保持一致
+     */
+    private final static String MAPPER_INDEX_LOCATION = "META-INF/build-mapper.index";
+
+    /**
+     * 启动报告中mapper的来源
+     */
+    private final static String SOURCE_INDEX = "index";
+
+    private final static String SOURCE_CACHE = "cache";
+
+    private final static String SOURCE_JAVASSIST = "javassist";
+
+    private final static AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
     private String[] basePackages;
 
+    /**
+     * 并行生成字节码的线程数，小于1时取CPU核数
+     */
+    private int buildThreads;
+
+    /**
+     * 字节码磁盘缓存目录，为空时不缓存
+     */
+    private String classCacheDir;
+
+    /**
+     * @BuildMapper实体发现方式
+     */
+    private MapperDiscovery discovery = MapperDiscovery.AUTO;
+
+    /**
+     * 是否延迟初始化mapper
+     */
+    private boolean lazy;
+
+    /**
+     * 延迟初始化时仍在启动时初始化的实体类名
+     */
+    private Set<String> warmUp = Collections.emptySet();
+
+    private ClassPool classPool;
+
+    /**
+     * 从索引加载的mapper全类名 -> bean名称
+     */
+    private final Map<String, String> indexedMappers = new HashMap<>();
+
 
     /**
      * 注册当前bean
@@ -52,8 +127,30 @@ public class MapperLoadHandler implements BeanDefinitionRegistryPostProcessor, I
     @Override
     public void registerBeanDefinitions(AnnotationMetadata metadata, BeanDefinitionRegistry registry) {
         BeanDefinitionBuilder builder = BeanDefinitionBuilder.rootBeanDefinition(this.getClass());
+        AnnotationAttributes attributes = AnnotationAttributes.fromMap(
+                metadata.getAnnotationAttributes(EnableAutoMapper.class.getName()));
         builder.addPropertyValue("basePackages",getPackagesToScan(metadata));
+        builder.addPropertyValue("buildThreads", attributes.getNumber("buildThreads"));
+        builder.addPropertyValue("classCacheDir", attributes.getString("classCacheDir"));
+        builder.addPropertyValue("discovery", attributes.getEnum("discovery"));
+        builder.addPropertyValue("lazy", attributes.getBoolean("lazy"));
+        builder.addPropertyValue("warmUp", Arrays.stream(attributes.getClassArray("warmUp")).map(Class::getName).toArray(String[]::new));
         registry.registerBeanDefinition(this.getClass().getSimpleName(), builder.getBeanDefinition());
+        registry.registerBeanDefinition(WriteBehindLifecycle.class.getSimpleName(),
+                BeanDefinitionBuilder.rootBeanDefinition(WriteBehindLifecycle.class).getBeanDefinition());
+        registry.registerBeanDefinition(InstrumentationConfigurer.class.getSimpleName(),
+                BeanDefinitionBuilder.rootBeanDefinition(InstrumentationConfigurer.class).getBeanDefinition());
+        registry.registerBeanDefinition(TransactionManagerConfigurer.class.getSimpleName(),
+                BeanDefinitionBuilder.rootBeanDefinition(TransactionManagerConfigurer.class).getBeanDefinition());
+        if (attributes.getBoolean("lazy")) {
+            registry.registerBeanDefinition(ConcurrentConfigurationInstaller.class.getSimpleName(),
+                    BeanDefinitionBuilder.rootBeanDefinition(ConcurrentConfigurationInstaller.class).getBeanDefinition());
+        }
+        registry.registerBeanDefinition(StartupReportWriter.class.getSimpleName(),
+                BeanDefinitionBuilder.rootBeanDefinition(StartupReportWriter.class)
+                        .addPropertyValue("location", attributes.getString("startupReport"))
+                        .addPropertyValue("top", attributes.getNumber("startupReportTop"))
+                        .getBeanDefinition());
     }
 
     /**
@@ -66,23 +163,54 @@ public class MapperLoadHandler implements BeanDefinitionRegistryPostProcessor, I
         log.info("MapperLoadHandler loading...");
         long time = System.currentTimeMillis();
         int mapperNum = 0;
-        MapperClassPathBeanDefinitionScanner scanner = new MapperClassPathBeanDefinitionScanner(registry);
+        StartupProfiler.reset();
         try {
-            Set<BeanDefinitionHolder> beanDefinitionHolders = scanner.doScan(basePackages);
-            for(BeanDefinitionHolder beanDefinitionHolder: beanDefinitionHolders){
-                String beanClassName = beanDefinitionHolder.getBeanDefinition().getBeanClassName();
-                if(StringUtils.isBlank(beanClassName)){
-                    continue;
+            List<MapperCandidate> candidates = new ArrayList<>();
+            StartupStep scanStep = StartupProfiler.begin(StartupPhase.SCAN);
+            Map<String, String> mapperIndex = loadMapperIndex();
+            ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+            for (String entityClassName : discoverEntities(registry, mapperIndex)) {
+                //索引中有编译期生成的mapper时直接加载，否则由javassist生成
+                String mapperClassName = mapperIndex.get(entityClassName);
+                Class<?> mapperClass = null;
+                if (StringUtils.isNotBlank(mapperClassName)) {
+                    if (ClassUtils.isPresent(mapperClassName, classLoader)) {
+                        mapperClass = ClassUtils.forName(mapperClassName, classLoader);
+                    } else {
+                        log.debug("indexed Mapper [{}] not found, build it by javassist", mapperClassName);
+                    }
+                }
+                candidates.add(new MapperCandidate(entityClassName, ClassUtils.getShortName(entityClassName), mapperClass));
+            }
+            scanStep.end();
+            //字节码生成可并行，类定义与bean注册在当前线程按顺序进行，保证注册顺序确定
+            StartupStep generateStep = StartupProfiler.begin(StartupPhase.GENERATE);
+            buildBytecodes(candidates);
+            generateStep.end();
+            StartupStep defineStep = StartupProfiler.begin(StartupPhase.DEFINE);
+            for (MapperCandidate candidate : candidates) {
+                if (candidate.mapperClass == null) {
+                    StartupStep step = StartupProfiler.begin(StartupPhase.DEFINE, candidate.entityClassName);
+                    candidate.definedClass = defineClazz(candidate.mapperClassName(), candidate.bytecode);
+                    step.end();
+                }
+            }
+            defineStep.end();
+            StartupStep registerStep = StartupProfiler.begin(StartupPhase.REGISTER);
+            for (MapperCandidate candidate : candidates) {
+                StartupStep step = StartupProfiler.begin(StartupPhase.REGISTER, candidate.entityClassName);
+                //编译期生成与javassist生成的mapper使用同一种bean名称
+                Class<?> mapperClass = candidate.mapperClass != null ? candidate.mapperClass : candidate.definedClass;
+                if (registerMapper(registry, candidate.entityClassName, mapperClass, mapperClass.getSimpleName())) {
+                    mapperNum++;
                 }
-                Class<?> clazz = buildClazz(getBackPackage(beanClassName),StringUtils.capitalize(beanDefinitionHolder.getBeanName()));
-                BeanDefinitionBuilder builder = BeanDefinitionBuilder.genericBeanDefinition(clazz);
-                GenericBeanDefinition definition = (GenericBeanDefinition) builder.getRawBeanDefinition();
-                definition.getConstructorArgumentValues().addGenericArgumentValue(clazz);
-                definition.setBeanClass(MapperFactoryBean.class);
-                definition.setAutowireMode(GenericBeanDefinition.AUTOWIRE_BY_TYPE);
-                registry.registerBeanDefinition(clazz.getSimpleName(), definition);
-                mapperNum++;
+                if (candidate.mapperClass != null) {
+                    indexedMappers.put(mapperClass.getName(), mapperClass.getSimpleName());
+                    step.source(SOURCE_INDEX);
+                }
+                step.end();
             }
+            registerStep.end();
         }catch (NotFoundException ne){
             log.error("MapperLoadHandler Loading error, not found bean. Throwable：",ne);
             throw new NotFoundException("MapperLoadHandler Loading error, not found bean. ",ne);
@@ -93,9 +221,202 @@ public class MapperLoadHandler implements BeanDefinitionRegistryPostProcessor, I
             log.error("MapperLoadHandler Loading error. Throwable：",ex);
             throw new RuntimeException("MapperLoadHandler Loading error. ",ex);
 
+        } finally {
+            //加载结束后释放ClassPool，不在进程生命周期内常驻
+            classPool = null;
         }
         long nowTime = System.currentTimeMillis()-time;
-        log.info("MapperLoadHandler loaded，耗时【{}】毫秒，共加载mapper{}个", nowTime, mapperNum);
+        log.info("MapperLoadHandler loaded，耗时【{}】毫秒，共加载mapper{}个{}", nowTime, mapperNum, lazy ? "，延迟初始化" : "");
+    }
+
+    /**
+     * 查找basePackages下的@BuildMapper实体
+     * <p>AUTO时合并注解处理器索引与spring.components中的实体，再扫描没有索引的类路径根（未经注解处理器编译的模块、jar），
+     * 有索引的类路径根不读取类元数据</p>
+     * @param registry
+     * @param mapperIndex 注解处理器索引
+     * @return 实体类名
+     * @throws IOException
+     */
+    private Set<String> discoverEntities(BeanDefinitionRegistry registry, Map<String, String> mapperIndex) throws IOException {
+        long time = System.currentTimeMillis();
+        MapperClassPathBeanDefinitionScanner scanner = new MapperClassPathBeanDefinitionScanner(registry);
+        Set<String> entities = new LinkedHashSet<>();
+        Set<String> indexedRoots = new LinkedHashSet<>();
+        List<String> sources = new ArrayList<>();
+        if (discovery != MapperDiscovery.SCAN) {
+            if (!mapperIndex.isEmpty()) {
+                for (String entityClassName : mapperIndex.keySet()) {
+                    if (matchBasePackages(entityClassName)) {
+                        entities.add(entityClassName);
+                    }
+                }
+                indexedRoots.addAll(scanner.findIndexedRoots(MAPPER_INDEX_LOCATION));
+                sources.add(MAPPER_INDEX_LOCATION);
+            }
+            Set<String> indexedTypes = scanner.findIndexedTypes(basePackages);
+            if (indexedTypes != null) {
+                entities.addAll(indexedTypes);
+                sources.add(CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+            }
+            //@BuildMapper标注了@Indexed，经spring-context-indexer编译的类路径根中的实体都在spring.components中
+            indexedRoots.addAll(scanner.findIndexedRoots(CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION));
+        }
+        if (discovery == MapperDiscovery.INDEX) {
+            if (sources.isEmpty()) {
+                log.warn("MapperLoadHandler discovery is INDEX, but neither {} nor {} contains @BuildMapper types",
+                        MAPPER_INDEX_LOCATION, CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+            }
+        } else {
+            int indexedCount = entities.size();
+            entities.addAll(scanner.scanTypes(indexedRoots, basePackages));
+            sources.add(indexedRoots.isEmpty() ? "classpath scanning"
+                    : "classpath scanning of " + (entities.size() - indexedCount) + " unindexed types");
+        }
+        log.info("MapperLoadHandler discovered {} @BuildMapper types from {}, skipped {} indexed classpath roots, examined {} classes, 耗时【{}】毫秒",
+                entities.size(), sources, indexedRoots.size(), scanner.getExaminedCount(), System.currentTimeMillis() - time);
+        return entities;
+    }
+
+    /**
+     * 并行生成mapper字节码，开启磁盘缓存时优先读取缓存
+     * @param candidates 待加载的mapper
+     * @throws CannotCompileException
+     * @throws NotFoundException
+     */
+    private void buildBytecodes(List<MapperCandidate> candidates) throws CannotCompileException, NotFoundException {
+        List<MapperCandidate> pending = new ArrayList<>();
+        for (MapperCandidate candidate : candidates) {
+            if (candidate.mapperClass == null) {
+                pending.add(candidate);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        MapperClassCache cache = StringUtils.isBlank(classCacheDir) ? null : new MapperClassCache(classCacheDir, classLoader);
+        getClassPool();
+        int threads = Math.min(buildThreads > 0 ? buildThreads : Runtime.getRuntime().availableProcessors(), pending.size());
+        if (threads <= 1) {
+            for (MapperCandidate candidate : pending) {
+                candidate.bytecode = loadBytecode(candidate, cache);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("mapper-builder-%d").setDaemon(true).build());
+        try {
+            List<Future<byte[]>> futures = new ArrayList<>(pending.size());
+            for (MapperCandidate candidate : pending) {
+                futures.add(executor.submit(() -> loadBytecode(candidate, cache)));
+            }
+            for (int i = 0; i < pending.size(); i++) {
+                pending.get(i).bytecode = getBytecode(futures.get(i));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private byte[] loadBytecode(MapperCandidate candidate, MapperClassCache cache) throws CannotCompileException, NotFoundException {
+        String mapperClassName = candidate.mapperClassName();
+        StartupStep step = StartupProfiler.begin(StartupPhase.GENERATE, candidate.entityClassName);
+        if (cache != null) {
+            byte[] bytecode = cache.get(candidate.entityClassName, mapperClassName);
+            if (bytecode != null) {
+                log.debug("load Mapper [{}] from cache", mapperClassName);
+                step.source(SOURCE_CACHE).end(bytecode.length);
+                return bytecode;
+            }
+        }
+        byte[] bytecode = buildBytecode(getBackPackage(candidate.entityClassName), candidate.modelName);
+        if (cache != null) {
+            cache.put(candidate.entityClassName, mapperClassName, bytecode);
+        }
+        step.source(SOURCE_JAVASSIST).end(bytecode.length);
+        return bytecode;
+    }
+
+    private byte[] getBytecode(Future<byte[]> future) throws CannotCompileException, NotFoundException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("MapperLoadHandler interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CannotCompileException) {
+                throw (CannotCompileException) cause;
+            }
+            if (cause instanceof NotFoundException) {
+                throw (NotFoundException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 注册mapper的MapperFactoryBean
+     * @param registry
+     * @param entityClassName 实体类名
+     * @param clazz mapper接口
+     * @param beanName bean名称
+     * @return 是否注册，同名bean已存在时不再注册
+     * @throws ClassNotFoundException
+     */
+    private boolean registerMapper(BeanDefinitionRegistry registry, String entityClassName, Class<?> clazz, String beanName) throws ClassNotFoundException {
+        MapperMetadataRegistry.register(ClassUtils.forName(entityClassName, ClassUtils.getDefaultClassLoader()), clazz);
+        if (registry.containsBeanDefinition(beanName)) {
+            log.debug("Mapper [{}] already registered as bean [{}]", clazz.getName(), beanName);
+            return false;
+        }
+        BeanDefinitionBuilder builder = BeanDefinitionBuilder.genericBeanDefinition(clazz);
+        GenericBeanDefinition definition = (GenericBeanDefinition) builder.getRawBeanDefinition();
+        definition.getConstructorArgumentValues().addGenericArgumentValue(clazz);
+        definition.setAutowireMode(GenericBeanDefinition.AUTOWIRE_BY_TYPE);
+        //按类型注入时不需要实例化FactoryBean来确定类型
+        definition.setAttribute(FactoryBean.OBJECT_TYPE_ATTRIBUTE, clazz);
+        if (lazy && !warmUp.contains(entityClassName)) {
+            definition.setBeanClass(LazyMapperFactoryBean.class);
+            definition.setLazyInit(true);
+        } else {
+            definition.setBeanClass(CommonMapperFactoryBean.class);
+        }
+        registry.registerBeanDefinition(beanName, definition);
+        return true;
+    }
+
+    /**
+     * 读取注解处理器生成的索引，实体全类名 -> mapper全类名
+     * @return 索引，不存在时为空
+     * @throws IOException
+     */
+    private Map<String, String> loadMapperIndex() throws IOException {
+        Properties properties = PropertiesLoaderUtils.loadAllProperties(MAPPER_INDEX_LOCATION, ClassUtils.getDefaultClassLoader());
+        Map<String, String> mapperIndex = new TreeMap<>();
+        for (String entityClassName : properties.stringPropertyNames()) {
+            mapperIndex.put(entityClassName, properties.getProperty(entityClassName));
+        }
+        return mapperIndex;
+    }
+
+    /**
+     * 实体是否在basePackages下，匹配规则与类路径扫描一致
+     * @param className 类名
+     * @return 是否匹配
+     */
+    private boolean matchBasePackages(String className) {
+        String classPath = ClassUtils.convertClassNameToResourcePath(className) + ClassUtils.CLASS_FILE_SUFFIX;
+        for (String basePackage : basePackages) {
+            if (PATH_MATCHER.match(ClassUtils.convertClassNameToResourcePath(basePackage) + "/**/*" + ClassUtils.CLASS_FILE_SUFFIX, classPath)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -107,8 +428,20 @@ public class MapperLoadHandler implements BeanDefinitionRegistryPostProcessor, I
      * @throws NotFoundException
      */
     public Class<?> buildClazz(String packages, String modelName) throws CannotCompileException, NotFoundException {
+        return defineClazz(getBackPackage(packages) + PACKAGE_NAME + modelName + MAPPER_NAME, buildBytecode(packages, modelName));
+    }
+
+    /**
+     * 构建mapper字节码，线程安全
+     * @param packages
+     * @param modelName
+     * @return 字节码
+     * @throws CannotCompileException
+     * @throws NotFoundException
+     */
+    private byte[] buildBytecode(String packages, String modelName) throws CannotCompileException, NotFoundException {
         log.debug("init Mapper packages[{}] modelName[{}]",packages, modelName);
-        ClassPool pool = ClassPool.getDefault();
+        ClassPool pool = getClassPool();
         CtClass baseMapperCt = pool.get(CommonBaseMapper.class.getName());
         CtClass mapperCt = pool.makeInterface(getBackPackage(packages) + PACKAGE_NAME + modelName + MAPPER_NAME, baseMapperCt);
         SignatureAttribute.ClassSignature sc = new SignatureAttribute.ClassSignature(null, null,
@@ -121,7 +454,31 @@ public class MapperLoadHandler implements BeanDefinitionRegistryPostProcessor, I
         AnnotationsAttribute annotationsAttribute = new AnnotationsAttribute(constPool, AnnotationsAttribute.visibleTag);
         annotationsAttribute.addAnnotation(new Annotation(Mapper.class.getName(), constPool));
         mapperCt.getClassFile().addAttribute(annotationsAttribute);
-        return mapperCt.toClass(ClassUtils.getDefaultClassLoader(), mapperCt.getClass().getProtectionDomain());
+        try {
+            return mapperCt.toBytecode();
+        } catch (IOException e) {
+            throw new CannotCompileException(e);
+        } finally {
+            mapperCt.detach();
+        }
+    }
+
+    /**
+     * 定义mapper类
+     * @param className 类名
+     * @param bytecode 字节码
+     * @return class对象
+     * @throws CannotCompileException
+     */
+    private Class<?> defineClazz(String className, byte[] bytecode) throws CannotCompileException {
+        return DefineClassHelper.toClass(className, null, ClassUtils.getDefaultClassLoader(), CtClass.class.getProtectionDomain(), bytecode);
+    }
+
+    private synchronized ClassPool getClassPool() {
+        if (classPool == null) {
+            classPool = new ClassPool(true);
+        }
+        return classPool;
     }
 
     private String[] getPackagesToScan(AnnotationMetadata metadata) {
@@ -134,9 +491,33 @@ public class MapperLoadHandler implements BeanDefinitionRegistryPostProcessor, I
         return basePackages;
     }
 
+    /**
+     * 编译期生成的mapper带@Mapper注解，可能又被mybatis的@Mapper扫描注册一次，
+     * 此时移除扫描注册的bean，其名称作为本处理器注册的bean的别名
+     * @param beanFactory
+     * @throws BeansException
+     */
     @Override
     public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
-
+        if (indexedMappers.isEmpty() || !(beanFactory instanceof BeanDefinitionRegistry)) {
+            return;
+        }
+        BeanDefinitionRegistry registry = (BeanDefinitionRegistry) beanFactory;
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (!MapperFactoryBean.class.getName().equals(definition.getBeanClassName())) {
+                continue;
+            }
+            ConstructorArgumentValues.ValueHolder holder = definition.getConstructorArgumentValues().getGenericArgumentValue(null);
+            Object mapperInterface = holder == null ? null : holder.getValue();
+            String mapperBeanName = indexedMappers.get(mapperInterface instanceof Class ? ((Class<?>) mapperInterface).getName() : mapperInterface);
+            if (mapperBeanName != null && !mapperBeanName.equals(beanName)) {
+                log.debug("Mapper [{}] scanned as bean [{}], use it as alias of [{}]", mapperInterface, beanName, mapperBeanName);
+                registry.removeBeanDefinition(beanName);
+                registry.registerAlias(mapperBeanName, beanName);
+            }
+        }
+        indexedMappers.clear();
     }
 
     private String getBackPackage(String packages) {
@@ -146,4 +527,57 @@ public class MapperLoadHandler implements BeanDefinitionRegistryPostProcessor, I
     public void setBasePackages(String[] basePackages) {
         this.basePackages = basePackages;
     }
+
+    public void setBuildThreads(int buildThreads) {
+        this.buildThreads = buildThreads;
+    }
+
+    public void setClassCacheDir(String classCacheDir) {
+        this.classCacheDir = classCacheDir;
+    }
+
+    public void setDiscovery(MapperDiscovery discovery) {
+        this.discovery = discovery;
+    }
+
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    public void setWarmUp(String[] warmUp) {
+        this.warmUp = new HashSet<>(Arrays.asList(warmUp));
+    }
+
+    /**
+     * 待加载的mapper
+     */
+    private static class MapperCandidate {
+
+        private final String entityClassName;
+
+        private final String modelName;
+
+        /**
+         * 编译期已生成的mapper，为null时需要javassist生成
+         */
+        private final Class<?> mapperClass;
+
+        private byte[] bytecode;
+
+        /**
+         * 由bytecode定义的mapper类
+         */
+        private Class<?> definedClass;
+
+        private MapperCandidate(String entityClassName, String modelName, Class<?> mapperClass) {
+            this.entityClassName = entityClassName;
+            this.modelName = modelName;
+            this.mapperClass = mapperClass;
+        }
+
+        private String mapperClassName() {
+            String packages = entityClassName.substring(0, entityClassName.lastIndexOf("."));
+            return packages.substring(0, packages.lastIndexOf(".")) + PACKAGE_NAME + modelName + MAPPER_NAME;
+        }
+    }
 }
@@ -0,0 +1,51 @@
+package com.wrsdye.core.handler;
+
+import com.wrsdye.core.instrument.StartupProfiler;
+import com.wrsdye.core.instrument.StartupReport;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * @author wangrx
+ * @description 单例初始化完成后输出mapper启动报告，此时非延迟初始化的mapper都已注入MappedStatement
+ * @date 2026/10/20 下午2:40
+ */
+@Slf4j
+public class StartupReportWriter implements SmartInitializingSingleton {
+
+    /**
+     * JSON文件路径，为空时只打印日志
+     */
+    private String location;
+
+    private int top = 10;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        StartupReport report = StartupProfiler.report();
+        log.info("MapperLoadHandler startup report: {}", report.summary());
+        if (StringUtils.isBlank(location)) {
+            return;
+        }
+        Path file = Paths.get(location);
+        try {
+            report.write(file, top);
+            log.info("MapperLoadHandler startup report written to [{}]", file.toAbsolutePath());
+        } catch (IOException e) {
+            log.warn("MapperLoadHandler startup report write [{}] error: {}", file, e.getMessage());
+        }
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public void setTop(int top) {
+        this.top = top;
+    }
+}
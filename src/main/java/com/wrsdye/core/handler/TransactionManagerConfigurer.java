@@ -0,0 +1,50 @@
+package com.wrsdye.core.handler;
+
+import com.wrsdye.core.utils.MapperSqlHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.ResourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * @author wangrx
+ * @description 容器启动后注册事务管理器，并行批量、异步方法与异步合并写入的独立事务使用应用的事务管理器而不是自行创建
+ * <p>按数据源管理事务的事务管理器按数据源注册；容器中只有一个事务管理器时同时作为默认事务管理器</p>
+ * @date 2026/10/20 下午4:20
+ */
+@Slf4j
+public class TransactionManagerConfigurer implements SmartInitializingSingleton, BeanFactoryAware {
+
+    private BeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!(beanFactory instanceof ListableBeanFactory)) {
+            return;
+        }
+        Map<String, PlatformTransactionManager> transactionManagers
+                = ((ListableBeanFactory) beanFactory).getBeansOfType(PlatformTransactionManager.class, false, false);
+        transactionManagers.forEach((name, transactionManager) -> {
+            if (transactionManager instanceof ResourceTransactionManager
+                    && ((ResourceTransactionManager) transactionManager).getResourceFactory() instanceof DataSource) {
+                MapperSqlHelper.registerTransactionManager((DataSource) ((ResourceTransactionManager) transactionManager).getResourceFactory(), transactionManager);
+                log.debug("transaction manager [{}] registered for its data source", name);
+            }
+        });
+        if (transactionManagers.size() == 1) {
+            MapperSqlHelper.setDefaultTransactionManager(transactionManagers.values().iterator().next());
+        }
+    }
+}
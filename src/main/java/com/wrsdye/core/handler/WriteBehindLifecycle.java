@@ -0,0 +1,38 @@
+package com.wrsdye.core.handler;
+
+import com.wrsdye.core.batch.WriteBehindWriter;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * @author wangrx
+ * @description 容器关闭时写完异步合并写入的队列，在数据源等bean销毁之前执行
+ * @date 2026/10/18 下午11:40
+ */
+public class WriteBehindLifecycle implements SmartLifecycle {
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        WriteBehindWriter.closeAll();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 晚于web服务器停止，先停止接收请求再写完队列
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.wrsdye.core.injector;
+
+/**
+ * @author wangrx
+ * @description 扩展的mapper方法，对应mybatis-plus的SqlMethod
+ * @date 2026/10/18 下午4:20
+ */
+public enum ExtensionMethod {
+
+    /**
+     * 插入
+     */
+    INSERT_MULTI_ROW("insertMultiRow", "多值插入", "<script>\nINSERT INTO %s %s VALUES %s\n</script>"),
+
+    /**
+     * 查询
+     */
+    SELECT_IDS_BY_IDS("selectIdsByIds", "根据ID集合，查询已存在的ID", "<script>\nSELECT %s FROM %s WHERE %s IN (%s) %s\n</script>"),
+    SELECT_COLUMNS("selectColumns", "查询满足条件的指定列，按列读取", "<script>%s SELECT %s FROM %s %s %s\n</script>"),
+
+    /**
+     * 修改
+     */
+    UPDATE_COLUMNS_BY_ID("updateColumnsById", "根据ID 修改指定字段", "<script>\nUPDATE %s %s WHERE %s=#{%s} %s\n</script>"),
+
+    /**
+     * 插入或更新，语句按方言生成
+     */
+    UPSERT("upsert", "多值插入，主键冲突时更新", "<script>\n%s\n</script>", true);
+
+    private final String method;
+    private final String desc;
+    private final String sql;
+
+    /**
+     * 语句是否依赖数据库方言，依赖方言的方法在首次使用时才注入
+     */
+    private final boolean dialectSpecific;
+
+    ExtensionMethod(String method, String desc, String sql) {
+        this(method, desc, sql, false);
+    }
+
+    ExtensionMethod(String method, String desc, String sql, boolean dialectSpecific) {
+        this.method = method;
+        this.desc = desc;
+        this.sql = sql;
+        this.dialectSpecific = dialectSpecific;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public boolean isDialectSpecific() {
+        return dialectSpecific;
+    }
+}
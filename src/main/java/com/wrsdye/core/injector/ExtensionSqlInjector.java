@@ -0,0 +1,98 @@
+package com.wrsdye.core.injector;
+
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.wrsdye.core.dialect.SqlDialect;
+import com.wrsdye.core.handler.ConcurrentMybatisConfiguration;
+import com.wrsdye.core.injector.methods.InsertMultiRow;
+import com.wrsdye.core.injector.methods.SelectColumns;
+import com.wrsdye.core.injector.methods.SelectIdsByIds;
+import com.wrsdye.core.injector.methods.UpdateColumnsById;
+import com.wrsdye.core.injector.methods.Upsert;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author wangrx
+ * @description 注入扩展方法的MappedStatement，在mybatis-plus注入CRUD方法之后执行
+ * @date 2026/10/18 下午4:35
+ */
+public class ExtensionSqlInjector {
+
+    private ExtensionSqlInjector() {
+    }
+
+    /**
+     * AbstractMethod注入时持有状态，每次注入使用新实例
+     */
+    private static List<AbstractMethod> getMethodList() {
+        return Arrays.asList(
+                new InsertMultiRow(),
+                new SelectIdsByIds(),
+                new SelectColumns(),
+                new UpdateColumnsById()
+        );
+    }
+
+    /**
+     * 依赖方言的方法，方言不支持时为空
+     */
+    private static List<AbstractMethod> getMethodList(SqlDialect dialect) {
+        List<AbstractMethod> methodList = new ArrayList<>();
+        if (dialect.isUpsert()) {
+            methodList.add(new Upsert(dialect));
+        }
+        return methodList;
+    }
+
+    /**
+     * 为mapper注入扩展方法，已存在的MappedStatement不会重复注入
+     *
+     * @param configuration   mybatis配置
+     * @param mapperInterface mapper接口
+     * @param entityClass     实体类
+     */
+    public static void inject(Configuration configuration, Class<?> mapperInterface, Class<?> entityClass) {
+        inject(configuration, mapperInterface, entityClass, getMethodList());
+    }
+
+    /**
+     * 为mapper注入依赖方言的扩展方法，需要连接数据库识别方言，首次使用时才注入
+     *
+     * @param configuration   mybatis配置
+     * @param mapperInterface mapper接口
+     * @param entityClass     实体类
+     * @param dialect         方言
+     */
+    public static void inject(Configuration configuration, Class<?> mapperInterface, Class<?> entityClass, SqlDialect dialect) {
+        inject(configuration, mapperInterface, entityClass, getMethodList(dialect));
+    }
+
+    private static void inject(Configuration configuration, Class<?> mapperInterface, Class<?> entityClass, List<AbstractMethod> methodList) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        if (tableInfo == null || methodList.isEmpty()) {
+            return;
+        }
+        Runnable injection = () -> {
+            MapperBuilderAssistant builderAssistant = new MapperBuilderAssistant(configuration,
+                    mapperInterface.getName().replace('.', '/') + ".java (extension)");
+            builderAssistant.setCurrentNamespace(mapperInterface.getName());
+            for (AbstractMethod method : methodList) {
+                method.inject(builderAssistant, mapperInterface, entityClass, tableInfo);
+            }
+        };
+        //与延迟初始化使用同一把锁，避免两把锁交叉等待
+        if (configuration instanceof ConcurrentMybatisConfiguration) {
+            ((ConcurrentMybatisConfiguration) configuration).exclusive(injection);
+        } else {
+            synchronized (configuration) {
+                injection.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.wrsdye.core.injector.methods;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.toolkit.StringUtils;
+import com.baomidou.mybatisplus.core.toolkit.sql.SqlScriptUtils;
+import com.wrsdye.core.injector.ExtensionMethod;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+/**
+ * @author wangrx
+ * @description 多值插入 INSERT INTO t (...) VALUES (...),(...)，参数为包含list的ParamMap
+ * @date 2026/10/18 下午4:25
+ */
+public class InsertMultiRow extends AbstractMethod {
+
+    /**
+     * 参数中实体集合的key
+     */
+    public static final String LIST = "list";
+
+    @Override
+    public MappedStatement injectMappedStatement(Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+        KeyGenerator keyGenerator = new NoKeyGenerator();
+        ExtensionMethod extensionMethod = ExtensionMethod.INSERT_MULTI_ROW;
+        String columnScript = LEFT_BRACKET + trimComma(tableInfo.getKeyInsertSqlColumn(false)
+                + filterTableFieldInfo(tableInfo.getFieldList(), null, TableFieldInfo::getInsertSqlColumn, EMPTY)) + RIGHT_BRACKET;
+        String valueScript = LEFT_BRACKET + trimComma(tableInfo.getKeyInsertSqlProperty(ENTITY_DOT, false)
+                + filterTableFieldInfo(tableInfo.getFieldList(), null, i -> i.getInsertSqlProperty(ENTITY_DOT), EMPTY)) + RIGHT_BRACKET;
+        String valuesScript = SqlScriptUtils.convertForeach(valueScript, LIST, null, ENTITY, COMMA);
+        String keyProperty = null;
+        String keyColumn = null;
+        //序列主键每条语句只取一次值，不适用于多值插入，调用方需回退到BATCH
+        if (StringUtils.isNotBlank(tableInfo.getKeyProperty()) && tableInfo.getIdType() == IdType.AUTO) {
+            keyGenerator = new Jdbc3KeyGenerator();
+            keyProperty = tableInfo.getKeyProperty();
+            keyColumn = tableInfo.getKeyColumn();
+        }
+        String sql = String.format(extensionMethod.getSql(), tableInfo.getTableName(), columnScript, valuesScript);
+        SqlSource sqlSource = languageDriver.createSqlSource(configuration, sql, modelClass);
+        return this.addInsertMappedStatement(mapperClass, modelClass, extensionMethod.getMethod(), sqlSource, keyGenerator, keyProperty, keyColumn);
+    }
+
+    private String trimComma(String script) {
+        return script.endsWith(COMMA) ? script.substring(0, script.length() - 1) : script;
+    }
+}
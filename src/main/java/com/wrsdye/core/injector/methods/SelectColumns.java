@@ -0,0 +1,32 @@
+package com.wrsdye.core.injector.methods;
+
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.wrsdye.core.injector.ExtensionMethod;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+import java.util.Map;
+
+/**
+ * @author wangrx
+ * @description 按条件查询指定列 SELECT ${columns} FROM t WHERE ...，参数为包含ew与columns的ParamMap
+ * <p>columns由TableInfo中的列名拼接，不接收外部输入；语句只用于生成SQL，结果由调用方按列读取</p>
+ * @date 2026/10/20 下午6:30
+ */
+public class SelectColumns extends AbstractMethod {
+
+    /**
+     * 参数中列名的key
+     */
+    public static final String COLUMNS = "columns";
+
+    @Override
+    public MappedStatement injectMappedStatement(Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+        ExtensionMethod extensionMethod = ExtensionMethod.SELECT_COLUMNS;
+        String sql = String.format(extensionMethod.getSql(), sqlFirst(), "${" + COLUMNS + "}", tableInfo.getTableName(),
+                sqlWhereEntityWrapper(true, tableInfo), sqlComment());
+        SqlSource sqlSource = languageDriver.createSqlSource(configuration, sql, modelClass);
+        return addSelectMappedStatementForOther(mapperClass, extensionMethod.getMethod(), sqlSource, Map.class);
+    }
+}
@@ -0,0 +1,26 @@
+package com.wrsdye.core.injector.methods;
+
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.sql.SqlScriptUtils;
+import com.wrsdye.core.injector.ExtensionMethod;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+/**
+ * @author wangrx
+ * @description 根据ID集合只查询主键列 SELECT id FROM t WHERE id IN (...)，参数为包含coll的ParamMap
+ * @date 2026/10/18 下午6:10
+ */
+public class SelectIdsByIds extends AbstractMethod {
+
+    @Override
+    public MappedStatement injectMappedStatement(Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+        ExtensionMethod extensionMethod = ExtensionMethod.SELECT_IDS_BY_IDS;
+        SqlSource sqlSource = languageDriver.createSqlSource(configuration, String.format(extensionMethod.getSql(),
+                tableInfo.getKeyColumn(), tableInfo.getTableName(), tableInfo.getKeyColumn(),
+                SqlScriptUtils.convertForeach("#{item}", COLLECTION, null, "item", COMMA),
+                tableInfo.getLogicDeleteSql(true, true)), Object.class);
+        return addSelectMappedStatementForOther(mapperClass, extensionMethod.getMethod(), sqlSource, tableInfo.getKeyType());
+    }
+}
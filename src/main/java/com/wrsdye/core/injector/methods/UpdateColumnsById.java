@@ -0,0 +1,42 @@
+package com.wrsdye.core.injector.methods;
+
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.sql.SqlScriptUtils;
+import com.wrsdye.core.injector.ExtensionMethod;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+/**
+ * @author wangrx
+ * @description 根据ID只更新指定字段，参数为包含et与props的ParamMap，props为属性名集合
+ * <p>字段是否更新只看是否在props中，值为null时同样写入；自动填充字段总是写入，逻辑删除字段不写入</p>
+ * <p>props相同的行生成相同的SQL，BATCH执行器中连续执行时共用一个预编译语句</p>
+ * @date 2026/10/19 下午6:10
+ */
+public class UpdateColumnsById extends AbstractMethod {
+
+    /**
+     * 参数中属性名集合的key
+     */
+    public static final String PROPERTIES = "props";
+
+    @Override
+    public MappedStatement injectMappedStatement(Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+        ExtensionMethod extensionMethod = ExtensionMethod.UPDATE_COLUMNS_BY_ID;
+        StringBuilder set = new StringBuilder();
+        for (TableFieldInfo fieldInfo : tableInfo.getFieldList()) {
+            if (tableInfo.isLogicDelete() && fieldInfo.isLogicDelete()) {
+                continue;
+            }
+            String sqlSet = fieldInfo.getSqlSet(true, ENTITY_DOT);
+            set.append(fieldInfo.isWithUpdateFill() ? sqlSet
+                    : SqlScriptUtils.convertIf(sqlSet, String.format("%s.contains('%s')", PROPERTIES, fieldInfo.getProperty()), false));
+        }
+        String sql = String.format(extensionMethod.getSql(), tableInfo.getTableName(), SqlScriptUtils.convertSet(set.toString()),
+                tableInfo.getKeyColumn(), ENTITY_DOT + tableInfo.getKeyProperty(), tableInfo.getLogicDeleteSql(true, true));
+        SqlSource sqlSource = languageDriver.createSqlSource(configuration, sql, modelClass);
+        return addUpdateMappedStatement(mapperClass, modelClass, extensionMethod.getMethod(), sqlSource);
+    }
+}
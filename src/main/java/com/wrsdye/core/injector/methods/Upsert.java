@@ -0,0 +1,108 @@
+package com.wrsdye.core.injector.methods;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.sql.SqlScriptUtils;
+import com.wrsdye.core.dialect.SqlDialect;
+import com.wrsdye.core.injector.ExtensionMethod;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author wangrx
+ * @description 多值插入，主键冲突时用本次的值覆盖非主键字段，参数为包含list的ParamMap
+ * <p>MySQL: ON DUPLICATE KEY UPDATE，PostgreSQL: ON CONFLICT DO UPDATE，H2: MERGE INTO ... USING</p>
+ * <p>乐观锁版本、逻辑删除、插入填充（FieldFill.INSERT）字段只在插入时写入，冲突时不覆盖；有乐观锁版本字段的实体不使用upsert</p>
+ * <p>主键列总是写入，调用方需保证集合中的实体主键不为空</p>
+ * @date 2026/10/18 下午6:20
+ */
+public class Upsert extends AbstractMethod {
+
+    private final SqlDialect dialect;
+
+    public Upsert(SqlDialect dialect) {
+        this.dialect = dialect;
+    }
+
+    @Override
+    public MappedStatement injectMappedStatement(Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+        ExtensionMethod extensionMethod = ExtensionMethod.UPSERT;
+        String keyColumn = tableInfo.getKeyColumn();
+        String columnScript = LEFT_BRACKET + trimComma(keyColumn + COMMA
+                + filterTableFieldInfo(tableInfo.getFieldList(), null, TableFieldInfo::getInsertSqlColumn, EMPTY)) + RIGHT_BRACKET;
+        String valueScript = LEFT_BRACKET + trimComma(SqlScriptUtils.safeParam(ENTITY_DOT + tableInfo.getKeyProperty()) + COMMA
+                + filterTableFieldInfo(tableInfo.getFieldList(), null, i -> i.getInsertSqlProperty(ENTITY_DOT), EMPTY)) + RIGHT_BRACKET;
+        String valuesScript = SqlScriptUtils.convertForeach(valueScript, InsertMultiRow.LIST, null, ENTITY, COMMA);
+        String upsert;
+        switch (dialect) {
+            case MYSQL:
+                upsert = String.format("INSERT INTO %s %s VALUES %s ON DUPLICATE KEY UPDATE %s", tableInfo.getTableName(),
+                        columnScript, valuesScript, updateSet(tableInfo, "%1$s=VALUES(%1$s)"));
+                break;
+            case POSTGRESQL:
+                upsert = String.format("INSERT INTO %s %s VALUES %s ON CONFLICT (%s) DO %s", tableInfo.getTableName(),
+                        columnScript, valuesScript, keyColumn, updatableFields(tableInfo).isEmpty()
+                                ? "NOTHING" : "UPDATE SET " + updateSet(tableInfo, "%1$s=EXCLUDED.%1$s"));
+                break;
+            case H2:
+                upsert = h2Merge(tableInfo, columnScript, valuesScript);
+                break;
+            default:
+                throw new UnsupportedOperationException("upsert is not supported by dialect " + dialect);
+        }
+        SqlSource sqlSource = languageDriver.createSqlSource(configuration, String.format(extensionMethod.getSql(), upsert), modelClass);
+        return this.addInsertMappedStatement(mapperClass, modelClass, extensionMethod.getMethod(), sqlSource, new NoKeyGenerator(), null, null);
+    }
+
+    private String trimComma(String script) {
+        return script.endsWith(COMMA) ? script.substring(0, script.length() - 1) : script;
+    }
+
+    /**
+     * H2的MERGE INTO ... KEY会覆盖全部字段，改用MERGE INTO ... USING，VALUES的列依次为C1、C2...
+     */
+    private String h2Merge(TableInfo tableInfo, String columnScript, String valuesScript) {
+        List<TableFieldInfo> fieldList = tableInfo.getFieldList();
+        StringBuilder merge = new StringBuilder(String.format("MERGE INTO %s USING (VALUES %s) S ON (%s.%s = S.C1)",
+                tableInfo.getTableName(), valuesScript, tableInfo.getTableName(), tableInfo.getKeyColumn()));
+        StringBuilder updateSet = new StringBuilder();
+        StringBuilder insertValues = new StringBuilder("S.C1");
+        for (int i = 0; i < fieldList.size(); i++) {
+            String sourceColumn = "S.C" + (i + 2);
+            if (isUpdatable(fieldList.get(i))) {
+                updateSet.append(updateSet.length() == 0 ? EMPTY : COMMA).append(fieldList.get(i).getColumn()).append('=').append(sourceColumn);
+            }
+            insertValues.append(COMMA).append(sourceColumn);
+        }
+        if (updateSet.length() > 0) {
+            merge.append(" WHEN MATCHED THEN UPDATE SET ").append(updateSet);
+        }
+        return merge.append(" WHEN NOT MATCHED THEN INSERT ").append(columnScript)
+                .append(" VALUES (").append(insertValues).append(')').toString();
+    }
+
+    private String updateSet(TableInfo tableInfo, String format) {
+        List<TableFieldInfo> updatable = updatableFields(tableInfo);
+        if (updatable.isEmpty()) {
+            return String.format(format, tableInfo.getKeyColumn());
+        }
+        return updatable.stream().map(i -> String.format(format, i.getColumn())).collect(Collectors.joining(COMMA));
+    }
+
+    private static List<TableFieldInfo> updatableFields(TableInfo tableInfo) {
+        return tableInfo.getFieldList().stream().filter(Upsert::isUpdatable).collect(Collectors.toList());
+    }
+
+    /**
+     * 冲突时是否覆盖该字段，与updateById保持一致：不改写版本号、逻辑删除标记和只在插入时填充的字段
+     */
+    private static boolean isUpdatable(TableFieldInfo fieldInfo) {
+        return !fieldInfo.isVersion() && !fieldInfo.isLogicDelete() && fieldInfo.getFieldFill() != FieldFill.INSERT;
+    }
+}
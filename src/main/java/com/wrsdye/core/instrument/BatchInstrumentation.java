@@ -0,0 +1,19 @@
+package com.wrsdye.core.instrument;
+
+/**
+ * @author wangrx
+ * @description 批量操作的监控扩展点，通过{@link MapperInstrumentation#register}注册或声明为spring bean
+ * <p>每次批量调用开始时回调一次，返回null表示不采集该次调用</p>
+ * @date 2026/10/19 下午6:10
+ */
+public interface BatchInstrumentation {
+
+    /**
+     * 批量调用开始
+     *
+     * @param entityClass 实体类
+     * @param operation   操作名，如saveBatch、updateBatchById、saveOrUpdateBatch
+     * @return 本次调用的观测，返回null时不采集
+     */
+    BatchObservation start(Class<?> entityClass, String operation);
+}
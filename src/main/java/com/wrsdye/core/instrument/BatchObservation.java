@@ -0,0 +1,45 @@
+package com.wrsdye.core.instrument;
+
+/**
+ * @author wangrx
+ * @description 一次批量调用的观测，并行批量时会被多个写入线程同时回调，实现需线程安全
+ * @date 2026/10/19 下午6:10
+ */
+public interface BatchObservation {
+
+    /**
+     * 一次flush，即一次数据库往返
+     *
+     * @param statements 执行的语句数，BATCH执行器为合并后的JDBC批次数
+     * @param rows       涉及的行数
+     * @param nanos      耗时，纳秒
+     */
+    default void flushed(int statements, long rows, long nanos) {
+    }
+
+    /**
+     * 回滚，并行批量为单个分片回滚
+     *
+     * @param cause 原因
+     */
+    default void rolledBack(Throwable cause) {
+    }
+
+    /**
+     * session关闭，持有时长即占用连接的时长，可用于估算连接池大小
+     *
+     * @param openNanos 从打开到关闭的时长，纳秒
+     */
+    default void sessionClosed(long openNanos) {
+    }
+
+    /**
+     * 调用结束
+     *
+     * @param rows  写入行数
+     * @param nanos 调用耗时，纳秒
+     * @param error 失败原因，成功时为null
+     */
+    default void completed(long rows, long nanos, Throwable error) {
+    }
+}
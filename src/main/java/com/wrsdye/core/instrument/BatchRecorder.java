@@ -0,0 +1,103 @@
+package com.wrsdye.core.instrument;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.SqlSession;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author wangrx
+ * @description 记录一次批量调用，统计flush、行数、session持有时长后回调观测
+ * @date 2026/10/19 下午6:30
+ */
+public class BatchRecorder {
+
+    private static final String FLUSH_STATEMENTS = "flushStatements";
+
+    private static final String CLOSE = "close";
+
+    private final BatchObservation observation;
+
+    private final long start = System.nanoTime();
+
+    /**
+     * 从flush结果统计的行数，并行批量时多个线程累加
+     */
+    private final AtomicLong rows = new AtomicLong();
+
+    BatchRecorder(BatchObservation observation) {
+        this.observation = observation;
+    }
+
+    /**
+     * 包装BATCH执行器的session，记录每次flush和session持有时长
+     *
+     * @param sqlSession 刚打开的session
+     * @return 包装后的session
+     */
+    public SqlSession wrap(SqlSession sqlSession) {
+        long opened = System.nanoTime();
+        return (SqlSession) Proxy.newProxyInstance(SqlSession.class.getClassLoader(), new Class<?>[]{SqlSession.class},
+                (proxy, method, args) -> invoke(sqlSession, opened, method, args));
+    }
+
+    private Object invoke(SqlSession sqlSession, long opened, Method method, Object[] args) throws Throwable {
+        long begin = System.nanoTime();
+        Object result;
+        try {
+            result = method.invoke(sqlSession, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+        if (FLUSH_STATEMENTS.equals(method.getName())) {
+            flushed((List<?>) result, System.nanoTime() - begin);
+        } else if (CLOSE.equals(method.getName())) {
+            observation.sessionClosed(System.nanoTime() - opened);
+        }
+        return result;
+    }
+
+    private void flushed(List<?> results, long nanos) {
+        if (results.isEmpty()) {
+            return;
+        }
+        long flushedRows = 0;
+        for (Object result : results) {
+            flushedRows += ((BatchResult) result).getParameterObjects().size();
+        }
+        rows.addAndGet(flushedRows);
+        observation.flushed(results.size(), flushedRows, nanos);
+    }
+
+    /**
+     * 非BATCH执行器执行的一次往返，如多值插入的一条语句
+     *
+     * @param statementRows 语句涉及的行数
+     * @param nanos         耗时，纳秒
+     */
+    public void executed(long statementRows, long nanos) {
+        rows.addAndGet(statementRows);
+        observation.flushed(1, statementRows, nanos);
+    }
+
+    public void sessionClosed(long openNanos) {
+        observation.sessionClosed(openNanos);
+    }
+
+    public void rolledBack(Throwable cause) {
+        observation.rolledBack(cause);
+    }
+
+    /**
+     * 调用结束，行数取flush统计的行数
+     *
+     * @param error 失败原因，成功时为null
+     */
+    public void completed(Throwable error) {
+        observation.completed(rows.get(), System.nanoTime() - start, error);
+    }
+}
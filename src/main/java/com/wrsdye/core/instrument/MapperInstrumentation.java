@@ -0,0 +1,57 @@
+package com.wrsdye.core.instrument;
+
+import java.util.Objects;
+
+/**
+ * @author wangrx
+ * @description 批量操作监控的全局注册点，默认不采集，批量路径只多一次volatile读
+ * @date 2026/10/19 下午6:20
+ */
+public final class MapperInstrumentation {
+
+    private static volatile BatchInstrumentation instrumentation;
+
+    private MapperInstrumentation() {
+    }
+
+    /**
+     * 注册监控，替换已注册的
+     *
+     * @param batchInstrumentation 监控实现
+     */
+    public static void register(BatchInstrumentation batchInstrumentation) {
+        instrumentation = Objects.requireNonNull(batchInstrumentation);
+    }
+
+    /**
+     * 取消注册，恢复为不采集
+     */
+    public static void unregister() {
+        instrumentation = null;
+    }
+
+    /**
+     * 是否已注册监控
+     *
+     * @return 已注册返回true
+     */
+    public static boolean isRegistered() {
+        return instrumentation != null;
+    }
+
+    /**
+     * 开始记录一次批量调用
+     *
+     * @param entityClass 实体类
+     * @param operation   操作名
+     * @return 记录器，未注册监控或监控不采集时返回null
+     */
+    public static BatchRecorder start(Class<?> entityClass, String operation) {
+        BatchInstrumentation current = instrumentation;
+        if (current == null) {
+            return null;
+        }
+        BatchObservation observation = current.start(entityClass, operation);
+        return observation == null ? null : new BatchRecorder(observation);
+    }
+}
@@ -0,0 +1,33 @@
+package com.wrsdye.core.instrument;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * @author wangrx
+ * @description mapper启动阶段的JFR事件，事件时长即阶段耗时；只在运行时存在jdk.jfr时加载
+ * @date 2026/10/20 下午2:05
+ */
+@Name("com.wrsdye.MapperStartup")
+@Label("Mapper Startup")
+@Category({"MyBatis-Plus Extension", "Startup"})
+@Description("Auto-mapper startup phase, whole phase when entity is empty")
+class MapperStartupEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Entity")
+    String entity;
+
+    @Label("Source")
+    String source;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,136 @@
+package com.wrsdye.core.instrument;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author wangrx
+ * @description 批量操作指标绑定到micrometer，按实体、操作打标签
+ * <ul>
+ *     <li>mybatis.batch：调用耗时，outcome区分成功失败</li>
+ *     <li>mybatis.batch.rows：每次调用的行数</li>
+ *     <li>mybatis.batch.flush：每次flush（数据库往返）的耗时，count即往返次数</li>
+ *     <li>mybatis.batch.rollbacks：回滚次数</li>
+ *     <li>mybatis.batch.session：session持有时长，即占用连接的时长</li>
+ * </ul>
+ * @date 2026/10/19 下午6:50
+ */
+public class MicrometerBatchInstrumentation implements BatchInstrumentation {
+
+    private static final String ENTITY = "entity";
+
+    private static final String OPERATION = "operation";
+
+    private static final String OUTCOME = "outcome";
+
+    private final MeterRegistry registry;
+
+    /**
+     * 实体+操作 -> 指标，避免每次调用构建meter
+     */
+    private final ConcurrentMap<Key, Meters> meters = new ConcurrentHashMap<>();
+
+    public MicrometerBatchInstrumentation(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public BatchObservation start(Class<?> entityClass, String operation) {
+        return meters.computeIfAbsent(new Key(entityClass, operation), this::meters);
+    }
+
+    private Meters meters(Key key) {
+        Tags tags = Tags.of(ENTITY, key.entityClass.getSimpleName(), OPERATION, key.operation);
+        return new Meters(
+                Timer.builder("mybatis.batch").description("batch call latency").tags(tags).tag(OUTCOME, "success").register(registry),
+                Timer.builder("mybatis.batch").description("batch call latency").tags(tags).tag(OUTCOME, "error").register(registry),
+                DistributionSummary.builder("mybatis.batch.rows").description("rows per batch call").baseUnit("rows").tags(tags).register(registry),
+                Timer.builder("mybatis.batch.flush").description("flush round trip latency").tags(tags).register(registry),
+                Counter.builder("mybatis.batch.rollbacks").description("rolled back batch calls or chunks").tags(tags).register(registry),
+                Timer.builder("mybatis.batch.session").description("time a batch session holds its connection").tags(tags).register(registry));
+    }
+
+    /**
+     * 指标本身线程安全且无状态，同一实体操作的所有调用共用一个观测
+     */
+    private static class Meters implements BatchObservation {
+
+        private final Timer success;
+
+        private final Timer error;
+
+        private final DistributionSummary rows;
+
+        private final Timer flush;
+
+        private final Counter rollbacks;
+
+        private final Timer session;
+
+        Meters(Timer success, Timer error, DistributionSummary rows, Timer flush, Counter rollbacks, Timer session) {
+            this.success = success;
+            this.error = error;
+            this.rows = rows;
+            this.flush = flush;
+            this.rollbacks = rollbacks;
+            this.session = session;
+        }
+
+        @Override
+        public void flushed(int statements, long rowCount, long nanos) {
+            flush.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void rolledBack(Throwable cause) {
+            rollbacks.increment();
+        }
+
+        @Override
+        public void sessionClosed(long openNanos) {
+            session.record(openNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void completed(long rowCount, long nanos, Throwable cause) {
+            (cause == null ? success : error).record(nanos, TimeUnit.NANOSECONDS);
+            rows.record(rowCount);
+        }
+    }
+
+    private static class Key {
+
+        private final Class<?> entityClass;
+
+        private final String operation;
+
+        Key(Class<?> entityClass, String operation) {
+            this.entityClass = entityClass;
+            this.operation = operation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return entityClass == key.entityClass && operation.equals(key.operation);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * entityClass.hashCode() + operation.hashCode();
+        }
+    }
+}
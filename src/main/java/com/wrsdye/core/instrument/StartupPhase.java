@@ -0,0 +1,44 @@
+package com.wrsdye.core.instrument;
+
+/**
+ * @author wangrx
+ * @description mapper启动阶段
+ * @date 2026/10/20 下午2:00
+ */
+public enum StartupPhase {
+
+    /**
+     * 发现@BuildMapper实体（读索引或扫描类路径）
+     */
+    SCAN("scan"),
+
+    /**
+     * javassist生成mapper字节码或读取磁盘缓存
+     */
+    GENERATE("generate"),
+
+    /**
+     * 由字节码定义mapper类
+     */
+    DEFINE("define"),
+
+    /**
+     * 注册mapper元数据与bean定义
+     */
+    REGISTER("register"),
+
+    /**
+     * mybatis-plus解析mapper并注入MappedStatement，在创建mapper bean时进行
+     */
+    INJECT("inject");
+
+    private final String label;
+
+    StartupPhase(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
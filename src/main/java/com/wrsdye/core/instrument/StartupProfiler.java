@@ -0,0 +1,51 @@
+package com.wrsdye.core.instrument;
+
+/**
+ * @author wangrx
+ * @description mapper启动计时的全局入口，启动各阶段与每个实体的耗时记录到同一份报告
+ * @date 2026/10/20 下午2:15
+ */
+public final class StartupProfiler {
+
+    private static volatile StartupReport report = new StartupReport();
+
+    private StartupProfiler() {
+    }
+
+    /**
+     * 开始记录整个阶段
+     *
+     * @param phase 阶段
+     * @return 步骤，结束时调用end
+     */
+    public static StartupStep begin(StartupPhase phase) {
+        return new StartupStep(report, phase, null);
+    }
+
+    /**
+     * 开始记录一个实体在某阶段的耗时
+     *
+     * @param phase       阶段
+     * @param entityClass 实体类名
+     * @return 步骤，结束时调用end
+     */
+    public static StartupStep begin(StartupPhase phase, String entityClass) {
+        return new StartupStep(report, phase, entityClass);
+    }
+
+    /**
+     * 当前报告，之后初始化的mapper（如延迟初始化）会继续记录到该报告
+     *
+     * @return 报告
+     */
+    public static StartupReport report() {
+        return report;
+    }
+
+    /**
+     * 丢弃已记录的数据，开始新的报告
+     */
+    public static void reset() {
+        report = new StartupReport();
+    }
+}
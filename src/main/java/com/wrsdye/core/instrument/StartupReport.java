@@ -0,0 +1,187 @@
+package com.wrsdye.core.instrument;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * @author wangrx
+ * @description mapper启动报告：各阶段耗时、每个实体各阶段耗时与生成的字节码大小，线程安全
+ * <p>阶段耗时有两种：整个阶段的墙钟时间，以及各实体耗时之和；并行生成字节码时两者之差即并行收益</p>
+ * @date 2026/10/20 下午2:20
+ */
+public class StartupReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000D;
+
+    private final Instant startedAt = Instant.now();
+
+    private final long[] wallNanos = new long[StartupPhase.values().length];
+
+    private final long[] entityNanos = new long[StartupPhase.values().length];
+
+    private final int[] entityCounts = new int[StartupPhase.values().length];
+
+    private final Map<String, EntityTiming> entities = new LinkedHashMap<>();
+
+    private long generatedBytes;
+
+    synchronized void record(StartupPhase phase, String entity, String source, long nanos, long bytes) {
+        int index = phase.ordinal();
+        if (entity == null) {
+            wallNanos[index] += nanos;
+            return;
+        }
+        entityNanos[index] += nanos;
+        entityCounts[index]++;
+        EntityTiming timing = entities.computeIfAbsent(entity, EntityTiming::new);
+        timing.nanos[index] += nanos;
+        timing.bytes += bytes;
+        if (source != null) {
+            timing.source = source;
+        }
+        generatedBytes += bytes;
+    }
+
+    /**
+     * 阶段耗时，优先取整个阶段的墙钟时间，没有时取各实体耗时之和
+     *
+     * @param phase 阶段
+     * @return 毫秒
+     */
+    public synchronized double getMillis(StartupPhase phase) {
+        int index = phase.ordinal();
+        return (wallNanos[index] > 0 ? wallNanos[index] : entityNanos[index]) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * 生成的字节码总大小，不含编译期生成的mapper
+     *
+     * @return 字节数
+     */
+    public synchronized long getGeneratedBytes() {
+        return generatedBytes;
+    }
+
+    /**
+     * 已记录的实体数
+     *
+     * @return 实体数
+     */
+    public synchronized int getEntityCount() {
+        return entities.size();
+    }
+
+    /**
+     * 一行摘要，用于日志
+     *
+     * @return 摘要
+     */
+    public synchronized String summary() {
+        StringBuilder builder = new StringBuilder();
+        for (StartupPhase phase : StartupPhase.values()) {
+            builder.append(phase.getLabel()).append('=').append(format(getMillis(phase))).append("ms, ");
+        }
+        return builder.append("entities=").append(entities.size()).append(", bytes=").append(generatedBytes).toString();
+    }
+
+    /**
+     * 以JSON输出报告
+     *
+     * @param top 列出耗时最长的实体数
+     * @return JSON
+     */
+    public synchronized String toJson(int top) {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\n");
+        json.append("  \"startedAt\": \"").append(startedAt).append("\",\n");
+        json.append("  \"entityCount\": ").append(entities.size()).append(",\n");
+        json.append("  \"generatedBytes\": ").append(generatedBytes).append(",\n");
+        json.append("  \"phases\": [");
+        StartupPhase[] phases = StartupPhase.values();
+        for (int i = 0; i < phases.length; i++) {
+            int index = phases[i].ordinal();
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("    {\"phase\": \"").append(phases[i].getLabel()).append('"');
+            if (wallNanos[index] > 0) {
+                json.append(", \"wallMillis\": ").append(format(wallNanos[index] / NANOS_PER_MILLI));
+            }
+            json.append(", \"entityMillis\": ").append(format(entityNanos[index] / NANOS_PER_MILLI));
+            json.append(", \"entities\": ").append(entityCounts[index]).append('}');
+        }
+        json.append("\n  ],\n");
+        json.append("  \"slowest\": [");
+        List<EntityTiming> slowest = new ArrayList<>(entities.values());
+        slowest.sort(Comparator.comparingLong(EntityTiming::totalNanos).reversed());
+        for (int i = 0; i < Math.min(top, slowest.size()); i++) {
+            EntityTiming timing = slowest.get(i);
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("    {\"entity\": \"").append(escape(timing.entity)).append('"');
+            if (timing.source != null) {
+                json.append(", \"source\": \"").append(escape(timing.source)).append('"');
+            }
+            json.append(", \"totalMillis\": ").append(format(timing.totalNanos() / NANOS_PER_MILLI));
+            for (StartupPhase phase : phases) {
+                json.append(", \"").append(phase.getLabel()).append("Millis\": ")
+                        .append(format(timing.nanos[phase.ordinal()] / NANOS_PER_MILLI));
+            }
+            json.append(", \"bytes\": ").append(timing.bytes).append('}');
+        }
+        json.append(slowest.isEmpty() ? "]\n" : "\n  ]\n");
+        return json.append("}\n").toString();
+    }
+
+    /**
+     * 写入JSON文件，目录不存在时创建
+     *
+     * @param file 文件
+     * @param top  列出耗时最长的实体数
+     * @throws IOException 写入失败
+     */
+    public void write(Path file, int top) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(file, toJson(top).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.3f", millis);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static class EntityTiming {
+
+        private final String entity;
+
+        private final long[] nanos = new long[StartupPhase.values().length];
+
+        private String source;
+
+        private long bytes;
+
+        EntityTiming(String entity) {
+            this.entity = entity;
+        }
+
+        long totalNanos() {
+            long total = 0;
+            for (long phaseNanos : nanos) {
+                total += phaseNanos;
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.wrsdye.core.instrument;
+
+import org.springframework.util.ClassUtils;
+
+/**
+ * @author wangrx
+ * @description 一个启动步骤的计时，开始时创建，结束时写入启动报告并提交JFR事件
+ * @date 2026/10/20 下午2:10
+ */
+public class StartupStep {
+
+    private static final boolean JFR_PRESENT = ClassUtils.isPresent("jdk.jfr.Event", StartupStep.class.getClassLoader());
+
+    private final StartupReport report;
+
+    private final StartupPhase phase;
+
+    /**
+     * 实体类名，为null时表示整个阶段
+     */
+    private final String entity;
+
+    private final long start;
+
+    /**
+     * JFR事件，运行时没有jdk.jfr时为null
+     */
+    private final Object event;
+
+    private String source;
+
+    StartupStep(StartupReport report, StartupPhase phase, String entity) {
+        this.report = report;
+        this.phase = phase;
+        this.entity = entity;
+        this.event = JFR_PRESENT ? Jfr.begin() : null;
+        //首个事件会触发JFR注册事件类，不计入步骤耗时
+        this.start = System.nanoTime();
+    }
+
+    /**
+     * 设置mapper来源，如javassist、cache、index
+     *
+     * @param source 来源
+     * @return 当前步骤
+     */
+    public StartupStep source(String source) {
+        this.source = source;
+        return this;
+    }
+
+    /**
+     * 结束步骤
+     */
+    public void end() {
+        end(0);
+    }
+
+    /**
+     * 结束步骤
+     *
+     * @param bytes 生成的字节码大小
+     */
+    public void end(long bytes) {
+        report.record(phase, entity, source, System.nanoTime() - start, bytes);
+        if (event != null) {
+            Jfr.commit(event, phase, entity, source, bytes);
+        }
+    }
+
+    /**
+     * 隔离jdk.jfr的类引用，运行时没有jdk.jfr时不加载
+     */
+    private static class Jfr {
+
+        static Object begin() {
+            MapperStartupEvent event = new MapperStartupEvent();
+            event.begin();
+            return event;
+        }
+
+        static void commit(Object startupEvent, StartupPhase phase, String entity, String source, long bytes) {
+            MapperStartupEvent event = (MapperStartupEvent) startupEvent;
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase.getLabel();
+                event.entity = entity;
+                event.source = source;
+                event.bytes = bytes;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.wrsdye.core.metadata;
+
+import com.baomidou.mybatisplus.core.toolkit.Assert;
+import com.baomidou.mybatisplus.core.toolkit.ExceptionUtils;
+import com.baomidou.mybatisplus.core.toolkit.ReflectionKit;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * @author wangrx
+ * @description 实体属性访问器，每个实体类生成一次，批量操作热路径替代ReflectionKit.getFieldValue
+ * <p>有public getter/setter时通过LambdaMetafactory生成直接调用，与mybatis绑定参数时读取的值一致；
+ * 否则退化为字段的MethodHandle</p>
+ * @date 2026/10/19 下午2:10
+ */
+public final class EntityAccessor {
+
+    private static final ConcurrentMap<Class<?>, EntityAccessor> ACCESSORS = new ConcurrentHashMap<>();
+
+    private final Class<?> entityClass;
+
+    private final Map<String, Function<Object, Object>> getters;
+
+    private final Map<String, BiConsumer<Object, Object>> setters;
+
+    private EntityAccessor(Class<?> entityClass) {
+        this.entityClass = entityClass;
+        Map<String, Function<Object, Object>> getterMap = new HashMap<>();
+        Map<String, BiConsumer<Object, Object>> setterMap = new HashMap<>();
+        //LambdaMetafactory生成的类由本类的类加载器解析，实体类对其不可见时（如devtools重启加载器）只能用MethodHandle
+        boolean lambda = ClassUtils.isVisible(entityClass, EntityAccessor.class.getClassLoader());
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Field field : ReflectionKit.getFieldList(entityClass)) {
+            try {
+                getterMap.put(field.getName(), getter(lookup, field, lambda));
+                if (!Modifier.isFinal(field.getModifiers())) {
+                    setterMap.put(field.getName(), setter(lookup, field, lambda));
+                }
+            } catch (Throwable e) {
+                throw ExceptionUtils.mpe("can not build accessor for %s.%s", e, entityClass.getName(), field.getName());
+            }
+        }
+        this.getters = Collections.unmodifiableMap(getterMap);
+        this.setters = Collections.unmodifiableMap(setterMap);
+    }
+
+    /**
+     * 获取实体类的访问器，每个实体类只生成一次
+     *
+     * @param entityClass 实体类
+     * @return 访问器
+     */
+    public static EntityAccessor of(Class<?> entityClass) {
+        EntityAccessor accessor = ACCESSORS.get(entityClass);
+        if (accessor != null) {
+            return accessor;
+        }
+        return ACCESSORS.computeIfAbsent(entityClass, EntityAccessor::new);
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * 获取属性的读取方法，热路径应持有返回值而不是每行查找
+     *
+     * @param property 属性名
+     * @return 读取方法
+     */
+    public Function<Object, Object> getter(String property) {
+        Function<Object, Object> getter = getters.get(property);
+        Assert.notNull(getter, "Error: NoSuchField in %s for %s.", entityClass.getSimpleName(), property);
+        return getter;
+    }
+
+    /**
+     * 获取属性的写入方法
+     *
+     * @param property 属性名
+     * @return 写入方法
+     */
+    public BiConsumer<Object, Object> setter(String property) {
+        BiConsumer<Object, Object> setter = setters.get(property);
+        Assert.notNull(setter, "Error: NoSuchField in %s for %s.", entityClass.getSimpleName(), property);
+        return setter;
+    }
+
+    /**
+     * 读取属性值
+     *
+     * @param entity   实体
+     * @param property 属性名
+     * @return 属性值
+     */
+    public Object get(Object entity, String property) {
+        return getter(property).apply(entity);
+    }
+
+    /**
+     * 写入属性值
+     *
+     * @param entity   实体
+     * @param property 属性名
+     * @param value    属性值
+     */
+    public void set(Object entity, String property, Object value) {
+        setter(property).accept(entity, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(MethodHandles.Lookup lookup, Field field, boolean lambda) throws Throwable {
+        Method method = publicMethod(field.getDeclaringClass(), getterName(field));
+        if (lambda && method != null && method.getParameterCount() == 0 && method.getReturnType() == field.getType()) {
+            MethodHandle target = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class), target,
+                    MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(field.getType()), field.getDeclaringClass()));
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        }
+        field.setAccessible(true);
+        MethodHandle handle = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+        return entity -> {
+            try {
+                return handle.invokeExact(entity);
+            } catch (Throwable e) {
+                throw ExceptionUtils.mpe("Error: Cannot read field in %s.  Cause:", e, entity.getClass().getSimpleName());
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(MethodHandles.Lookup lookup, Field field, boolean lambda) throws Throwable {
+        Method method = publicMethod(field.getDeclaringClass(), "set" + StringUtils.capitalize(field.getName()), field.getType());
+        if (lambda && method != null) {
+            MethodHandle target = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class), target,
+                    MethodType.methodType(void.class, field.getDeclaringClass(), ClassUtils.resolvePrimitiveIfNecessary(field.getType())));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        }
+        field.setAccessible(true);
+        MethodHandle handle = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (entity, value) -> {
+            try {
+                handle.invokeExact(entity, value);
+            } catch (Throwable e) {
+                throw ExceptionUtils.mpe("Error: Cannot write field in %s.  Cause:", e, entity.getClass().getSimpleName());
+            }
+        };
+    }
+
+    private static String getterName(Field field) {
+        return (field.getType() == boolean.class ? "is" : "get") + StringUtils.capitalize(field.getName());
+    }
+
+    private static Method publicMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+        if (!Modifier.isPublic(clazz.getModifiers())) {
+            return null;
+        }
+        try {
+            Method method = clazz.getMethod(name, parameterTypes);
+            return Modifier.isStatic(method.getModifiers()) ? null : method;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
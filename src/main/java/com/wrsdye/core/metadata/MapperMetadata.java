@@ -0,0 +1,328 @@
+package com.wrsdye.core.metadata;
+
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.Assert;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.core.toolkit.StringPool;
+import com.wrsdye.core.CommonBaseMapper;
+import com.wrsdye.core.annotation.AdaptiveBatchSize;
+import com.wrsdye.core.annotation.BuildMapper;
+import com.wrsdye.core.annotation.InsertMode;
+import com.wrsdye.core.annotation.SaveOrUpdateMode;
+import com.wrsdye.core.batch.AdaptiveBatchSizer;
+import com.wrsdye.core.cache.EntityCache;
+import com.wrsdye.core.dialect.SqlDialect;
+import com.wrsdye.core.dirty.DirtyTracker;
+import com.wrsdye.core.injector.ExtensionMethod;
+import com.wrsdye.core.injector.ExtensionSqlInjector;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * @author wangrx
+ * @description mapper元数据，注册mapper时一次性生成，批量操作热路径只做查表
+ * @date 2026/10/18 上午10:05
+ */
+public class MapperMetadata {
+
+    private final Class<?> entityClass;
+
+    private final Class<?> mapperInterface;
+
+    private final Map<SqlMethod, String> sqlStatements;
+
+    private final Map<ExtensionMethod, String> extensionStatements;
+
+    /**
+     * 实体上的@BuildMapper，手写mapper的实体可能没有
+     */
+    private final BuildMapper buildMapper;
+
+    /**
+     * 实体上的@AdaptiveBatchSize，没有时批量写入使用固定批次大小
+     */
+    private final AdaptiveBatchSize adaptiveBatchSize;
+
+    private volatile boolean extensionInjected;
+
+    private volatile boolean dialectExtensionInjected;
+
+    /**
+     * TableInfo在mybatis-plus解析mapper后才存在，首次使用时再取
+     */
+    private volatile TableInfo tableInfo;
+
+    /**
+     * 延迟初始化的mapper注册的初始化方法，TableInfo不存在时调用
+     */
+    private volatile Runnable initializer;
+
+    /**
+     * 实体缓存，主键类型取自TableInfo，首次使用时创建
+     */
+    private volatile EntityCache entityCache;
+
+    /**
+     * 实体快照，首次使用时创建
+     */
+    private volatile DirtyTracker dirtyTracker;
+
+    /**
+     * 主键读取方法，首次使用时生成
+     */
+    private volatile Function<Object, Object> idGetter;
+
+    /**
+     * 学习到的分片行数，首次使用时创建
+     */
+    private volatile AdaptiveBatchSizer batchSizer;
+
+    MapperMetadata(Class<?> entityClass, Class<?> mapperInterface) {
+        this.entityClass = entityClass;
+        this.mapperInterface = mapperInterface;
+        Map<SqlMethod, String> statements = new EnumMap<>(SqlMethod.class);
+        for (SqlMethod sqlMethod : SqlMethod.values()) {
+            statements.put(sqlMethod, mapperInterface.getName() + StringPool.DOT + sqlMethod.getMethod());
+        }
+        this.sqlStatements = Collections.unmodifiableMap(statements);
+        Map<ExtensionMethod, String> extensions = new EnumMap<>(ExtensionMethod.class);
+        for (ExtensionMethod extensionMethod : ExtensionMethod.values()) {
+            extensions.put(extensionMethod, mapperInterface.getName() + StringPool.DOT + extensionMethod.getMethod());
+        }
+        this.extensionStatements = Collections.unmodifiableMap(extensions);
+        this.buildMapper = entityClass.getAnnotation(BuildMapper.class);
+        this.adaptiveBatchSize = entityClass.getAnnotation(AdaptiveBatchSize.class);
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    public Class<?> getMapperInterface() {
+        return mapperInterface;
+    }
+
+    /**
+     * 获取mapperStatementId
+     *
+     * @param sqlMethod 方法名
+     * @return 命名id
+     */
+    public String getSqlStatement(SqlMethod sqlMethod) {
+        return sqlStatements.get(sqlMethod);
+    }
+
+    /**
+     * 获取扩展方法的mapperStatementId，首次使用时确保已注入
+     *
+     * @param extensionMethod 扩展方法
+     * @return 命名id
+     */
+    public String getSqlStatement(ExtensionMethod extensionMethod) {
+        if (!extensionInjected) {
+            //CommonMapperFactoryBean创建mapper时已注入，这里兜底手写继承CommonBaseMapper的mapper
+            ExtensionSqlInjector.inject(getTableInfo().getConfiguration(), mapperInterface, entityClass);
+            extensionInjected = true;
+        }
+        if (extensionMethod.isDialectSpecific() && !dialectExtensionInjected) {
+            SqlDialect dialect = SqlDialect.of(GlobalConfigUtils.currentSessionFactory(entityClass));
+            ExtensionSqlInjector.inject(getTableInfo().getConfiguration(), mapperInterface, entityClass, dialect);
+            dialectExtensionInjected = true;
+        }
+        return extensionStatements.get(extensionMethod);
+    }
+
+    void markExtensionInjected() {
+        extensionInjected = true;
+    }
+
+    void setInitializer(Runnable initializer) {
+        this.initializer = initializer;
+    }
+
+    /**
+     * saveBatch默认的插入方式
+     *
+     * @return 插入方式
+     */
+    public InsertMode getInsertMode() {
+        return buildMapper == null ? InsertMode.BATCH : buildMapper.insertMode();
+    }
+
+    /**
+     * saveOrUpdateBatch默认的执行方式
+     *
+     * @return 执行方式
+     */
+    public SaveOrUpdateMode getSaveOrUpdateMode() {
+        return buildMapper == null ? SaveOrUpdateMode.QUERY : buildMapper.saveOrUpdateMode();
+    }
+
+    /**
+     * 是否开启了实体缓存
+     *
+     * @return 开启返回true
+     */
+    public boolean isEntityCacheEnabled() {
+        return buildMapper != null && buildMapper.cacheMaximumSize() > 0;
+    }
+
+    /**
+     * 实体缓存写入后的过期秒数
+     *
+     * @return 秒数，未开启实体缓存时返回0
+     */
+    public long getEntityCacheExpireSeconds() {
+        return isEntityCacheEnabled() ? buildMapper.cacheExpireSeconds() : 0;
+    }
+
+    /**
+     * 获取实体缓存
+     *
+     * @return 实体缓存，未开启时返回null
+     */
+    public EntityCache getEntityCache() {
+        if (!isEntityCacheEnabled()) {
+            return null;
+        }
+        EntityCache cache = entityCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = entityCache;
+                if (cache == null) {
+                    cache = new EntityCache(getTableInfo(), buildMapper.cacheMaximumSize(), buildMapper.cacheExpireSeconds());
+                    entityCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * 是否开启了实体快照
+     *
+     * @return 开启返回true
+     */
+    public boolean isDirtyTracking() {
+        return buildMapper != null && buildMapper.dirtyTracking();
+    }
+
+    /**
+     * 获取实体快照
+     *
+     * @return 快照，未开启时返回null
+     */
+    public DirtyTracker getDirtyTracker() {
+        if (!isDirtyTracking()) {
+            return null;
+        }
+        DirtyTracker tracker = dirtyTracker;
+        if (tracker == null) {
+            synchronized (this) {
+                tracker = dirtyTracker;
+                if (tracker == null) {
+                    tracker = new DirtyTracker(getTableInfo());
+                    dirtyTracker = tracker;
+                }
+            }
+        }
+        return tracker;
+    }
+
+    /**
+     * 未指定batchSize的批量写入是否自适应调整分片行数
+     *
+     * @return 实体上有@AdaptiveBatchSize时返回true
+     */
+    public boolean isAdaptiveBatchSize() {
+        return adaptiveBatchSize != null;
+    }
+
+    /**
+     * 获取分片行数调整器，没有@AdaptiveBatchSize时使用注解默认范围，分片字节数不超过方言单条语句上限
+     *
+     * @return 调整器
+     */
+    public AdaptiveBatchSizer getBatchSizer() {
+        AdaptiveBatchSizer sizer = batchSizer;
+        if (sizer == null) {
+            synchronized (this) {
+                sizer = batchSizer;
+                if (sizer == null) {
+                    AdaptiveBatchSize bounds = adaptiveBatchSize == null ? DefaultBounds.class.getAnnotation(AdaptiveBatchSize.class) : adaptiveBatchSize;
+                    SqlDialect dialect = SqlDialect.of(GlobalConfigUtils.currentSessionFactory(entityClass));
+                    sizer = new AdaptiveBatchSizer(bounds.min(), bounds.max(), bounds.targetFlushMillis(),
+                            dialect.getMaxPacketBytes(), CommonBaseMapper.DEFAULT_BATCH_SIZE);
+                    batchSizer = sizer;
+                }
+            }
+        }
+        return sizer;
+    }
+
+    /**
+     * 获取TableInfo
+     *
+     * @return TableInfo 对象表信息
+     */
+    public TableInfo getTableInfo() {
+        TableInfo info = tableInfo;
+        if (info == null) {
+            info = TableInfoHelper.getTableInfo(entityClass);
+            if (info == null && initializer != null) {
+                initializer.run();
+                info = TableInfoHelper.getTableInfo(entityClass);
+            }
+            Assert.notNull(info, "error: can not execute. because can not find cache of TableInfo for entity!");
+            tableInfo = info;
+        }
+        return info;
+    }
+
+    /**
+     * 获取实体属性访问器
+     *
+     * @return 访问器
+     */
+    public EntityAccessor getEntityAccessor() {
+        return EntityAccessor.of(entityClass);
+    }
+
+    /**
+     * 读取实体主键值，不经过反射
+     *
+     * @param entity 实体
+     * @return 主键值
+     */
+    public Object getIdValue(Object entity) {
+        Function<Object, Object> getter = idGetter;
+        if (getter == null) {
+            getter = getEntityAccessor().getter(getKeyProperty());
+            idGetter = getter;
+        }
+        return getter.apply(entity);
+    }
+
+    /**
+     * 获取主键属性名
+     *
+     * @return 主键属性名
+     */
+    public String getKeyProperty() {
+        String keyProperty = getTableInfo().getKeyProperty();
+        Assert.notEmpty(keyProperty, "error: can not execute. because can not find column for id from entity!");
+        return keyProperty;
+    }
+
+    /**
+     * 提供@AdaptiveBatchSize的默认值
+     */
+    @AdaptiveBatchSize
+    private static final class DefaultBounds {
+    }
+}
@@ -0,0 +1,171 @@
+package com.wrsdye.core.metadata;
+
+import com.baomidou.mybatisplus.core.toolkit.ExceptionUtils;
+import com.wrsdye.core.CommonBaseMapper;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @author wangrx
+ * @description mapper元数据注册中心，线程安全
+ * @date 2026/10/18 上午10:12
+ */
+public final class MapperMetadataRegistry {
+
+    /**
+     * mapper接口 -> 元数据
+     */
+    private static final ConcurrentMap<Class<?>, MapperMetadata> MAPPER_METADATA = new ConcurrentHashMap<>();
+
+    /**
+     * 实体类 -> 元数据
+     */
+    private static final ConcurrentMap<Class<?>, MapperMetadata> ENTITY_METADATA = new ConcurrentHashMap<>();
+
+    /**
+     * mapper代理类 -> 元数据
+     */
+    private static final ConcurrentMap<Class<?>, MapperMetadata> PROXY_METADATA = new ConcurrentHashMap<>();
+
+    /**
+     * mapper全类名(即statement命名空间) -> 元数据
+     */
+    private static final ConcurrentMap<String, MapperMetadata> NAME_METADATA = new ConcurrentHashMap<>();
+
+    private MapperMetadataRegistry() {
+    }
+
+    /**
+     * 注册mapper元数据
+     *
+     * @param entityClass     实体类
+     * @param mapperInterface mapper接口
+     * @return 元数据
+     */
+    public static MapperMetadata register(Class<?> entityClass, Class<?> mapperInterface) {
+        MapperMetadata metadata = MAPPER_METADATA.computeIfAbsent(mapperInterface, m -> new MapperMetadata(entityClass, m));
+        ENTITY_METADATA.putIfAbsent(entityClass, metadata);
+        NAME_METADATA.putIfAbsent(mapperInterface.getName(), metadata);
+        return metadata;
+    }
+
+    /**
+     * 标记mapper的扩展方法已注入
+     *
+     * @param mapperInterface mapper接口
+     */
+    public static void markExtensionInjected(Class<?> mapperInterface) {
+        MapperMetadata metadata = MAPPER_METADATA.get(mapperInterface);
+        if (metadata != null) {
+            metadata.markExtensionInjected();
+        }
+    }
+
+    /**
+     * 设置延迟初始化mapper的初始化方法
+     *
+     * @param mapperInterface mapper接口
+     * @param initializer     初始化方法
+     */
+    public static void setInitializer(Class<?> mapperInterface, Runnable initializer) {
+        MapperMetadata metadata = MAPPER_METADATA.get(mapperInterface);
+        if (metadata != null) {
+            metadata.setInitializer(initializer);
+        }
+    }
+
+    /**
+     * 根据mapper接口获取元数据
+     *
+     * @param mapperInterface mapper接口
+     * @return 元数据，未注册时返回null
+     */
+    public static MapperMetadata getByMapper(Class<?> mapperInterface) {
+        return MAPPER_METADATA.get(mapperInterface);
+    }
+
+    /**
+     * 根据mapper全类名获取元数据
+     *
+     * @param mapperName mapper全类名
+     * @return 元数据，未注册时返回null
+     */
+    public static MapperMetadata getByMapperName(String mapperName) {
+        return NAME_METADATA.get(mapperName);
+    }
+
+    /**
+     * 根据实体类获取元数据
+     *
+     * @param entityClass 实体类
+     * @return 元数据，未注册时返回null
+     */
+    public static MapperMetadata getByEntity(Class<?> entityClass) {
+        return ENTITY_METADATA.get(entityClass);
+    }
+
+    /**
+     * 全部已注册的元数据
+     *
+     * @return 元数据集合
+     */
+    public static Collection<MapperMetadata> all() {
+        return Collections.unmodifiableCollection(MAPPER_METADATA.values());
+    }
+
+    /**
+     * 根据mapper代理对象获取元数据，命中后无反射
+     *
+     * @param mapperProxy mapper代理对象
+     * @return 元数据
+     */
+    public static MapperMetadata resolve(Object mapperProxy) {
+        Class<?> proxyClass = mapperProxy.getClass();
+        MapperMetadata metadata = PROXY_METADATA.get(proxyClass);
+        if (metadata != null) {
+            return metadata;
+        }
+        return PROXY_METADATA.computeIfAbsent(proxyClass, MapperMetadataRegistry::resolveProxyClass);
+    }
+
+    private static MapperMetadata resolveProxyClass(Class<?> proxyClass) {
+        for (Class<?> mapperInterface : proxyClass.getInterfaces()) {
+            if (!CommonBaseMapper.class.isAssignableFrom(mapperInterface)) {
+                continue;
+            }
+            MapperMetadata metadata = MAPPER_METADATA.get(mapperInterface);
+            if (metadata != null) {
+                return metadata;
+            }
+            // 非MapperLoadHandler生成的mapper（手写继承CommonBaseMapper），按泛型解析后补注册
+            Class<?> entityClass = resolveEntityClass(mapperInterface);
+            if (entityClass != null) {
+                return register(entityClass, mapperInterface);
+            }
+        }
+        throw ExceptionUtils.mpe("can not resolve mapper metadata for proxy class %s", proxyClass.getName());
+    }
+
+    private static Class<?> resolveEntityClass(Class<?> mapperInterface) {
+        for (Type type : mapperInterface.getGenericInterfaces()) {
+            if (type instanceof ParameterizedType) {
+                ParameterizedType parameterizedType = (ParameterizedType) type;
+                Type argument = parameterizedType.getActualTypeArguments()[0];
+                if (CommonBaseMapper.class.equals(parameterizedType.getRawType()) && argument instanceof Class) {
+                    return (Class<?>) argument;
+                }
+            } else if (type instanceof Class && CommonBaseMapper.class.isAssignableFrom((Class<?>) type)) {
+                Class<?> entityClass = resolveEntityClass((Class<?>) type);
+                if (entityClass != null) {
+                    return entityClass;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,230 @@
+package com.wrsdye.core.page;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.Assert;
+import com.baomidou.mybatisplus.core.toolkit.ExceptionUtils;
+import com.baomidou.mybatisplus.core.toolkit.LambdaUtils;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.wrsdye.core.dialect.SqlDialect;
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.utils.MapperSqlHelper;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * @author wangrx
+ * @description 键集分页 WHERE key > lastSeen ORDER BY key LIMIT n，翻到多深每页都只读n行
+ * <p>按页惰性查询，默认使用主键，也可指定其他不为null的列；每次遍历都从头开始</p>
+ * <p>非主键列可能重复，以主键作为第二排序键：WHERE key > ? OR (key = ? AND pk > ?) ORDER BY key, pk，重复值跨页时不丢行</p>
+ * @date 2026/10/18 下午8:30
+ */
+public class KeysetPager<T> implements Iterable<List<T>> {
+
+    private final BaseMapper<T> mapper;
+
+    private final MapperMetadata metadata;
+
+    private final int pageSize;
+
+    private String keyColumn;
+
+    private String keyProperty;
+
+    /**
+     * 分页列不是主键时的第二排序键，为null时只按分页列排序
+     */
+    private String tieBreakerColumn;
+
+    private String tieBreakerProperty;
+
+    private Consumer<QueryWrapper<T>> condition;
+
+    private Executor prefetchExecutor;
+
+    public KeysetPager(BaseMapper<T> mapper, MapperMetadata metadata, int pageSize) {
+        Assert.isFalse(pageSize < 1, "pageSize must not be less than one");
+        this.mapper = mapper;
+        this.metadata = metadata;
+        this.pageSize = pageSize;
+        TableInfo tableInfo = metadata.getTableInfo();
+        this.keyColumn = tableInfo.getKeyColumn();
+        this.keyProperty = tableInfo.getKeyProperty();
+    }
+
+    /**
+     * 指定分页列，默认为主键
+     *
+     * @param column 不为null的列，可以重复
+     * @return this
+     */
+    public KeysetPager<T> key(SFunction<T, ?> column) {
+        return key(PropertyNamer.methodToProperty(LambdaUtils.resolve(column).getImplMethodName()));
+    }
+
+    /**
+     * 指定分页列，默认为主键
+     *
+     * @param property 不为null的列对应的属性名，列可以重复，重复时按主键排序
+     * @return this
+     */
+    public KeysetPager<T> key(String property) {
+        TableInfo tableInfo = metadata.getTableInfo();
+        if (property.equals(tableInfo.getKeyProperty())) {
+            this.keyColumn = tableInfo.getKeyColumn();
+            this.keyProperty = property;
+            this.tieBreakerColumn = null;
+            this.tieBreakerProperty = null;
+            return this;
+        }
+        for (TableFieldInfo fieldInfo : tableInfo.getFieldList()) {
+            if (fieldInfo.getProperty().equals(property)) {
+                Assert.notEmpty(tableInfo.getKeyColumn(), "error: entity [%s] has no primary key to break ties of keyset column [%s]!",
+                        tableInfo.getEntityType().getName(), fieldInfo.getColumn());
+                this.keyColumn = fieldInfo.getColumn();
+                this.keyProperty = property;
+                this.tieBreakerColumn = tableInfo.getKeyColumn();
+                this.tieBreakerProperty = tableInfo.getKeyProperty();
+                return this;
+            }
+        }
+        throw ExceptionUtils.mpe("can not find column for property [%s] of entity [%s]", property, tableInfo.getEntityType().getName());
+    }
+
+    /**
+     * 附加查询条件，每页都会以 AND (...) 拼接，只使用其中的条件部分
+     *
+     * @param condition 条件
+     * @return this
+     */
+    public KeysetPager<T> where(Consumer<QueryWrapper<T>> condition) {
+        this.condition = condition;
+        return this;
+    }
+
+    /**
+     * 处理当前页时在后台线程预取下一页
+     * <p>预取在其他线程执行，不在调用方的事务内</p>
+     *
+     * @return this
+     */
+    public KeysetPager<T> prefetch() {
+        return prefetch(PrefetchExecutorHolder.EXECUTOR);
+    }
+
+    /**
+     * 处理当前页时使用指定线程池预取下一页
+     *
+     * @param executor 线程池，为null时不预取
+     * @return this
+     */
+    public KeysetPager<T> prefetch(Executor executor) {
+        this.prefetchExecutor = executor;
+        return this;
+    }
+
+    @Override
+    public Iterator<List<T>> iterator() {
+        Assert.notEmpty(keyColumn, "error: can not execute. because can not find column for keyset from entity!");
+        return new PageIterator(SqlDialect.of(MapperSqlHelper.sqlSessionFactory(metadata.getEntityClass())));
+    }
+
+    private List<T> selectPage(SqlDialect dialect, Object lastKey, Object lastTieBreaker) {
+        QueryWrapper<T> wrapper = new QueryWrapper<>();
+        if (condition != null) {
+            wrapper.nested(condition);
+        }
+        if (tieBreakerColumn == null) {
+            wrapper.gt(lastKey != null, keyColumn, lastKey)
+                    .orderByAsc(keyColumn);
+        } else {
+            wrapper.and(lastKey != null, w -> w.gt(keyColumn, lastKey)
+                    .or(o -> o.eq(keyColumn, lastKey).gt(tieBreakerColumn, lastTieBreaker)))
+                    .orderByAsc(keyColumn, tieBreakerColumn);
+        }
+        return mapper.selectList(wrapper.last(dialect.limit(pageSize)));
+    }
+
+    private class PageIterator implements Iterator<List<T>> {
+
+        private final SqlDialect dialect;
+
+        private Object lastKey;
+
+        private Object lastTieBreaker;
+
+        private List<T> nextPage;
+
+        private CompletableFuture<List<T>> prefetched;
+
+        private boolean finished;
+
+        PageIterator(SqlDialect dialect) {
+            this.dialect = dialect;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextPage == null && !finished) {
+                List<T> page = prefetched != null ? join(prefetched) : selectPage(dialect, lastKey, lastTieBreaker);
+                prefetched = null;
+                if (page.isEmpty()) {
+                    finished = true;
+                    return false;
+                }
+                finished = page.size() < pageSize;
+                T last = page.get(page.size() - 1);
+                lastKey = metadata.getEntityAccessor().get(last, keyProperty);
+                Assert.notNull(lastKey, "error: keyset column [%s] must not be null!", keyColumn);
+                if (tieBreakerProperty != null) {
+                    lastTieBreaker = metadata.getEntityAccessor().get(last, tieBreakerProperty);
+                }
+                if (!finished && prefetchExecutor != null) {
+                    Object key = lastKey;
+                    Object tieBreaker = lastTieBreaker;
+                    prefetched = CompletableFuture.supplyAsync(() -> selectPage(dialect, key, tieBreaker), prefetchExecutor);
+                }
+                nextPage = page;
+            }
+            return nextPage != null;
+        }
+
+        @Override
+        public List<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<T> page = nextPage;
+            nextPage = null;
+            return page;
+        }
+
+        private List<T> join(CompletableFuture<List<T>> future) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+    }
+
+    /**
+     * 默认预取线程池，首次使用时创建，守护线程不阻止进程退出
+     */
+    private static class PrefetchExecutorHolder {
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("keyset-prefetch-%d").setDaemon(true).build());
+    }
+}
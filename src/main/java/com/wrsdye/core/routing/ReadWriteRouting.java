@@ -0,0 +1,89 @@
+package com.wrsdye.core.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * @author wangrx
+ * @description 当前线程的读写路由控制：写入后固定到主库（read-your-writes），或显式指定走主库
+ * <p>线程池复用线程时，可在请求结束时调用unpin清除固定</p>
+ * @date 2026/10/20 下午4:15
+ */
+public final class ReadWriteRouting {
+
+    /**
+     * 固定到主库的截止时间
+     */
+    private static final ThreadLocal<Long> PINNED_UNTIL = new ThreadLocal<>();
+
+    /**
+     * primary的嵌套层数
+     */
+    private static final ThreadLocal<Integer> PRIMARY_DEPTH = new ThreadLocal<>();
+
+    private ReadWriteRouting() {
+    }
+
+    /**
+     * 当前线程在指定时长内的读请求走主库，已固定时取较晚的截止时间
+     *
+     * @param millis 时长
+     */
+    public static void pin(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        long until = System.currentTimeMillis() + millis;
+        Long current = PINNED_UNTIL.get();
+        if (current == null || current < until) {
+            PINNED_UNTIL.set(until);
+        }
+    }
+
+    /**
+     * 清除当前线程的固定
+     */
+    public static void unpin() {
+        PINNED_UNTIL.remove();
+    }
+
+    /**
+     * 当前线程的读请求是否走主库
+     *
+     * @return 已固定或在primary内时返回true
+     */
+    public static boolean isPinned() {
+        if (PRIMARY_DEPTH.get() != null) {
+            return true;
+        }
+        Long until = PINNED_UNTIL.get();
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        PINNED_UNTIL.remove();
+        return false;
+    }
+
+    /**
+     * 在主库执行，其中的读请求不路由到从库
+     *
+     * @param supplier 执行内容
+     * @param <T>      T
+     * @return 执行结果
+     */
+    public static <T> T primary(Supplier<T> supplier) {
+        Integer depth = PRIMARY_DEPTH.get();
+        PRIMARY_DEPTH.set(depth == null ? 1 : depth + 1);
+        try {
+            return supplier.get();
+        } finally {
+            if (depth == null) {
+                PRIMARY_DEPTH.remove();
+            } else {
+                PRIMARY_DEPTH.set(depth);
+            }
+        }
+    }
+}
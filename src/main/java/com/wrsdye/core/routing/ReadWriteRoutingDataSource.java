@@ -0,0 +1,281 @@
+package com.wrsdye.core.routing;
+
+import com.baomidou.mybatisplus.core.toolkit.Assert;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author wangrx
+ * @description 读写分离数据源，默认返回主库连接；ReadWriteRoutingInterceptor判定可路由的查询期间返回从库连接
+ * <p>从库获取连接失败时改用主库，连续失败达到阈值的从库暂停使用一段时间</p>
+ * @date 2026/10/20 下午4:20
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private static final double NANOS_PER_MILLI = 1_000_000D;
+
+    private static final String CLOSE = "close";
+
+    /**
+     * 当前线程正在路由的查询
+     */
+    private static final ThreadLocal<RouteContext> ROUTE = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final ReadWriteRoutingOptions options;
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+        this(primary, replicas, ReadWriteRoutingOptions.defaults());
+    }
+
+    /**
+     * @param primary  主库
+     * @param replicas 从库名称 -> 从库，名称用于统计
+     * @param options  参数
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReadWriteRoutingOptions options) {
+        Assert.notNull(primary, "primary DataSource must not be null");
+        Assert.notNull(options, "options must not be null");
+        this.primary = primary;
+        List<Replica> list = new ArrayList<>();
+        for (Map.Entry<String, DataSource> entry : replicas.entrySet()) {
+            list.add(new Replica(entry.getKey(), entry.getValue()));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+        this.options = options;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        RouteContext context = ROUTE.get();
+        Replica replica = context == null || context.replica != null ? null : choose();
+        if (replica != null) {
+            try {
+                Connection connection = username == null ? replica.dataSource.getConnection() : replica.dataSource.getConnection(username, password);
+                replica.connected();
+                context.replica = replica;
+                return replica.track(connection);
+            } catch (SQLException e) {
+                log.warn("replica [{}] getConnection error, fallback to primary: {}", replica.name, e.getMessage());
+                replica.connectionFailed();
+            }
+        }
+        return username == null ? primary.getConnection() : primary.getConnection(username, password);
+    }
+
+    /**
+     * 获取用于只读查询的连接，未固定到主库时来自从库，不经过mybatis执行器的查询使用
+     * <p>调用方负责关闭；事务同步开启时应使用DataSourceUtils获取事务绑定的连接</p>
+     *
+     * @return 连接
+     * @throws SQLException 获取失败
+     */
+    public Connection getReadConnection() throws SQLException {
+        RouteContext context = ReadWriteRouting.isPinned() ? null : beginRead();
+        if (context == null) {
+            return getConnection();
+        }
+        try {
+            return getConnection();
+        } finally {
+            ROUTE.remove();
+        }
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public ReadWriteRoutingOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * 各从库的状态与统计
+     *
+     * @return 统计快照，顺序与构造时一致
+     */
+    public List<ReplicaStats> getReplicaStats() {
+        List<ReplicaStats> stats = new ArrayList<>(replicas.size());
+        long now = System.currentTimeMillis();
+        for (Replica replica : replicas) {
+            stats.add(replica.stats(now));
+        }
+        return stats;
+    }
+
+    /**
+     * 开始路由一次查询，期间当前线程获取的第一个连接来自从库
+     *
+     * @return 路由上下文，已在路由中时返回null
+     */
+    static RouteContext beginRead() {
+        if (ROUTE.get() != null) {
+            return null;
+        }
+        RouteContext context = new RouteContext();
+        ROUTE.set(context);
+        return context;
+    }
+
+    /**
+     * 结束路由，记录从库查询耗时
+     *
+     * @param context 路由上下文
+     * @param nanos   查询耗时
+     * @param failed  查询是否失败
+     */
+    static void endRead(RouteContext context, long nanos, boolean failed) {
+        ROUTE.remove();
+        if (context.replica != null) {
+            context.replica.queried(nanos, failed);
+        }
+    }
+
+    private Replica choose() {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        int size = replicas.size();
+        int start = Math.floorMod(counter.getAndIncrement(), size);
+        Replica chosen = null;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.isHealthy(now)) {
+                continue;
+            }
+            if (options.getBalancer() == ReplicaBalancer.ROUND_ROBIN) {
+                return replica;
+            }
+            if (chosen == null || replica.inFlight.get() < chosen.inFlight.get()) {
+                chosen = replica;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * 一次路由的查询
+     */
+    static class RouteContext {
+
+        /**
+         * 提供连接的从库，走主库时为null
+         */
+        private Replica replica;
+
+        boolean isRouted() {
+            return replica != null;
+        }
+    }
+
+    private class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicLong queries = new AtomicLong();
+
+        private final AtomicLong errors = new AtomicLong();
+
+        private final AtomicLong connectionFailures = new AtomicLong();
+
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+        private volatile long unhealthyUntil;
+
+        private double averageNanos;
+
+        private long maxNanos;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        boolean isHealthy(long now) {
+            return unhealthyUntil <= now;
+        }
+
+        void connected() {
+            consecutiveFailures.set(0);
+        }
+
+        void connectionFailed() {
+            connectionFailures.incrementAndGet();
+            if (consecutiveFailures.incrementAndGet() >= options.getFailureThreshold()) {
+                consecutiveFailures.set(0);
+                unhealthyUntil = System.currentTimeMillis() + options.getUnhealthyMillis();
+                log.warn("replica [{}] marked unhealthy for {} ms", name, options.getUnhealthyMillis());
+            }
+        }
+
+        synchronized void queried(long nanos, boolean failed) {
+            queries.incrementAndGet();
+            if (failed) {
+                errors.incrementAndGet();
+            }
+            averageNanos = averageNanos == 0 ? nanos : averageNanos + (nanos - averageNanos) * LATENCY_SMOOTHING;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        synchronized ReplicaStats stats(long now) {
+            return new ReplicaStats(name, isHealthy(now), inFlight.get(), queries.get(), errors.get(), connectionFailures.get(),
+                    averageNanos / NANOS_PER_MILLI, maxNanos / NANOS_PER_MILLI);
+        }
+
+        /**
+         * 包装连接，关闭时减少借出数
+         */
+        Connection track(Connection connection) {
+            inFlight.incrementAndGet();
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (CLOSE.equals(method.getName()) && closed.compareAndSet(false, true)) {
+                            inFlight.decrementAndGet();
+                        }
+                        return invoke(connection, method, args);
+                    });
+        }
+
+        private Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
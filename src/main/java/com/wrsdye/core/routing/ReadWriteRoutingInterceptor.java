@@ -0,0 +1,188 @@
+package com.wrsdye.core.routing;
+
+import com.baomidou.mybatisplus.core.toolkit.ExceptionUtils;
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import com.baomidou.mybatisplus.core.toolkit.StringPool;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.CachingExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author wangrx
+ * @description 读写分离拦截器，CommonBaseMapper的查询在事务同步之外、未固定到主库时路由到从库，写入后固定当前线程到主库
+ * <p>BATCH执行器（批量写入中的存在性查询等）与事务内的查询始终走主库</p>
+ * @date 2026/10/20 下午4:40
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class ReadWriteRoutingInterceptor implements Interceptor {
+
+    /**
+     * mybatis配置 -> 拦截器，拦截器同时作为事务资源的key
+     */
+    private static final Map<Configuration, ReadWriteRoutingInterceptor> INTERCEPTORS = new ConcurrentHashMap<>();
+
+    private static final String UPDATE = "update";
+
+    private static final String DELEGATE = "delegate";
+
+    private final ReadWriteRoutingDataSource dataSource;
+
+    /**
+     * 连接来自从库的session事务，之后不能在其上写入
+     */
+    private final Set<Transaction> routedTransactions = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private ReadWriteRoutingInterceptor(ReadWriteRoutingDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * 数据源为ReadWriteRoutingDataSource时注册到mybatis配置，已注册时返回已有的拦截器
+     *
+     * @param configuration mybatis配置
+     * @return 拦截器，不是读写分离数据源时返回null
+     */
+    public static ReadWriteRoutingInterceptor register(Configuration configuration) {
+        ReadWriteRoutingInterceptor interceptor = INTERCEPTORS.get(configuration);
+        if (interceptor != null) {
+            return interceptor;
+        }
+        DataSource environmentDataSource = configuration.getEnvironment().getDataSource();
+        if (!(environmentDataSource instanceof ReadWriteRoutingDataSource)) {
+            return null;
+        }
+        return INTERCEPTORS.computeIfAbsent(configuration, c -> {
+            ReadWriteRoutingInterceptor created = new ReadWriteRoutingInterceptor((ReadWriteRoutingDataSource) environmentDataSource);
+            synchronized (c) {
+                c.addInterceptor(created);
+            }
+            return created;
+        });
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Executor executor = (Executor) invocation.getTarget();
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        if (UPDATE.equals(invocation.getMethod().getName())) {
+            if (routedTransactions.contains(executor.getTransaction())) {
+                throw ExceptionUtils.mpe("can not execute %s on a session whose connection was routed to a replica", ms.getId());
+            }
+            Object result = invocation.proceed();
+            written();
+            return result;
+        }
+        if (!isRoutable(ms, executor)) {
+            return invocation.proceed();
+        }
+        ReadWriteRoutingDataSource.RouteContext context = ReadWriteRoutingDataSource.beginRead();
+        if (context == null) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            if (context.isRouted()) {
+                routedTransactions.add(executor.getTransaction());
+            }
+            ReadWriteRoutingDataSource.endRead(context, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * 是否路由到从库
+     * <p>事务同步开启时连接会绑定到线程并被后续写入复用，因此只路由事务同步之外的查询</p>
+     */
+    private boolean isRoutable(MappedStatement ms, Executor executor) {
+        if (ms.getSqlCommandType() != SqlCommandType.SELECT
+                || TransactionSynchronizationManager.isSynchronizationActive()
+                || ReadWriteRouting.isPinned()) {
+            return false;
+        }
+        String id = ms.getId();
+        if (MapperMetadataRegistry.getByMapperName(id.substring(0, Math.max(id.lastIndexOf(StringPool.DOT), 0))) == null) {
+            return false;
+        }
+        return !(realExecutor(executor) instanceof BatchExecutor);
+    }
+
+    private static Executor realExecutor(Executor executor) {
+        Executor real = PluginUtils.realTarget(executor);
+        while (real instanceof CachingExecutor) {
+            real = PluginUtils.realTarget(SystemMetaObject.forObject(real).getValue(DELEGATE));
+        }
+        return real;
+    }
+
+    /**
+     * 写入后固定到主库，事务内写入时在提交后再固定一次
+     */
+    private void written() {
+        long pinMillis = dataSource.getOptions().getPinMillis();
+        ReadWriteRouting.pin(pinMillis);
+        if (pinMillis > 0 && TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new PinSynchronization(this, pinMillis));
+        }
+    }
+
+    private static class PinSynchronization implements TransactionSynchronization {
+
+        private final ReadWriteRoutingInterceptor key;
+
+        private final long pinMillis;
+
+        PinSynchronization(ReadWriteRoutingInterceptor key, long pinMillis) {
+            this.key = key;
+            this.pinMillis = pinMillis;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(key);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(key, Boolean.TRUE);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(key);
+            if (status == STATUS_COMMITTED) {
+                ReadWriteRouting.pin(pinMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.wrsdye.core.routing;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * @author wangrx
+ * @description 读写分离参数
+ * @date 2026/10/20 下午4:05
+ */
+@Getter
+@Builder(toBuilder = true)
+public class ReadWriteRoutingOptions {
+
+    /**
+     * 从库选择方式
+     */
+    @Builder.Default
+    private final ReplicaBalancer balancer = ReplicaBalancer.ROUND_ROBIN;
+
+    /**
+     * 写入后当前线程的读请求走主库的时长，覆盖主从复制延迟；事务内写入时从事务提交开始计算，0为不固定
+     */
+    @Builder.Default
+    private final long pinMillis = 1000;
+
+    /**
+     * 从库连续获取连接失败达到该次数时标记为不健康
+     */
+    @Builder.Default
+    private final int failureThreshold = 3;
+
+    /**
+     * 不健康的从库暂停使用的时长，之后重新参与选择
+     */
+    @Builder.Default
+    private final long unhealthyMillis = 30000;
+
+    public static ReadWriteRoutingOptions defaults() {
+        return builder().build();
+    }
+}
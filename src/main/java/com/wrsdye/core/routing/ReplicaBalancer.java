@@ -0,0 +1,19 @@
+package com.wrsdye.core.routing;
+
+/**
+ * @author wangrx
+ * @description 从库选择方式
+ * @date 2026/10/20 下午4:00
+ */
+public enum ReplicaBalancer {
+
+    /**
+     * 在健康的从库间轮询
+     */
+    ROUND_ROBIN,
+
+    /**
+     * 选择当前借出连接最少的从库，相同时轮询
+     */
+    LEAST_IN_FLIGHT
+}
@@ -0,0 +1,50 @@
+package com.wrsdye.core.routing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @author wangrx
+ * @description 从库的健康状态与查询统计快照
+ * @date 2026/10/20 下午4:10
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ReplicaStats {
+
+    private final String name;
+
+    private final boolean healthy;
+
+    /**
+     * 当前借出的连接数
+     */
+    private final int inFlight;
+
+    /**
+     * 路由到该从库的查询数
+     */
+    private final long queries;
+
+    /**
+     * 执行失败的查询数
+     */
+    private final long errors;
+
+    /**
+     * 获取连接失败次数，失败时查询改走主库
+     */
+    private final long connectionFailures;
+
+    /**
+     * 查询耗时的指数移动平均
+     */
+    private final double averageLatencyMillis;
+
+    /**
+     * 查询耗时最大值
+     */
+    private final double maxLatencyMillis;
+}
@@ -0,0 +1,115 @@
+package com.wrsdye.core.utils;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * @author wangrx
+ * @description 按调用设置JDBC fetchSize，不修改mybatis配置中的语句
+ * <p>调用方通过{@link #withFetchSize}指定语句id与fetchSize，只在本线程、只对该语句生效，事务内flush等其他语句不受影响</p>
+ * @date 2026/10/20 下午3:40
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class})
+})
+public class FetchSizeInterceptor implements Interceptor {
+
+    /**
+     * mybatis配置 -> 拦截器
+     */
+    private static final Map<Configuration, FetchSizeInterceptor> INTERCEPTORS = new ConcurrentHashMap<>();
+
+    /**
+     * 当前线程的fetchSize提示
+     */
+    private static final ThreadLocal<Hint> HINT = new ThreadLocal<>();
+
+    private static final String MAPPED_STATEMENT = "delegate.mappedStatement";
+
+    /**
+     * 注册到mybatis配置，已注册时返回已有的拦截器
+     * <p>注册前已创建的session不经过拦截器，应在mapper初始化时注册</p>
+     *
+     * @param configuration mybatis配置
+     * @return 拦截器
+     */
+    public static FetchSizeInterceptor register(Configuration configuration) {
+        FetchSizeInterceptor interceptor = INTERCEPTORS.get(configuration);
+        if (interceptor != null) {
+            return interceptor;
+        }
+        return INTERCEPTORS.computeIfAbsent(configuration, c -> {
+            FetchSizeInterceptor created = new FetchSizeInterceptor();
+            synchronized (c) {
+                c.addInterceptor(created);
+            }
+            return created;
+        });
+    }
+
+    /**
+     * 在fetchSize提示下执行，语句在执行期间prepare时设置fetchSize
+     * <p>游标在prepare后才逐批读取，提示只需覆盖打开游标的调用</p>
+     *
+     * @param sqlStatement 语句id
+     * @param fetchSize    JDBC fetchSize
+     * @param action       执行
+     * @param <T>          T
+     * @return 执行结果
+     */
+    public static <T> T withFetchSize(String sqlStatement, int fetchSize, Supplier<T> action) {
+        Hint previous = HINT.get();
+        HINT.set(new Hint(sqlStatement, fetchSize));
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                HINT.remove();
+            } else {
+                HINT.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Statement statement = (Statement) invocation.proceed();
+        Hint hint = HINT.get();
+        if (hint != null) {
+            MetaObject metaObject = SystemMetaObject.forObject(PluginUtils.realTarget(invocation.getTarget()));
+            if (metaObject.hasGetter(MAPPED_STATEMENT)) {
+                MappedStatement ms = (MappedStatement) metaObject.getValue(MAPPED_STATEMENT);
+                if (hint.sqlStatement.equals(ms.getId())) {
+                    statement.setFetchSize(hint.fetchSize);
+                }
+            }
+        }
+        return statement;
+    }
+
+    private static class Hint {
+
+        private final String sqlStatement;
+
+        private final int fetchSize;
+
+        private Hint(String sqlStatement, int fetchSize) {
+            this.sqlStatement = sqlStatement;
+            this.fetchSize = fetchSize;
+        }
+    }
+}
@@ -1,27 +1,99 @@
 package com.wrsdye.core.utils;
 
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
 import com.baomidou.mybatisplus.core.metadata.TableInfo;
 import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import com.baomidou.mybatisplus.core.toolkit.*;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.wrsdye.core.async.MapperAsyncExecutor;
+import com.wrsdye.core.batch.AdaptiveBatchSizer;
+import com.wrsdye.core.batch.BatchOptions;
+import com.wrsdye.core.batch.BatchProgress;
+import com.wrsdye.core.batch.BatchResult;
+import com.wrsdye.core.batch.BatchSessionInterceptor;
+import com.wrsdye.core.batch.ChunkIterator;
+import com.wrsdye.core.batch.ChunkResult;
+import com.wrsdye.core.column.ColumnBatch;
+import com.wrsdye.core.column.ColumnType;
+import com.wrsdye.core.dialect.SqlDialect;
+import com.wrsdye.core.dirty.DirtyTracker;
+import com.wrsdye.core.injector.ExtensionMethod;
+import com.wrsdye.core.injector.methods.InsertMultiRow;
+import com.wrsdye.core.injector.methods.SelectColumns;
+import com.wrsdye.core.injector.methods.UpdateColumnsById;
+import com.wrsdye.core.instrument.BatchRecorder;
+import com.wrsdye.core.instrument.MapperInstrumentation;
+import com.wrsdye.core.metadata.EntityAccessor;
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.routing.ReadWriteRouting;
+import com.wrsdye.core.routing.ReadWriteRoutingDataSource;
 import lombok.SneakyThrows;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.MyBatisExceptionTranslator;
 import org.mybatis.spring.SqlSessionHolder;
 import org.mybatis.spring.SqlSessionUtils;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
 
+import javax.sql.DataSource;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -37,6 +109,51 @@ public class MapperSqlHelper {
 
     public static SqlSessionFactory FACTORY;
 
+    /**
+     * 数据源 -> 事务管理器
+     */
+    private static final Map<DataSource, PlatformTransactionManager> TRANSACTION_MANAGERS = new ConcurrentHashMap<>();
+
+    /**
+     * 没有注册事务管理器时按数据源创建的DataSourceTransactionManager
+     */
+    private static final Map<DataSource, PlatformTransactionManager> FALLBACK_TRANSACTION_MANAGERS = new ConcurrentHashMap<>();
+
+    private static volatile PlatformTransactionManager defaultTransactionManager;
+
+    /**
+     * 监控中的操作名，未指定操作名的批量调用记为executeBatch
+     */
+    public static final String OPERATION_EXECUTE_BATCH = "executeBatch";
+
+    public static final String OPERATION_SAVE_BATCH = "saveBatch";
+
+    public static final String OPERATION_UPDATE_BATCH_BY_ID = "updateBatchById";
+
+    public static final String OPERATION_SAVE_OR_UPDATE_BATCH = "saveOrUpdateBatch";
+
+    public static final String OPERATION_SAVE_BATCH_PARALLEL = "saveBatchParallel";
+
+    public static final String OPERATION_UPDATE_BATCH_BY_ID_PARALLEL = "updateBatchByIdParallel";
+
+    public static final String OPERATION_WRITE_BEHIND = "writeBehind";
+
+    public static final String OPERATION_UNIT_OF_WORK = "unitOfWork";
+
+    public static final String OPERATION_DELETE_BY_IDS = "deleteByIds";
+
+    public static final String OPERATION_UPDATE_BY_IDS = "updateByIds";
+
+    /**
+     * 估算单行字节数时每行的固定开销，括号、逗号等
+     */
+    private static final int ROW_OVERHEAD_BYTES = 8;
+
+    /**
+     * 获取连接池最大连接数的方法，依次为Hikari、Druid/DBCP1/Tomcat、DBCP2
+     */
+    private static final String[] POOL_SIZE_METHODS = {"getMaximumPoolSize", "getMaxActive", "getMaxTotal"};
+
 
     /**
      * 批量操作 SqlSession
@@ -45,7 +162,7 @@ public class MapperSqlHelper {
      * @return SqlSession
      */
     public static SqlSession sqlSessionBatch(Class<?> clazz) {
-        // TODO 暂时让能用先,但日志会显示Closing non transactional SqlSession,因为这个并没有绑定.
+        // 未绑定事务，调用方负责关闭；事务内复用的session见BatchSessionInterceptor.currentSession
         return sqlSessionFactory(clazz).openSession(ExecutorType.BATCH);
     }
 
@@ -137,9 +254,27 @@ public class MapperSqlHelper {
      * @return 操作结果
      * @since 3.4.0
      */
-    @SneakyThrows
     public static boolean executeBatch(Class<?> entityClass, Log log, Consumer<SqlSession> consumer) {
+        return executeBatch(entityClass, OPERATION_EXECUTE_BATCH, log, consumer);
+    }
+
+    /**
+     * 执行批量操作，注册了{@link MapperInstrumentation}时按操作名记录
+     *
+     * @param entityClass 实体
+     * @param operation   操作名
+     * @param log         日志对象
+     * @param consumer    consumer
+     * @return 操作结果
+     */
+    @SneakyThrows
+    public static boolean executeBatch(Class<?> entityClass, String operation, Log log, Consumer<SqlSession> consumer) {
+        BatchRecorder recorder = MapperInstrumentation.start(entityClass, operation);
         SqlSessionFactory sqlSessionFactory = sqlSessionFactory(entityClass);
+        SqlSession transactionSession = BatchSessionInterceptor.currentSession(sqlSessionFactory.getConfiguration());
+        if (transactionSession != null) {
+            return executeTransactionBatch(sqlSessionFactory, transactionSession, recorder, consumer);
+        }
         SqlSessionHolder sqlSessionHolder = (SqlSessionHolder) TransactionSynchronizationManager.getResource(sqlSessionFactory);
         boolean transaction = TransactionSynchronizationManager.isSynchronizationActive();
         if (sqlSessionHolder != null) {
@@ -152,28 +287,76 @@ public class MapperSqlHelper {
         if (!transaction) {
             log.warn("SqlSession [" + sqlSession + "] Transaction not enabled");
         }
+        if (recorder != null) {
+            sqlSession = recorder.wrap(sqlSession);
+        }
         try {
             consumer.accept(sqlSession);
             //非事物情况下，强制commit。
             sqlSession.commit(!transaction);
+            if (recorder != null) {
+                recorder.completed(null);
+            }
             return true;
         } catch (Throwable t) {
             sqlSession.rollback();
-            Throwable unwrapped = ExceptionUtil.unwrapThrowable(t);
-            if (unwrapped instanceof PersistenceException) {
-                MyBatisExceptionTranslator myBatisExceptionTranslator
-                        = new MyBatisExceptionTranslator(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(), true);
-                Throwable throwable = myBatisExceptionTranslator.translateExceptionIfPossible((PersistenceException) unwrapped);
-                if (throwable != null) {
-                    throw throwable;
-                }
+            RuntimeException exception = translateException(sqlSessionFactory, t);
+            if (recorder != null) {
+                recorder.rolledBack(exception);
+                recorder.completed(exception);
             }
-            throw ExceptionUtils.mpe(unwrapped);
+            throw exception;
         } finally {
             sqlSession.close();
         }
     }
 
+    /**
+     * 在事务绑定的BATCH session中执行，session由事务结束时flush并关闭
+     * <p>执行前先flush之前调用未flush的语句，本次调用失败时只撤销本次的语句，不影响之前的调用</p>
+     */
+    private static boolean executeTransactionBatch(SqlSessionFactory sqlSessionFactory, SqlSession transactionSession,
+                                                   BatchRecorder recorder, Consumer<SqlSession> consumer) {
+        SqlSession sqlSession = recorder == null ? transactionSession : recorder.wrap(transactionSession);
+        try {
+            BatchSessionInterceptor.flushPending(sqlSessionFactory.getConfiguration());
+            consumer.accept(sqlSession);
+            if (recorder != null) {
+                recorder.completed(null);
+            }
+            return true;
+        } catch (Throwable t) {
+            //只撤销本次调用未flush的语句，已flush的随事务回滚
+            transactionSession.rollback(true);
+            RuntimeException exception = translateException(sqlSessionFactory, t);
+            if (recorder != null) {
+                recorder.rolledBack(exception);
+                recorder.completed(exception);
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * 转换异常，能识别的PersistenceException转为spring的DataAccessException
+     *
+     * @param sqlSessionFactory SqlSessionFactory
+     * @param t                 异常
+     * @return 转换后的异常
+     */
+    private static RuntimeException translateException(SqlSessionFactory sqlSessionFactory, Throwable t) {
+        Throwable unwrapped = ExceptionUtil.unwrapThrowable(t);
+        if (unwrapped instanceof PersistenceException) {
+            MyBatisExceptionTranslator myBatisExceptionTranslator
+                    = new MyBatisExceptionTranslator(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(), true);
+            RuntimeException exception = myBatisExceptionTranslator.translateExceptionIfPossible((PersistenceException) unwrapped);
+            if (exception != null) {
+                return exception;
+            }
+        }
+        return ExceptionUtils.mpe(unwrapped);
+    }
+
     /**
      * 执行批量操作
      *
@@ -187,8 +370,25 @@ public class MapperSqlHelper {
      * @since 3.4.0
      */
     public static <E> boolean executeBatch(Class<?> entityClass, Log log, Collection<E> list, int batchSize, BiConsumer<SqlSession, E> consumer) {
+        return executeBatch(entityClass, OPERATION_EXECUTE_BATCH, log, list, batchSize, consumer);
+    }
+
+    /**
+     * 执行批量操作，注册了{@link MapperInstrumentation}时按操作名记录
+     *
+     * @param entityClass 实体类
+     * @param operation   操作名
+     * @param log         日志对象
+     * @param list        数据集合
+     * @param batchSize   批次大小
+     * @param consumer    consumer
+     * @param <E>         T
+     * @return 操作结果
+     */
+    public static <E> boolean executeBatch(Class<?> entityClass, String operation, Log log, Collection<E> list, int batchSize,
+                                           BiConsumer<SqlSession, E> consumer) {
         Assert.isFalse(batchSize < 1, "batchSize must not be less than one");
-        return !org.springframework.util.CollectionUtils.isEmpty(list) && executeBatch(entityClass, log, sqlSession -> {
+        return !org.springframework.util.CollectionUtils.isEmpty(list) && executeBatch(entityClass, operation, log, sqlSession -> {
             int size = list.size();
             int i = 1;
             for (E element : list) {
@@ -201,6 +401,262 @@ public class MapperSqlHelper {
         });
     }
 
+    /**
+     * 流式批量操作，数据源只遍历一次，内存中只保留一个分片
+     * <p>分片行数达到batchSize或估算字节数达到maxBatchBytes时执行并flush；commitPerChunk只在没有外部事务时生效</p>
+     * <p>开启adaptive时分片行数取实体学习到的值，每个分片写入后按耗时调整</p>
+     *
+     * @param metadata      mapper元数据
+     * @param operation     操作名
+     * @param log           日志对象
+     * @param iterator      数据源
+     * @param options       批量参数
+     * @param chunkConsumer 分片处理
+     * @param <E>           E
+     * @return 写入行数
+     */
+    public static <E> long executeBatch(MapperMetadata metadata, String operation, Log log, Iterator<E> iterator, BatchOptions options,
+                                        BiConsumer<SqlSession, List<E>> chunkConsumer) {
+        Assert.isFalse(options.getBatchSize() < 1, "batchSize must not be less than one");
+        if (!iterator.hasNext()) {
+            return 0;
+        }
+        long[] totalRows = new long[1];
+        boolean transaction = TransactionSynchronizationManager.isSynchronizationActive();
+        boolean commitPerChunk = options.isCommitPerChunk() && !transaction;
+        if (options.isCommitPerChunk() && transaction) {
+            log.warn("commitPerChunk is ignored because a transaction is active");
+        }
+        AdaptiveBatchSizer sizer = options.isAdaptive() ? metadata.getBatchSizer() : null;
+        TableInfo tableInfo = options.getMaxBatchBytes() > 0 || sizer != null ? metadata.getTableInfo() : null;
+        long start = System.currentTimeMillis();
+        executeBatch(metadata.getEntityClass(), operation, log, sqlSession -> {
+            ChunkIterator<E> chunks = new ChunkIterator<>(iterator, options, tableInfo);
+            int chunkIndex = 0;
+            while (chunks.hasNext()) {
+                if (sizer != null) {
+                    chunks.setBatchSize(sizer.getBatchSize());
+                }
+                List<E> chunk = chunks.next();
+                long nanos = executeChunk(sqlSession, chunkConsumer, chunk, chunkIndex++, chunks.getLastChunkBytes(), totalRows, commitPerChunk, options, start);
+                if (sizer != null) {
+                    sizer.record(chunk.size(), chunkBytes(tableInfo, chunks.getLastChunkBytes(), chunk), nanos);
+                }
+            }
+        });
+        return totalRows[0];
+    }
+
+    /**
+     * 执行一个分片
+     *
+     * @return 生成语句、flush及提交的耗时，纳秒
+     */
+    private static <E> long executeChunk(SqlSession sqlSession, BiConsumer<SqlSession, List<E>> chunkConsumer, List<E> chunk,
+                                         int chunkIndex, long chunkBytes, long[] totalRows, boolean commitPerChunk,
+                                         BatchOptions options, long start) {
+        long begin = System.nanoTime();
+        chunkConsumer.accept(sqlSession, chunk);
+        sqlSession.flushStatements();
+        if (commitPerChunk) {
+            sqlSession.commit(true);
+        }
+        long nanos = System.nanoTime() - begin;
+        totalRows[0] += chunk.size();
+        if (options.getProgressListener() != null) {
+            options.getProgressListener().accept(new BatchProgress(chunkIndex, chunk.size(), chunkBytes, totalRows[0],
+                    commitPerChunk, System.currentTimeMillis() - start));
+        }
+        return nanos;
+    }
+
+    /**
+     * 分片估算字节数，未按字节切分时按首行估算
+     */
+    private static <E> long chunkBytes(TableInfo tableInfo, long countedBytes, List<E> chunk) {
+        return countedBytes > 0 ? countedBytes : estimateRowBytes(tableInfo, chunk.get(0)) * chunk.size();
+    }
+
+    /**
+     * 并行批量操作，数据源切成分片后由多个连接并行写入，每个分片在独立的事务中提交
+     * <p>只能在没有外部事务时使用；分片失败不影响其他分片，失败的分片及原因记录在结果中</p>
+     * <p>读取数据源的线程最多领先写入线程parallelism个分片，内存中的分片数有上限</p>
+     *
+     * @param metadata      mapper元数据
+     * @param operation     操作名
+     * @param log           日志对象
+     * @param iterator      数据源
+     * @param options       批量参数，parallelism为0时按连接池大小计算
+     * @param chunkConsumer 分片处理
+     * @param <E>           E
+     * @return 每个分片的结果
+     */
+    @SneakyThrows
+    public static <E> BatchResult<E> executeParallelBatch(MapperMetadata metadata, String operation, Log log, Iterator<E> iterator, BatchOptions options,
+                                                          BiConsumer<SqlSession, List<E>> chunkConsumer) {
+        Assert.isFalse(options.getBatchSize() < 1, "batchSize must not be less than one");
+        Assert.isFalse(TransactionSynchronizationManager.isActualTransactionActive(),
+                "parallel batch can not join the current transaction, every chunk commits on its own connection");
+        SqlSessionFactory sqlSessionFactory = sqlSessionFactory(metadata.getEntityClass());
+        DataSource dataSource = sqlSessionFactory.getConfiguration().getEnvironment().getDataSource();
+        int parallelism = options.getParallelism() > 0 ? options.getParallelism() : defaultParallelism(dataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager(dataSource));
+        AdaptiveBatchSizer sizer = options.isAdaptive() ? metadata.getBatchSizer() : null;
+        TableInfo tableInfo = options.getMaxBatchBytes() > 0 || sizer != null ? metadata.getTableInfo() : null;
+        ChunkIterator<E> chunks = new ChunkIterator<>(iterator, options, tableInfo);
+        List<ChunkResult<E>> results = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong totalRows = new AtomicLong();
+        //限制已读取但未写入的分片数，数据源读取快于写入时阻塞读取线程
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                new ThreadFactoryBuilder().setNameFormat("batch-writer-%d").setDaemon(true).build());
+        BatchRecorder recorder = MapperInstrumentation.start(metadata.getEntityClass(), operation);
+        long start = System.currentTimeMillis();
+        try {
+            int chunkIndex = 0;
+            while (chunks.hasNext()) {
+                if (sizer != null) {
+                    //写入线程记录的结果在下一个分片生效
+                    chunks.setBatchSize(sizer.getBatchSize());
+                }
+                List<E> chunk = chunks.next();
+                long chunkBytes = chunks.getLastChunkBytes();
+                int index = chunkIndex++;
+                inFlight.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            long begin = System.nanoTime();
+                            ChunkResult<E> result = executeParallelChunk(sqlSessionFactory, transactionTemplate, recorder, chunkConsumer, chunk, index);
+                            results.add(result);
+                            if (result.isSucceeded()) {
+                                if (sizer != null) {
+                                    sizer.record(chunk.size(), chunkBytes(tableInfo, chunkBytes, chunk), System.nanoTime() - begin);
+                                }
+                                long rows = totalRows.addAndGet(chunk.size());
+                                notifyProgress(options, new BatchProgress(index, chunk.size(), chunkBytes, rows, true, System.currentTimeMillis() - start));
+                            } else {
+                                log.warn("parallel batch chunk [" + index + "] failed: " + result.getException().getMessage());
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+        } catch (Throwable t) {
+            if (recorder != null) {
+                recorder.completed(t);
+            }
+            throw t;
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+        BatchResult<E> batchResult = new BatchResult<>(results, System.currentTimeMillis() - start);
+        if (recorder != null) {
+            recorder.completed(batchResult.getFailed().isEmpty() ? null : batchResult.getFailed().get(0).getException());
+        }
+        return batchResult;
+    }
+
+    private static <E> ChunkResult<E> executeParallelChunk(SqlSessionFactory sqlSessionFactory, TransactionTemplate transactionTemplate,
+                                                           BatchRecorder recorder, BiConsumer<SqlSession, List<E>> chunkConsumer,
+                                                           List<E> chunk, int chunkIndex) {
+        long start = System.currentTimeMillis();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                //事务内openSession拿到的是事务绑定的连接，提交由事务管理器完成
+                SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH);
+                try (SqlSession sqlSession = recorder == null ? session : recorder.wrap(session)) {
+                    chunkConsumer.accept(sqlSession, chunk);
+                    sqlSession.flushStatements();
+                } catch (Throwable t) {
+                    throw translateException(sqlSessionFactory, t);
+                }
+            });
+            return new ChunkResult<>(chunkIndex, chunk.size(), System.currentTimeMillis() - start, null, null);
+        } catch (Throwable t) {
+            if (recorder != null) {
+                recorder.rolledBack(t);
+            }
+            return new ChunkResult<>(chunkIndex, chunk.size(), System.currentTimeMillis() - start, chunk, t);
+        }
+    }
+
+    private static void notifyProgress(BatchOptions options, BatchProgress progress) {
+        if (options.getProgressListener() != null) {
+            synchronized (options) {
+                options.getProgressListener().accept(progress);
+            }
+        }
+    }
+
+    /**
+     * 按连接池最大连接数计算并行度，预留一个连接给其他业务；识别不了连接池时取CPU核数
+     */
+    private static int defaultParallelism(DataSource dataSource) {
+        int poolSize = dataSourcePoolSize(dataSource);
+        return poolSize > 0 ? Math.max(1, poolSize - 1) : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * 获取连接池最大连接数，支持Hikari、Druid、DBCP、Tomcat连接池
+     *
+     * @param dataSource 数据源
+     * @return 最大连接数，识别不了连接池时返回0
+     */
+    public static int dataSourcePoolSize(DataSource dataSource) {
+        for (String methodName : POOL_SIZE_METHODS) {
+            Method method = ReflectionUtils.findMethod(dataSource.getClass(), methodName);
+            if (method != null && (method.getReturnType() == int.class || method.getReturnType() == Integer.class)) {
+                Object poolSize = ReflectionUtils.invokeMethod(method, dataSource);
+                if (poolSize instanceof Integer && (Integer) poolSize > 0) {
+                    return (Integer) poolSize;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 注册数据源使用的事务管理器，并行批量、异步方法与异步合并写入在独立事务中执行时使用
+     * <p>容器启动后会自动注册容器中管理该数据源的事务管理器，不在容器中的事务管理器可通过此方法注册</p>
+     *
+     * @param dataSource         数据源，与mybatis配置中的数据源相同
+     * @param transactionManager 事务管理器
+     */
+    public static void registerTransactionManager(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        TRANSACTION_MANAGERS.put(dataSource, transactionManager);
+    }
+
+    /**
+     * 设置没有按数据源注册时使用的事务管理器，如JTA事务管理器
+     * <p>容器中只有一个事务管理器时会自动设置</p>
+     *
+     * @param transactionManager 事务管理器，为null时清除
+     */
+    public static void setDefaultTransactionManager(PlatformTransactionManager transactionManager) {
+        defaultTransactionManager = transactionManager;
+    }
+
+    /**
+     * 获取数据源的事务管理器：按数据源注册的优先，其次为默认事务管理器，都没有时使用该数据源的DataSourceTransactionManager
+     *
+     * @param dataSource 数据源
+     * @return 事务管理器
+     */
+    public static PlatformTransactionManager transactionManager(DataSource dataSource) {
+        PlatformTransactionManager transactionManager = TRANSACTION_MANAGERS.get(dataSource);
+        if (transactionManager == null) {
+            transactionManager = defaultTransactionManager;
+        }
+        return transactionManager != null ? transactionManager : FALLBACK_TRANSACTION_MANAGERS.computeIfAbsent(dataSource, DataSourceTransactionManager::new);
+    }
+
     /**
      * 批量更新或保存
      *
@@ -225,6 +681,764 @@ public class MapperSqlHelper {
         });
     }
 
+    /**
+     * 批量根据ID更新，只更新变化的字段
+     * <p>properties不为空时所有实体更新这些字段；否则与查询时的快照比较，没有快照的实体更新全部非null字段，没有变化的实体跳过</p>
+     * <p>变化字段相同的实体连续执行，在JDBC批次中共用一个预编译语句；带乐观锁版本字段的实体更新全部非null字段</p>
+     * <p>写入后以当前值作为新的快照，在事务内时事务提交后才更新快照</p>
+     *
+     * @param metadata   mapper元数据
+     * @param log        日志对象
+     * @param list       实体集合
+     * @param batchSize  批次大小
+     * @param properties 需要更新的属性名，为空时按快照比较
+     * @param <E>        E
+     * @return 操作结果
+     */
+    public static <E> boolean executeColumnsUpdateBatch(MapperMetadata metadata, Log log, Collection<E> list, int batchSize,
+                                                        Collection<String> properties) {
+        Assert.isFalse(batchSize < 1, "batchSize must not be less than one");
+        if (org.springframework.util.CollectionUtils.isEmpty(list)) {
+            return false;
+        }
+        TableInfo tableInfo = metadata.getTableInfo();
+        DirtyTracker tracker = metadata.getDirtyTracker();
+        Set<String> fixedProperties = properties == null || properties.isEmpty() ? null : updatableProperties(tableInfo, properties);
+        Map<Set<String>, List<E>> groups = new LinkedHashMap<>();
+        List<E> fullUpdates = new ArrayList<>();
+        for (E entity : list) {
+            Set<String> changed = fixedProperties != null ? fixedProperties : tracker == null ? null : tracker.dirtyProperties(entity);
+            if (changed == null || tableInfo.isWithVersion()) {
+                fullUpdates.add(entity);
+            } else if (!changed.isEmpty()) {
+                groups.computeIfAbsent(changed, k -> new ArrayList<>()).add(entity);
+            }
+        }
+        if (groups.isEmpty() && fullUpdates.isEmpty()) {
+            return true;
+        }
+        String columnsStatement = metadata.getSqlStatement(ExtensionMethod.UPDATE_COLUMNS_BY_ID);
+        String fullStatement = metadata.getSqlStatement(SqlMethod.UPDATE_BY_ID);
+        executeBatch(metadata.getEntityClass(), OPERATION_UPDATE_BATCH_BY_ID, log, sqlSession -> {
+            int i = 0;
+            for (Map.Entry<Set<String>, List<E>> group : groups.entrySet()) {
+                for (E entity : group.getValue()) {
+                    MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+                    param.put(Constants.ENTITY, entity);
+                    param.put(UpdateColumnsById.PROPERTIES, group.getKey());
+                    sqlSession.update(columnsStatement, param);
+                    if (++i % batchSize == 0) {
+                        sqlSession.flushStatements();
+                    }
+                }
+            }
+            for (E entity : fullUpdates) {
+                MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+                param.put(Constants.ENTITY, entity);
+                sqlSession.update(fullStatement, param);
+                if (++i % batchSize == 0) {
+                    sqlSession.flushStatements();
+                }
+            }
+            sqlSession.flushStatements();
+        });
+        if (tracker != null) {
+            resnapshot(tracker, list);
+        }
+        return true;
+    }
+
+    private static Set<String> updatableProperties(TableInfo tableInfo, Collection<String> properties) {
+        Set<String> fieldProperties = new HashSet<>();
+        tableInfo.getFieldList().forEach(fieldInfo -> fieldProperties.add(fieldInfo.getProperty()));
+        //按字段顺序排列，相同的属性集合生成相同的SQL
+        Set<String> ordered = new LinkedHashSet<>();
+        for (TableFieldInfo fieldInfo : tableInfo.getFieldList()) {
+            if (properties.contains(fieldInfo.getProperty())) {
+                ordered.add(fieldInfo.getProperty());
+            }
+        }
+        for (String property : properties) {
+            Assert.isTrue(fieldProperties.contains(property), "property %s is not an updatable field of %s",
+                    property, tableInfo.getEntityType().getName());
+        }
+        return ordered;
+    }
+
+    private static <E> void resnapshot(DirtyTracker tracker, Collection<E> list) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            list.forEach(tracker::snapshot);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                list.forEach(tracker::snapshot);
+            }
+        });
+    }
+
+    /**
+     * 批量更新或保存，每个分片只查询一次已存在的主键，再分组插入、分组更新
+     * <p>分片内的查询会触发BATCH执行器flush上一分片，每个分片只有一次往返查询</p>
+     *
+     * @param metadata  mapper元数据
+     * @param log       日志对象
+     * @param list      数据集合
+     * @param batchSize 批次大小
+     * @param <E>       E
+     * @return 操作结果
+     */
+    public static <E> boolean executeSaveOrUpdateBatch(MapperMetadata metadata, Log log, Collection<E> list, int batchSize) {
+        Assert.isFalse(batchSize < 1, "batchSize must not be less than one");
+        String selectStatement = metadata.getSqlStatement(ExtensionMethod.SELECT_IDS_BY_IDS);
+        String insertStatement = metadata.getSqlStatement(SqlMethod.INSERT_ONE);
+        String updateStatement = metadata.getSqlStatement(SqlMethod.UPDATE_BY_ID);
+        //IN列表受方言元素数上限约束
+        int chunkSize = Math.min(batchSize, SqlDialect.of(sqlSessionFactory(metadata.getEntityClass())).getMaxInList());
+        return !org.springframework.util.CollectionUtils.isEmpty(list) && executeBatch(metadata.getEntityClass(), OPERATION_SAVE_OR_UPDATE_BATCH, log, sqlSession -> {
+            List<E> chunk = new ArrayList<>(Math.min(chunkSize, list.size()));
+            for (E element : list) {
+                chunk.add(element);
+                if (chunk.size() == chunkSize) {
+                    saveOrUpdateChunk(sqlSession, metadata, selectStatement, insertStatement, updateStatement, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                saveOrUpdateChunk(sqlSession, metadata, selectStatement, insertStatement, updateStatement, chunk);
+            }
+            sqlSession.flushStatements();
+        });
+    }
+
+    /**
+     * 处理一个分片的保存或更新，先查询已存在的主键，再分组插入、分组更新
+     *
+     * @param sqlSession BATCH执行器的session
+     * @param metadata   mapper元数据
+     * @param chunk      分片，大小不能超过方言IN列表元素数上限
+     * @param <E>        E
+     */
+    public static <E> void saveOrUpdateChunk(SqlSession sqlSession, MapperMetadata metadata, List<E> chunk) {
+        saveOrUpdateChunk(sqlSession, metadata, metadata.getSqlStatement(ExtensionMethod.SELECT_IDS_BY_IDS),
+                metadata.getSqlStatement(SqlMethod.INSERT_ONE), metadata.getSqlStatement(SqlMethod.UPDATE_BY_ID), chunk);
+    }
+
+    /**
+     * 处理一个分片的原生插入或更新，主键为空的记录插入，其余每批一条语句
+     *
+     * @param sqlSession BATCH执行器的session
+     * @param metadata   mapper元数据
+     * @param chunk      分片
+     * @param <E>        E
+     */
+    public static <E> void upsertChunk(SqlSession sqlSession, MapperMetadata metadata, List<E> chunk) {
+        TableInfo tableInfo = metadata.getTableInfo();
+        String insertStatement = metadata.getSqlStatement(SqlMethod.INSERT_ONE);
+        String upsertStatement = metadata.getSqlStatement(ExtensionMethod.UPSERT);
+        SqlDialect dialect = SqlDialect.of(sqlSessionFactory(metadata.getEntityClass()));
+        int columns = tableInfo.getFieldList().size() + 1;
+        List<E> upsertList = new ArrayList<>(chunk.size());
+        for (E element : chunk) {
+            if (StringUtils.checkValNull(metadata.getIdValue(element))) {
+                sqlSession.insert(insertStatement, element);
+            } else {
+                upsertList.add(element);
+            }
+        }
+        //upsert没有主键回填，可以直接走BATCH执行器
+        for (List<E> round : distinctIdRounds(metadata, upsertList)) {
+            for (List<E> upsertChunk : multiRowChunks(dialect, tableInfo, columns, round, round.size())) {
+                insertMultiRow(sqlSession, upsertStatement, upsertChunk);
+            }
+        }
+    }
+
+    private static <E> void saveOrUpdateChunk(SqlSession sqlSession, MapperMetadata metadata, String selectStatement,
+                                              String insertStatement, String updateStatement, List<E> chunk) {
+        List<Object> ids = new ArrayList<>(chunk.size());
+        for (E element : chunk) {
+            Object idVal = metadata.getIdValue(element);
+            if (!StringUtils.checkValNull(idVal)) {
+                ids.add(idVal);
+            }
+        }
+        Set<Object> existIds = new HashSet<>();
+        if (!ids.isEmpty()) {
+            MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+            param.put(Constants.COLLECTION, ids);
+            existIds.addAll(sqlSession.selectList(selectStatement, param));
+        }
+        List<E> insertList = new ArrayList<>();
+        List<E> updateList = new ArrayList<>();
+        for (E element : chunk) {
+            Object idVal = metadata.getIdValue(element);
+            //同一分片内重复的新主键，第一条插入，其余更新
+            if (StringUtils.checkValNull(idVal) || existIds.add(idVal)) {
+                insertList.add(element);
+            } else {
+                updateList.add(element);
+            }
+        }
+        //相同语句连续执行，BATCH执行器才会合并为一个JDBC批次
+        for (E element : insertList) {
+            sqlSession.insert(insertStatement, element);
+        }
+        for (E element : updateList) {
+            MapperMethod.ParamMap<E> param = new MapperMethod.ParamMap<>();
+            param.put(Constants.ENTITY, element);
+            sqlSession.update(updateStatement, param);
+        }
+    }
+
+    /**
+     * 是否可以使用多值插入，方言不支持或主键为序列时需回退到BATCH
+     *
+     * @param metadata mapper元数据
+     * @return 是否支持
+     */
+    public static boolean supportsMultiRowInsert(MapperMetadata metadata) {
+        return SqlDialect.of(sqlSessionFactory(metadata.getEntityClass())).isMultiRowInsert()
+                && metadata.getTableInfo().getKeySequence() == null;
+    }
+
+    /**
+     * 多值插入，每个分片一条 INSERT ... VALUES (...),(...)
+     * <p>分片行数同时受batchSize、方言绑定参数上限和单条语句大小上限约束</p>
+     *
+     * @param metadata  mapper元数据
+     * @param log       日志对象
+     * @param list      数据集合
+     * @param batchSize 单条语句最大行数
+     * @param <E>       E
+     * @return 操作结果
+     */
+    public static <E> boolean executeMultiRowInsert(MapperMetadata metadata, Log log, Collection<E> list, int batchSize) {
+        TableInfo tableInfo = metadata.getTableInfo();
+        int columns = tableInfo.getFieldList().size() + (tableInfo.havePK() && tableInfo.getIdType() != IdType.AUTO ? 1 : 0);
+        return executeMultiRow(metadata, OPERATION_SAVE_BATCH, ExtensionMethod.INSERT_MULTI_ROW, columns, list, batchSize);
+    }
+
+    /**
+     * 是否可以使用原生的插入或更新，方言不支持、没有主键或有乐观锁版本字段时需回退到查询方式
+     *
+     * @param metadata mapper元数据
+     * @return 是否支持
+     */
+    public static boolean supportsUpsert(MapperMetadata metadata) {
+        //原生upsert无法校验乐观锁版本，有版本字段时走先查询再更新的方式
+        return SqlDialect.of(sqlSessionFactory(metadata.getEntityClass())).isUpsert()
+                && metadata.getTableInfo().havePK() && !metadata.getTableInfo().isWithVersion();
+    }
+
+    /**
+     * 原生插入或更新，每个分片一条语句，不需要先查询
+     * <p>集合中实体的主键不能为空，分片行数约束与多值插入相同</p>
+     *
+     * @param metadata  mapper元数据
+     * @param log       日志对象
+     * @param list      数据集合
+     * @param batchSize 单条语句最大行数
+     * @param <E>       E
+     * @return 操作结果
+     */
+    public static <E> boolean executeUpsert(MapperMetadata metadata, Log log, Collection<E> list, int batchSize) {
+        int columns = metadata.getTableInfo().getFieldList().size() + 1;
+        return executeMultiRow(metadata, OPERATION_SAVE_OR_UPDATE_BATCH, ExtensionMethod.UPSERT, columns, list, batchSize);
+    }
+
+    private static <E> boolean executeMultiRow(MapperMetadata metadata, String operation, ExtensionMethod extensionMethod, int columns,
+                                               Collection<E> list, int batchSize) {
+        Assert.isFalse(batchSize < 1, "batchSize must not be less than one");
+        if (org.springframework.util.CollectionUtils.isEmpty(list)) {
+            return false;
+        }
+        BatchRecorder recorder = MapperInstrumentation.start(metadata.getEntityClass(), operation);
+        TableInfo tableInfo = metadata.getTableInfo();
+        SqlSessionFactory sqlSessionFactory = sqlSessionFactory(metadata.getEntityClass());
+        SqlDialect dialect = SqlDialect.of(sqlSessionFactory);
+        String sqlStatement = metadata.getSqlStatement(extensionMethod);
+        //BATCH执行器回填自增主键时按一条语句一行处理，多值语句使用普通执行器，每个分片本身就是一次往返
+        SqlSession sqlSession = SqlSessionUtils.getSqlSession(sqlSessionFactory);
+        long opened = System.nanoTime();
+        try {
+            List<? extends Collection<E>> rounds = extensionMethod == ExtensionMethod.UPSERT
+                    ? distinctIdRounds(metadata, list) : Collections.singletonList(list);
+            for (Collection<E> round : rounds) {
+                for (List<E> chunk : multiRowChunks(dialect, tableInfo, columns, round, batchSize)) {
+                    insertMultiRow(sqlSession, sqlStatement, chunk, recorder);
+                }
+            }
+            if (!SqlSessionUtils.isSqlSessionTransactional(sqlSession, sqlSessionFactory)) {
+                sqlSession.commit(true);
+            }
+            if (recorder != null) {
+                recorder.completed(null);
+            }
+            return true;
+        } catch (Throwable t) {
+            RuntimeException exception = translateException(sqlSessionFactory, t);
+            if (recorder != null) {
+                recorder.completed(exception);
+            }
+            throw exception;
+        } finally {
+            SqlSessionUtils.closeSqlSession(sqlSession, sqlSessionFactory);
+            if (recorder != null) {
+                recorder.sessionClosed(System.nanoTime() - opened);
+            }
+        }
+    }
+
+    /**
+     * 按主键出现次数分轮，第n次出现的记录在第n轮，每轮内主键不重复，轮内保持原顺序
+     * <p>同一条upsert语句中主键重复时H2、PostgreSQL报错，分轮按顺序执行后与逐条执行的结果一致，后出现的值生效</p>
+     */
+    private static <E> List<List<E>> distinctIdRounds(MapperMetadata metadata, Collection<E> list) {
+        List<List<E>> rounds = new ArrayList<>();
+        Map<Object, Integer> occurrences = new HashMap<>(list.size() * 4 / 3 + 1);
+        for (E element : list) {
+            int round = occurrences.merge(idKey(metadata.getIdValue(element)), 1, Integer::sum) - 1;
+            if (rounds.size() <= round) {
+                rounds.add(new ArrayList<>(round == 0 ? list.size() : 4));
+            }
+            rounds.get(round).add(element);
+        }
+        return rounds;
+    }
+
+    private static <E> void insertMultiRow(SqlSession sqlSession, String sqlStatement, List<E> chunk) {
+        MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+        param.put(InsertMultiRow.LIST, chunk);
+        sqlSession.insert(sqlStatement, param);
+    }
+
+    private static <E> void insertMultiRow(SqlSession sqlSession, String sqlStatement, List<E> chunk, BatchRecorder recorder) {
+        if (recorder == null) {
+            insertMultiRow(sqlSession, sqlStatement, chunk);
+            return;
+        }
+        long begin = System.nanoTime();
+        insertMultiRow(sqlSession, sqlStatement, chunk);
+        recorder.executed(chunk.size(), System.nanoTime() - begin);
+    }
+
+    /**
+     * 切分多值语句的分片，行数受batchSize与方言绑定参数上限约束，逐行累计估算字节数，
+     * 与ChunkIterator按maxBatchBytes切分的方式一致，宽行不会使单条语句超出方言的语句大小上限
+     */
+    static <E> List<List<E>> multiRowChunks(SqlDialect dialect, TableInfo tableInfo, int columns, Collection<E> list, int batchSize) {
+        int maxRows = Math.max(1, Math.min(batchSize, dialect.getMaxParameters() / Math.max(columns, 1)));
+        List<List<E>> chunks = new ArrayList<>();
+        List<E> chunk = new ArrayList<>();
+        long chunkBytes = 0;
+        for (E element : list) {
+            long rowBytes = estimateRowBytes(tableInfo, element);
+            if (!chunk.isEmpty() && (chunk.size() >= maxRows || chunkBytes + rowBytes > dialect.getMaxPacketBytes())) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chunkBytes = 0;
+            }
+            chunk.add(element);
+            chunkBytes += rowBytes;
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * 估算单行数据在语句中的字节数，按utf8最坏情况计算字符串
+     *
+     * @param tableInfo 表信息
+     * @param entity    实体
+     * @return 字节数
+     */
+    public static long estimateRowBytes(TableInfo tableInfo, Object entity) {
+        long bytes = ROW_OVERHEAD_BYTES;
+        EntityAccessor accessor = EntityAccessor.of(tableInfo.getEntityType());
+        if (tableInfo.havePK()) {
+            bytes += estimateValueBytes(accessor.get(entity, tableInfo.getKeyProperty()));
+        }
+        for (TableFieldInfo fieldInfo : tableInfo.getFieldList()) {
+            bytes += estimateValueBytes(accessor.get(entity, fieldInfo.getProperty()));
+        }
+        return bytes;
+    }
+
+    private static long estimateValueBytes(Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() * 3L + 2;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length * 2L + 3;
+        }
+        return 24;
+    }
+
+    /**
+     * 游标查询，按fetchSize分批从数据库读取，返回的游标需要关闭，遍历结束时自动关闭
+     *
+     * @param metadata     mapper元数据
+     * @param queryWrapper 条件
+     * @param fetchSize    JDBC fetchSize
+     * @param <E>          E
+     * @return 持有session的游标
+     */
+    public static <E> SessionCursor<E> selectCursor(MapperMetadata metadata, Wrapper<?> queryWrapper, int fetchSize) {
+        SqlSessionFactory sqlSessionFactory = sqlSessionFactory(metadata.getEntityClass());
+        String sqlStatement = metadata.getSqlStatement(SqlMethod.SELECT_LIST);
+        SqlSession sqlSession = SqlSessionUtils.getSqlSession(sqlSessionFactory);
+        try {
+            Cursor<E> cursor = FetchSizeInterceptor.withFetchSize(sqlStatement, fetchSize,
+                    () -> sqlSession.selectCursor(sqlStatement, wrapperParam(queryWrapper)));
+            return new SessionCursor<>(cursor, sqlSession, sqlSessionFactory);
+        } catch (Throwable t) {
+            SqlSessionUtils.closeSqlSession(sqlSession, sqlSessionFactory);
+            throw translateException(sqlSessionFactory, t);
+        }
+    }
+
+    /**
+     * 逐条回调查询，结果不在内存中累积
+     *
+     * @param metadata      mapper元数据
+     * @param queryWrapper  条件
+     * @param fetchSize     JDBC fetchSize
+     * @param resultHandler 回调，可通过ResultContext.stop()提前结束
+     * @param <E>           E
+     */
+    public static <E> void selectEach(MapperMetadata metadata, Wrapper<?> queryWrapper, int fetchSize, ResultHandler<E> resultHandler) {
+        SqlSessionFactory sqlSessionFactory = sqlSessionFactory(metadata.getEntityClass());
+        String sqlStatement = metadata.getSqlStatement(SqlMethod.SELECT_LIST);
+        SqlSession sqlSession = SqlSessionUtils.getSqlSession(sqlSessionFactory);
+        try {
+            FetchSizeInterceptor.withFetchSize(sqlStatement, fetchSize, () -> {
+                sqlSession.select(sqlStatement, wrapperParam(queryWrapper), resultHandler);
+                return null;
+            });
+        } catch (Throwable t) {
+            throw translateException(sqlSessionFactory, t);
+        } finally {
+            SqlSessionUtils.closeSqlSession(sqlSession, sqlSessionFactory);
+        }
+    }
+
+    private static MapperMethod.ParamMap<Object> wrapperParam(Wrapper<?> queryWrapper) {
+        MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+        param.put(Constants.WRAPPER, queryWrapper);
+        return param;
+    }
+
+    /**
+     * 创建按列读取的结果容器，列类型由属性类型决定
+     *
+     * @param metadata  mapper元数据
+     * @param columns   列，实体属性的getter方法引用
+     * @param chunkRows 分片行数，小于1时不分片
+     * @return 结果容器
+     */
+    public static ColumnBatch columnBatch(MapperMetadata metadata, List<? extends SFunction<?, ?>> columns, int chunkRows) {
+        Assert.notEmpty(columns, "columns must not be empty");
+        TableInfo tableInfo = metadata.getTableInfo();
+        String[] properties = new String[columns.size()];
+        ColumnType[] types = new ColumnType[columns.size()];
+        for (int i = 0; i < properties.length; i++) {
+            properties[i] = PropertyNamer.methodToProperty(LambdaUtils.resolve(columns.get(i)).getImplMethodName());
+            Class<?> propertyType = tableInfo.getKeyType();
+            if (!properties[i].equals(tableInfo.getKeyProperty())) {
+                propertyType = tableField(tableInfo, properties[i]).getPropertyType();
+            }
+            types[i] = ColumnType.of(propertyType);
+            Assert.notNull(types[i], "property %s of type %s can not be read as column", properties[i], propertyType.getName());
+        }
+        return new ColumnBatch(properties, types, chunkRows);
+    }
+
+    /**
+     * 按列查询，结果集直接读入基本类型数组，不创建实体与包装类型
+     * <p>不经过mybatis执行器：事务内使用事务的连接，并先写入事务绑定的BATCH session中未执行的语句；读写分离时事务外从从库读取</p>
+     *
+     * @param metadata     mapper元数据
+     * @param queryWrapper 条件（可以为 null），其中的select不生效
+     * @param batch        结果容器，见columnBatch
+     * @param fetchSize    JDBC fetchSize
+     * @param consumer     分片回调，不分片时可以为null
+     * @return 读取的总行数
+     */
+    public static long selectColumns(MapperMetadata metadata, Wrapper<?> queryWrapper, ColumnBatch batch, int fetchSize, Consumer<ColumnBatch> consumer) {
+        TableInfo tableInfo = metadata.getTableInfo();
+        StringBuilder columns = new StringBuilder();
+        for (int i = 0; i < batch.getColumnCount(); i++) {
+            String property = batch.getProperty(i);
+            columns.append(i == 0 ? StringPool.EMPTY : StringPool.COMMA)
+                    .append(property.equals(tableInfo.getKeyProperty()) ? tableInfo.getKeyColumn() : tableField(tableInfo, property).getColumn());
+        }
+        SqlSessionFactory sqlSessionFactory = sqlSessionFactory(metadata.getEntityClass());
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        MappedStatement ms = configuration.getMappedStatement(metadata.getSqlStatement(ExtensionMethod.SELECT_COLUMNS));
+        MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+        param.put(Constants.WRAPPER, queryWrapper);
+        param.put(SelectColumns.COLUMNS, columns.toString());
+        BoundSql boundSql = ms.getBoundSql(param);
+        DataSource dataSource = configuration.getEnvironment().getDataSource();
+        BatchSessionInterceptor.flushPending(configuration);
+        Connection connection = null;
+        try {
+            connection = dataSource instanceof ReadWriteRoutingDataSource && !TransactionSynchronizationManager.isSynchronizationActive()
+                    ? ((ReadWriteRoutingDataSource) dataSource).getReadConnection() : DataSourceUtils.getConnection(dataSource);
+            try (PreparedStatement statement = connection.prepareStatement(boundSql.getSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                Integer timeout = ms.getTimeout() == null ? configuration.getDefaultStatementTimeout() : ms.getTimeout();
+                if (timeout != null) {
+                    statement.setQueryTimeout(timeout);
+                }
+                DataSourceUtils.applyTransactionTimeout(statement, dataSource);
+                new DefaultParameterHandler(ms, param, boundSql).setParameters(statement);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return batch.read(resultSet, consumer);
+                }
+            }
+        } catch (SQLException e) {
+            throw translateException(sqlSessionFactory, new PersistenceException(e));
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static TableFieldInfo tableField(TableInfo tableInfo, String property) {
+        for (TableFieldInfo fieldInfo : tableInfo.getFieldList()) {
+            if (fieldInfo.getProperty().equals(property)) {
+                return fieldInfo;
+            }
+        }
+        throw ExceptionUtils.mpe("property %s not found in %s", property, tableInfo.getEntityType().getName());
+    }
+
+    /**
+     * 按主键查询，主键去重后按方言IN列表元素数上限分片查询再合并
+     * <p>并行查询由MapperAsyncExecutor执行，每个分片使用独立的连接，当前线程固定到主库时分片也走主库；事务内始终在当前线程顺序查询</p>
+     *
+     * @param metadata  mapper元数据
+     * @param idList    主键列表
+     * @param keepOrder 是否按主键列表的顺序返回，不存在的主键跳过
+     * @param parallel  分片是否并行查询
+     * @param <E>       E
+     * @return 实体列表
+     */
+    public static <E> List<E> selectByIds(MapperMetadata metadata, Collection<? extends Serializable> idList, boolean keepOrder, boolean parallel) {
+        if (CollectionUtils.isEmpty(idList)) {
+            return new ArrayList<>();
+        }
+        SqlSessionFactory sqlSessionFactory = sqlSessionFactory(metadata.getEntityClass());
+        String sqlStatement = metadata.getSqlStatement(SqlMethod.SELECT_BATCH_BY_IDS);
+        List<List<Object>> chunks = idChunks(sqlSessionFactory, idList);
+        List<E> entityList = new ArrayList<>(idList.size());
+        if (parallel && chunks.size() > 1 && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            //固定到主库是线程级的，写入后的并行查询同样走主库
+            boolean primary = ReadWriteRouting.isPinned();
+            List<CompletableFuture<List<E>>> futures = new ArrayList<>(chunks.size());
+            for (List<Object> chunk : chunks) {
+                futures.add(MapperAsyncExecutor.query(metadata, () -> primary
+                        ? ReadWriteRouting.primary(() -> selectChunk(sqlSessionFactory, sqlStatement, chunk))
+                        : selectChunk(sqlSessionFactory, sqlStatement, chunk)));
+            }
+            for (CompletableFuture<List<E>> future : futures) {
+                try {
+                    entityList.addAll(future.join());
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+            }
+        } else {
+            for (List<Object> chunk : chunks) {
+                entityList.addAll(selectChunk(sqlSessionFactory, sqlStatement, chunk));
+            }
+        }
+        return keepOrder ? orderByIds(metadata, chunks, entityList) : entityList;
+    }
+
+    private static <E> List<E> selectChunk(SqlSessionFactory sqlSessionFactory, String sqlStatement, List<Object> chunk) {
+        SqlSession sqlSession = SqlSessionUtils.getSqlSession(sqlSessionFactory);
+        try {
+            return sqlSession.selectList(sqlStatement, collectionParam(chunk));
+        } catch (Throwable t) {
+            throw translateException(sqlSessionFactory, t);
+        } finally {
+            SqlSessionUtils.closeSqlSession(sqlSession, sqlSessionFactory);
+        }
+    }
+
+    private static <E> List<E> orderByIds(MapperMetadata metadata, List<List<Object>> chunks, List<E> entityList) {
+        Map<Object, E> entityMap = new HashMap<>(entityList.size() * 4 / 3 + 1);
+        for (E entity : entityList) {
+            entityMap.put(idKey(metadata.getIdValue(entity)), entity);
+        }
+        List<E> ordered = new ArrayList<>(entityList.size());
+        for (List<Object> chunk : chunks) {
+            for (Object id : chunk) {
+                E entity = entityMap.get(idKey(id));
+                if (entity != null) {
+                    ordered.add(entity);
+                }
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * 按主键删除，主键去重后分片，各分片在BATCH执行器中批量执行
+     * <p>逻辑删除的实体执行逻辑删除；事务内随事务提交，事务外执行完即提交</p>
+     *
+     * @param metadata mapper元数据
+     * @param log      日志对象
+     * @param idList   主键列表
+     * @return 影响行数
+     */
+    public static long deleteByIds(MapperMetadata metadata, Log log, Collection<? extends Serializable> idList) {
+        if (CollectionUtils.isEmpty(idList)) {
+            return 0;
+        }
+        String sqlStatement = metadata.getSqlStatement(SqlMethod.DELETE_BATCH_BY_IDS);
+        List<List<Object>> chunks = idChunks(sqlSessionFactory(metadata.getEntityClass()), idList);
+        return executeByIds(metadata, OPERATION_DELETE_BY_IDS, log, sqlStatement, chunks, MapperSqlHelper::collectionParam);
+    }
+
+    /**
+     * 按主键更新为实体中不为null的字段，主键去重后分片，各分片在BATCH执行器中批量执行
+     *
+     * @param metadata mapper元数据
+     * @param log      日志对象
+     * @param entity   更新的字段，主键不生效
+     * @param idList   主键列表
+     * @param <E>      E
+     * @return 影响行数
+     */
+    public static <E> long updateByIds(MapperMetadata metadata, Log log, E entity, Collection<? extends Serializable> idList) {
+        Assert.notNull(entity, "entity must not be null");
+        if (CollectionUtils.isEmpty(idList)) {
+            return 0;
+        }
+        String sqlStatement = metadata.getSqlStatement(SqlMethod.UPDATE);
+        String keyColumn = metadata.getTableInfo().getKeyColumn();
+        //SET子句的参数与IN列表共用单条语句的参数上限
+        List<List<Object>> chunks = idChunks(sqlSessionFactory(metadata.getEntityClass()), idList,
+                updateSetParameterCount(metadata.getTableInfo(), entity));
+        return executeByIds(metadata, OPERATION_UPDATE_BY_IDS, log, sqlStatement, chunks, chunk -> {
+            MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+            param.put(Constants.ENTITY, entity);
+            param.put(Constants.WRAPPER, new UpdateWrapper<E>().in(keyColumn, chunk));
+            return param;
+        });
+    }
+
+    private static long executeByIds(MapperMetadata metadata, String operation, Log log, String sqlStatement, List<List<Object>> chunks,
+                                     Function<List<Object>, Object> parameter) {
+        long[] rows = new long[1];
+        executeBatch(metadata.getEntityClass(), operation, log, sqlSession -> {
+            //事务内复用的session可能还有之前调用未flush的语句，不计入本次结果
+            sqlSession.flushStatements();
+            for (List<Object> chunk : chunks) {
+                sqlSession.update(sqlStatement, parameter.apply(chunk));
+            }
+            for (org.apache.ibatis.executor.BatchResult batchResult : sqlSession.flushStatements()) {
+                if (sqlStatement.equals(batchResult.getMappedStatement().getId())) {
+                    rows[0] += rowCount(batchResult.getUpdateCounts());
+                }
+            }
+        });
+        return rows[0];
+    }
+
+    /**
+     * 主键去重后按方言IN列表元素数上限分片，null跳过
+     */
+    private static List<List<Object>> idChunks(SqlSessionFactory sqlSessionFactory, Collection<?> idList) {
+        return idChunks(sqlSessionFactory, idList, 0);
+    }
+
+    private static List<List<Object>> idChunks(SqlSessionFactory sqlSessionFactory, Collection<?> idList, int reservedParameters) {
+        return idChunks(SqlDialect.of(sqlSessionFactory), idList, reservedParameters);
+    }
+
+    /**
+     * 主键去重后分片，null跳过
+     * <p>每片不超过方言IN列表元素数上限，且与语句中其他参数之和不超过方言的参数上限</p>
+     *
+     * @param dialect            方言
+     * @param idList             主键列表
+     * @param reservedParameters 语句中IN列表以外的参数数
+     * @return 分片
+     */
+    static List<List<Object>> idChunks(SqlDialect dialect, Collection<?> idList, int reservedParameters) {
+        int chunkSize = Math.min(dialect.getMaxInList(), dialect.getMaxParameters() - reservedParameters);
+        Assert.isFalse(chunkSize < 1, "too many parameters besides the IN list: %s, the dialect allows %s",
+                reservedParameters, dialect.getMaxParameters());
+        Map<Object, Object> ids = new LinkedHashMap<>(idList.size() * 4 / 3 + 1);
+        for (Object id : idList) {
+            if (id != null) {
+                ids.putIfAbsent(idKey(id), id);
+            }
+        }
+        return Lists.partition(new ArrayList<>(ids.values()), chunkSize);
+    }
+
+    /**
+     * 按字段的更新策略计算更新语句SET子句的参数数，与生成的SET子句一致
+     * <p>自动填充的字段总是写入；乐观锁字段另在条件中占一个参数</p>
+     *
+     * @param tableInfo 表信息
+     * @param entity    更新的字段
+     * @return 参数数
+     */
+    static int updateSetParameterCount(TableInfo tableInfo, Object entity) {
+        EntityAccessor accessor = EntityAccessor.of(tableInfo.getEntityType());
+        int count = 0;
+        for (TableFieldInfo fieldInfo : tableInfo.getFieldList()) {
+            if (fieldInfo.isWithUpdateFill() || fieldInfo.getUpdateStrategy() == FieldStrategy.IGNORED) {
+                count++;
+            } else if (fieldInfo.getUpdateStrategy() != FieldStrategy.NEVER && accessor.get(entity, fieldInfo.getProperty()) != null) {
+                count++;
+            }
+            if (fieldInfo.isVersion()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 主键比较用的值，整数主键统一为Long，避免Integer与Long不相等
+     */
+    private static Object idKey(Object id) {
+        return id instanceof Integer || id instanceof Short || id instanceof Byte ? Long.valueOf(((Number) id).longValue()) : id;
+    }
+
+    private static MapperMethod.ParamMap<Object> collectionParam(List<Object> chunk) {
+        MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+        param.put(Constants.COLLECTION, chunk);
+        return param;
+    }
+
+    /**
+     * 批量执行的影响行数
+     *
+     * @param updateCounts JDBC批量执行返回的更新数
+     * @return 行数，部分驱动只返回成功标识，按一行计
+     */
+    public static long rowCount(int[] updateCounts) {
+        long rows = 0;
+        for (int updateCount : updateCounts) {
+            rows += updateCount == Statement.SUCCESS_NO_INFO ? 1 : Math.max(updateCount, 0);
+        }
+        return rows;
+    }
+
     /**
      * 获取mapperStatementId
      *
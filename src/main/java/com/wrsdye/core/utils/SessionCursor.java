@@ -0,0 +1,90 @@
+package com.wrsdye.core.utils;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * @author wangrx
+ * @description 持有SqlSession的游标，关闭游标时一并释放session
+ * <p>事务内释放的是事务绑定session的引用，事务外直接关闭session；遍历结束时自动关闭</p>
+ * @date 2026/10/18 下午7:40
+ */
+public class SessionCursor<T> implements Cursor<T> {
+
+    private final Cursor<T> cursor;
+
+    private final SqlSession sqlSession;
+
+    private final SqlSessionFactory sqlSessionFactory;
+
+    private boolean closed;
+
+    public SessionCursor(Cursor<T> cursor, SqlSession sqlSession, SqlSessionFactory sqlSessionFactory) {
+        this.cursor = cursor;
+        this.sqlSession = sqlSession;
+        this.sqlSessionFactory = sqlSessionFactory;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed && cursor.isOpen();
+    }
+
+    @Override
+    public boolean isConsumed() {
+        return cursor.isConsumed();
+    }
+
+    @Override
+    public int getCurrentIndex() {
+        return cursor.getCurrentIndex();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        Iterator<T> iterator = cursor.iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                if (closed) {
+                    return false;
+                }
+                boolean hasNext = iterator.hasNext();
+                if (!hasNext) {
+                    close();
+                }
+                return hasNext;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return iterator.next();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            cursor.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            SqlSessionUtils.closeSqlSession(sqlSession, sqlSessionFactory);
+        }
+    }
+}
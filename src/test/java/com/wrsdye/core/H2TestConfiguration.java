@@ -0,0 +1,59 @@
+package com.wrsdye.core;
+
+import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
+import com.baomidou.mybatisplus.extension.plugins.OptimisticLockerInterceptor;
+import com.wrsdye.core.annotation.EnableAutoMapper;
+import org.apache.ibatis.reflection.MetaObject;
+import org.h2.jdbcx.JdbcDataSource;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * @author wangrx
+ * @description 测试用的H2数据源与mapper配置，实体位于com.wrsdye.core.entity，表结构见schema-test.sql
+ * @date 2026/10/20 下午7:20
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableAutoMapper(basePackages = "com.wrsdye.core.entity")
+public class H2TestConfiguration {
+
+    public static final String CREATED_BY = "filled";
+
+    @Bean
+    public DataSource dataSource() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test;DB_CLOSE_DELAY=-1;MODE=MySQL;INIT=RUNSCRIPT FROM 'classpath:schema-test.sql'");
+        return dataSource;
+    }
+
+    @Bean
+    public OptimisticLockerInterceptor optimisticLockerInterceptor() {
+        return new OptimisticLockerInterceptor();
+    }
+
+    /**
+     * createdBy为插入填充字段；逻辑删除字段插入时为null的补0
+     */
+    @Bean
+    public MetaObjectHandler metaObjectHandler() {
+        return new MetaObjectHandler() {
+            @Override
+            public void insertFill(MetaObject metaObject) {
+                if (metaObject.hasSetter("createdBy")) {
+                    setFieldValByName("createdBy", CREATED_BY, metaObject);
+                }
+                if (metaObject.hasSetter("deleted") && getFieldValByName("deleted", metaObject) == null) {
+                    setFieldValByName("deleted", 0, metaObject);
+                }
+            }
+
+            @Override
+            public void updateFill(MetaObject metaObject) {
+            }
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package com.wrsdye.core.batch;
+
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.wrsdye.core.CommonBaseMapper;
+import com.wrsdye.core.H2TestConfiguration;
+import com.wrsdye.core.entity.Item;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author wangrx
+ * @description 事务内批量session测试，直接向事务绑定的session写入未flush的语句，再通过普通mapper方法或事务结束观察结果
+ * @date 2026/10/20 下午8:10
+ */
+@SpringBootTest(classes = H2TestConfiguration.class)
+class BatchSessionInterceptorTest {
+
+    @Autowired
+    private CommonBaseMapper<Item> mapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Configuration configuration;
+
+    private String insertStatement;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM t_item");
+        configuration = sqlSessionFactory.getConfiguration();
+        insertStatement = MapperMetadataRegistry.getByEntity(Item.class).getSqlStatement(SqlMethod.INSERT_ONE);
+    }
+
+    @Test
+    void noSessionOutsideTransaction() {
+        assertNull(BatchSessionInterceptor.currentSession(configuration));
+    }
+
+    @Test
+    void simpleSelectSeesPendingInsert() {
+        transactionTemplate(TransactionDefinition.PROPAGATION_REQUIRED).execute(status -> {
+            //先查询一次，SIMPLE执行器的一级缓存中有旧结果
+            assertEquals(0, mapper.selectCount(null));
+            pendingInsert("pending");
+            assertEquals(1, mapper.selectCount(null));
+            assertEquals("pending", mapper.selectList(null).get(0).getName());
+            return null;
+        });
+        assertEquals(1, count());
+    }
+
+    @Test
+    void sameSessionWithinTransaction() {
+        transactionTemplate(TransactionDefinition.PROPAGATION_REQUIRED).execute(status -> {
+            SqlSession session = BatchSessionInterceptor.currentSession(configuration);
+            assertSame(session, BatchSessionInterceptor.currentSession(configuration));
+            mapper.saveBatch(Arrays.asList(new Item(null, "a", 1), new Item(null, "b", 2)), 1);
+            assertSame(session, BatchSessionInterceptor.currentSession(configuration));
+            return null;
+        });
+        assertEquals(2, count());
+    }
+
+    @Test
+    void flushOnCommit() {
+        transactionTemplate(TransactionDefinition.PROPAGATION_REQUIRED).execute(status -> {
+            pendingInsert("a");
+            pendingInsert("b");
+            return null;
+        });
+        assertEquals(2, count());
+    }
+
+    @Test
+    void rollbackDiscardsPending() {
+        transactionTemplate(TransactionDefinition.PROPAGATION_REQUIRED).execute(status -> {
+            mapper.saveBatch(Arrays.asList(new Item(null, "flushed", 1)), 10);
+            pendingInsert("pending");
+            status.setRollbackOnly();
+            return null;
+        });
+        assertEquals(0, count());
+    }
+
+    @Test
+    void requiresNewSuspendsAndResumes() {
+        TransactionTemplate requiresNew = transactionTemplate(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate(TransactionDefinition.PROPAGATION_REQUIRED).execute(outerStatus -> {
+            SqlSession outer = BatchSessionInterceptor.currentSession(configuration);
+            pendingInsert("outer");
+            requiresNew.execute(innerStatus -> {
+                SqlSession inner = BatchSessionInterceptor.currentSession(configuration);
+                assertNotSame(outer, inner);
+                pendingInsert("inner");
+                return null;
+            });
+            //挂起时外层的语句已写入外层连接，恢复后继续使用外层的session
+            assertSame(outer, BatchSessionInterceptor.currentSession(configuration));
+            assertEquals(2, mapper.selectCount(null));
+            pendingInsert("outer-after");
+            outerStatus.setRollbackOnly();
+            return null;
+        });
+        assertEquals(1, count());
+        assertEquals("inner", jdbcTemplate.queryForObject("SELECT name FROM t_item", String.class));
+    }
+
+    /**
+     * 写入事务绑定的session，不flush
+     */
+    private void pendingInsert(String name) {
+        BatchSessionInterceptor.currentSession(configuration).insert(insertStatement, new Item(null, name, 1));
+    }
+
+    private TransactionTemplate transactionTemplate(int propagation) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(propagation);
+        return template;
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_item", Integer.class);
+    }
+}
@@ -0,0 +1,142 @@
+package com.wrsdye.core.batch;
+
+import com.baomidou.mybatisplus.core.exceptions.MybatisPlusException;
+import com.wrsdye.core.H2TestConfiguration;
+import com.wrsdye.core.entity.Author;
+import com.wrsdye.core.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author wangrx
+ * @description 工作单元测试，t_book.author_id外键引用t_author，执行顺序错误时违反外键约束
+ * @date 2026/10/20 下午8:30
+ */
+@SpringBootTest(classes = H2TestConfiguration.class)
+class UnitOfWorkTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM t_book");
+        jdbcTemplate.update("DELETE FROM t_author");
+    }
+
+    @Test
+    void insertsParentsFirst() {
+        UnitOfWork.create()
+                .dependsOn(Book.class, Author.class)
+                .insert(new Book(1L, 1L, "first"))
+                .insert(new Author(1L, "author"))
+                .flush();
+        assertEquals(1, count("t_author"));
+        assertEquals(1, count("t_book"));
+    }
+
+    @Test
+    void deletesChildrenFirst() {
+        seed();
+        UnitOfWork.create()
+                .dependsOn(Book.class, Author.class)
+                .deleteById(Book.class, 1L)
+                .deleteById(Author.class, 1L)
+                .flush();
+        assertEquals(1, count("t_author"));
+        assertEquals(1, count("t_book"));
+    }
+
+    @Test
+    void registrationOrderWithoutDependency() {
+        seed();
+        //没有声明依赖时按首次登记的逆序删除，先删除主表违反外键约束
+        UnitOfWork unitOfWork = UnitOfWork.create()
+                .deleteById(Book.class, 1L)
+                .deleteById(Author.class, 1L);
+        assertThrows(DataIntegrityViolationException.class, unitOfWork::flush);
+        assertFalse(unitOfWork.isEmpty());
+        assertEquals(2, count("t_author"));
+        assertEquals(2, count("t_book"));
+    }
+
+    @Test
+    void cyclicDependency() {
+        UnitOfWork unitOfWork = UnitOfWork.create()
+                .dependsOn(Book.class, Author.class)
+                .dependsOn(Author.class, Book.class)
+                .insert(new Author(1L, "author"))
+                .insert(new Book(1L, 1L, "first"));
+        MybatisPlusException exception = assertThrows(MybatisPlusException.class, unitOfWork::flush);
+        assertTrue(exception.getMessage().contains("cyclic dependency"), exception.getMessage());
+        assertEquals(0, count("t_author"));
+    }
+
+    @Test
+    void repeatedIdsKeepRegistrationOrder() {
+        seed();
+        //第一、三次更新的null字段相同，只按null字段分组时第三次会先于第二次执行
+        UnitOfWork.create()
+                .update(new Book(1L, null, "first"))
+                .update(new Book(1L, 2L, "second"))
+                .update(new Book(1L, null, "third"))
+                .flush();
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM t_book WHERE id = 1");
+        assertEquals("third", row.get("title"));
+        assertEquals(2L, row.get("author_id"));
+    }
+
+    @Test
+    void rowCountsPerEntity() {
+        seed();
+        UnitOfWorkResult result = UnitOfWork.create()
+                .dependsOn(Book.class, Author.class)
+                .insertAll(Arrays.asList(new Book(3L, 3L, "third"), new Book(4L, 3L, "fourth")))
+                .insert(new Author(3L, "third"))
+                .updateAll(Arrays.asList(new Book(1L, null, "first-updated"), new Book(2L, 2L, null)))
+                .update(new Author(9L, "missing"))
+                .deleteById(Book.class, 2L)
+                .deleteById(Book.class, 9L)
+                .flush();
+        EntityRowCount authors = result.get(Author.class);
+        assertEquals(1, authors.getInserted());
+        assertEquals(0, authors.getUpdated());
+        assertEquals(0, authors.getDeleted());
+        EntityRowCount books = result.get(Book.class);
+        assertEquals(2, books.getInserted());
+        assertEquals(2, books.getUpdated());
+        assertEquals(1, books.getDeleted());
+        assertEquals(6, result.getTotalRows());
+        assertEquals(Arrays.asList(Author.class, Book.class), Arrays.asList(result.getRowCounts().keySet().toArray()));
+        assertEquals(3, count("t_author"));
+        assertEquals(3, count("t_book"));
+    }
+
+    @Test
+    void emptyFlush() {
+        UnitOfWorkResult result = UnitOfWork.create().flush();
+        assertEquals(0, result.getStatementCount());
+        assertEquals(0, result.get(Author.class).getTotal());
+    }
+
+    /**
+     * 作者1、2，书1属于作者1，书2属于作者2
+     */
+    private void seed() {
+        jdbcTemplate.update("INSERT INTO t_author (id, name) VALUES (1, 'one'), (2, 'two')");
+        jdbcTemplate.update("INSERT INTO t_book (id, author_id, title) VALUES (1, 1, 'one'), (2, 2, 'two')");
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -0,0 +1,142 @@
+package com.wrsdye.core.cache;
+
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.wrsdye.core.CommonBaseMapper;
+import com.wrsdye.core.H2TestConfiguration;
+import com.wrsdye.core.entity.CachedUser;
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author wangrx
+ * @description 实体缓存测试，绕过mapper直接修改表数据，读到旧值说明命中了缓存
+ * @date 2026/10/20 下午7:30
+ */
+@SpringBootTest(classes = H2TestConfiguration.class)
+class EntityCacheInterceptorTest {
+
+    @Autowired
+    private CommonBaseMapper<CachedUser> mapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private EntityCache cache;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM t_cached_user");
+        jdbcTemplate.update("INSERT INTO t_cached_user (id, name, age) VALUES (1, 'one', 1), (2, 'two', 2)");
+        MapperMetadata metadata = MapperMetadataRegistry.getByEntity(CachedUser.class);
+        cache = metadata.getEntityCache();
+        cache.invalidateAll();
+    }
+
+    @Test
+    void selectByIdIsCached() {
+        assertEquals("one", mapper.selectById(1L).getName());
+        rename(1, "changed");
+        assertEquals("one", mapper.selectById(1L).getName());
+        assertEquals("one", mapper.selectById(1).getName());
+    }
+
+    @Test
+    void cachedEntitiesAreCopies() {
+        CachedUser first = mapper.selectById(1L);
+        first.setName("modified");
+        assertEquals("one", mapper.selectById(1L).getName());
+        assertNotSame(mapper.selectById(1L), mapper.selectById(1L));
+    }
+
+    @Test
+    void selectBatchIdsReturnsDuplicateIdsOnce() {
+        List<CachedUser> loaded = mapper.selectBatchIds(Arrays.asList(1L, 1L, 2L));
+        assertEquals(2, loaded.size());
+        //全部命中缓存时与数据库IN列表的结果一致
+        List<CachedUser> cached = mapper.selectBatchIds(Arrays.asList(1L, 1, 2L, 2L));
+        assertEquals(2, cached.size());
+        rename(1, "changed");
+        assertEquals("one", mapper.selectBatchIds(Arrays.asList(1L, 2L)).get(0).getName());
+    }
+
+    @Test
+    void updateByIdInvalidates() {
+        mapper.selectById(1L);
+        rename(1, "changed");
+        mapper.updateById(new CachedUser(1L, null, 10));
+        CachedUser user = mapper.selectById(1L);
+        assertEquals("changed", user.getName());
+        assertEquals(10, user.getAge());
+    }
+
+    @Test
+    void deleteBatchIdsInvalidates() {
+        mapper.selectBatchIds(Arrays.asList(1L, 2L));
+        mapper.deleteBatchIds(Arrays.asList(1L, 2L));
+        assertNull(mapper.selectById(1L));
+        assertTrue(mapper.selectBatchIds(Arrays.asList(1L, 2L)).isEmpty());
+    }
+
+    @Test
+    void updateByWrapperInvalidatesAll() {
+        mapper.selectBatchIds(Arrays.asList(1L, 2L));
+        rename(2, "changed");
+        mapper.update(new CachedUser(null, null, 20), new UpdateWrapper<CachedUser>().eq("id", 1));
+        assertEquals(20, mapper.selectById(1L).getAge());
+        //无法确定主键的写语句失效整个缓存
+        assertEquals("changed", mapper.selectById(2L).getName());
+    }
+
+    @Test
+    void transactionBypassesCacheAfterWrite() {
+        mapper.selectById(1L);
+        transactionTemplate.execute(status -> {
+            mapper.updateById(new CachedUser(1L, "uncommitted", null));
+            assertEquals("uncommitted", mapper.selectById(1L).getName());
+            assertNull(cache.getIfPresent(1L));
+            status.setRollbackOnly();
+            return null;
+        });
+        assertNull(cache.getIfPresent(1L));
+        assertEquals("one", mapper.selectById(1L).getName());
+    }
+
+    @Test
+    void staleLoadIsNotCached() throws Throwable {
+        Object loaded = cache.get(3L, () -> {
+            //加载期间其他线程写入并失效
+            cache.invalidate(3L);
+            return new CachedUser(3L, "stale", 3);
+        });
+        assertEquals("stale", ((CachedUser) loaded).getName());
+        assertNull(cache.getIfPresent(3L));
+    }
+
+    @Test
+    void staleBatchLoadIsNotCached() {
+        long generation = cache.generation();
+        cache.invalidate(1L);
+        cache.putAll(Collections.singletonList(1L), Collections.singletonList(new CachedUser(1L, "stale", 1)),
+                entity -> ((CachedUser) entity).getId(), generation);
+        assertNull(cache.getIfPresent(1L));
+    }
+
+    private void rename(long id, String name) {
+        jdbcTemplate.update("UPDATE t_cached_user SET name = ? WHERE id = ?", name, id);
+    }
+}
@@ -0,0 +1,45 @@
+package com.wrsdye.core.entity;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableLogic;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.wrsdye.core.annotation.BuildMapper;
+import com.wrsdye.core.annotation.SaveOrUpdateMode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author wangrx
+ * @description 原生upsert的测试实体，自增主键，带逻辑删除与插入填充字段
+ * @date 2026/10/20 下午7:20
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@BuildMapper(saveOrUpdateMode = SaveOrUpdateMode.UPSERT)
+@TableName("t_account")
+public class Account {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private String name;
+
+    private Integer balance;
+
+    @TableLogic
+    private Integer deleted;
+
+    @TableField(fill = FieldFill.INSERT)
+    private String createdBy;
+
+    public Account(Long id, String name, Integer balance) {
+        this.id = id;
+        this.name = name;
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,29 @@
+package com.wrsdye.core.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.wrsdye.core.annotation.BuildMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author wangrx
+ * @description 工作单元测试实体，author_id外键引用t_author
+ * @date 2026/10/20 下午7:20
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@BuildMapper
+@TableName("t_book")
+public class Book {
+
+    @TableId(type = IdType.INPUT)
+    private Long id;
+
+    private Long authorId;
+
+    private String title;
+}
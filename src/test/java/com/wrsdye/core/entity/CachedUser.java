@@ -0,0 +1,29 @@
+package com.wrsdye.core.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.wrsdye.core.annotation.BuildMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author wangrx
+ * @description 开启实体缓存的测试实体
+ * @date 2026/10/20 下午7:20
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@BuildMapper(cacheMaximumSize = 100, cacheExpireSeconds = 60)
+@TableName("t_cached_user")
+public class CachedUser {
+
+    @TableId(type = IdType.INPUT)
+    private Long id;
+
+    private String name;
+
+    private Integer age;
+}
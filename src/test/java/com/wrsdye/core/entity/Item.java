@@ -0,0 +1,29 @@
+package com.wrsdye.core.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.wrsdye.core.annotation.BuildMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author wangrx
+ * @description 没有开启扩展特性的测试实体，自增主键
+ * @date 2026/10/20 下午7:20
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@BuildMapper
+@TableName("t_item")
+public class Item {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private String name;
+
+    private Integer quantity;
+}
@@ -0,0 +1,32 @@
+package com.wrsdye.core.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.annotation.Version;
+import com.wrsdye.core.annotation.BuildMapper;
+import com.wrsdye.core.annotation.SaveOrUpdateMode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author wangrx
+ * @description 带乐观锁版本字段的测试实体，批量保存或更新不使用原生upsert
+ * @date 2026/10/20 下午7:20
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@BuildMapper(saveOrUpdateMode = SaveOrUpdateMode.UPSERT)
+@TableName("t_versioned_item")
+public class VersionedItem {
+
+    @TableId(type = IdType.INPUT)
+    private Long id;
+
+    private String name;
+
+    @Version
+    private Integer version;
+}
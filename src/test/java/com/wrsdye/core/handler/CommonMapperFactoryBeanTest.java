@@ -0,0 +1,87 @@
+package com.wrsdye.core.handler;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.wrsdye.core.annotation.BuildMapper;
+import com.wrsdye.core.cache.EntityCacheInterceptor;
+import com.wrsdye.core.dirty.DirtyTrackingInterceptor;
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author wangrx
+ * @description 拦截器注册测试，快照拦截器须在实体缓存拦截器之外，与mapper的初始化顺序无关
+ * @date 2026/10/20 下午7:00
+ */
+class CommonMapperFactoryBeanTest {
+
+    private final MapperMetadata tracked = MapperMetadataRegistry.register(TrackedEntity.class, TrackedMapper.class);
+
+    private final MapperMetadata cached = MapperMetadataRegistry.register(CachedEntity.class, CachedMapper.class);
+
+    @Test
+    void trackedMapperFirst() {
+        Configuration configuration = configuration();
+        CommonMapperFactoryBean<?> factoryBean = new CommonMapperFactoryBean<>();
+        factoryBean.registerInterceptors(configuration, tracked);
+        factoryBean.registerInterceptors(configuration, cached);
+        assertDirtyTrackingOutside(configuration);
+    }
+
+    @Test
+    void cachedMapperFirst() {
+        Configuration configuration = configuration();
+        CommonMapperFactoryBean<?> factoryBean = new CommonMapperFactoryBean<>();
+        factoryBean.registerInterceptors(configuration, cached);
+        factoryBean.registerInterceptors(configuration, tracked);
+        assertDirtyTrackingOutside(configuration);
+    }
+
+    /**
+     * 拦截器按注册顺序包装，后注册的在外层
+     */
+    private static void assertDirtyTrackingOutside(Configuration configuration) {
+        List<Interceptor> interceptors = configuration.getInterceptors();
+        int cache = indexOf(interceptors, EntityCacheInterceptor.class);
+        int dirty = indexOf(interceptors, DirtyTrackingInterceptor.class);
+        assertTrue(cache >= 0 && dirty > cache, String.valueOf(interceptors));
+    }
+
+    private static int indexOf(List<Interceptor> interceptors, Class<? extends Interceptor> type) {
+        for (int i = 0; i < interceptors.size(); i++) {
+            if (type.isInstance(interceptors.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Configuration configuration() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:interceptors");
+        return new MybatisConfiguration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+    }
+
+    @BuildMapper(dirtyTracking = true)
+    static class TrackedEntity {
+    }
+
+    @BuildMapper(cacheMaximumSize = 10, cacheExpireSeconds = 60)
+    static class CachedEntity {
+    }
+
+    interface TrackedMapper {
+    }
+
+    interface CachedMapper {
+    }
+}
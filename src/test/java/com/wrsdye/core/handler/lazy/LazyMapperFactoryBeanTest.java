@@ -0,0 +1,102 @@
+package com.wrsdye.core.handler.lazy;
+
+import com.wrsdye.core.CommonBaseMapper;
+import com.wrsdye.core.annotation.EnableAutoMapper;
+import com.wrsdye.core.handler.ConcurrentMybatisConfiguration;
+import com.wrsdye.core.handler.LazyMapperFactoryBean;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author wangrx
+ * @description 延迟初始化测试，多个线程同时首次调用同一个mapper，初始化只执行一次，其他线程等待后读到完整的语句
+ * <p>上下文中只有这一个测试方法调用mapper，保证调用发生在初始化之前</p>
+ * @date 2026/10/20 下午9:30
+ */
+@SpringBootTest(classes = LazyMapperFactoryBeanTest.Config.class)
+class LazyMapperFactoryBeanTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private CommonBaseMapper<LazyUser> mapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EnableAutoMapper(basePackages = "com.wrsdye.core.handler.lazy", lazy = true)
+    static class Config {
+
+        @Bean
+        public DataSource dataSource() {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:lazy;DB_CLOSE_DELAY=-1;MODE=MySQL;INIT=RUNSCRIPT FROM 'classpath:schema-lazy.sql'");
+            return dataSource;
+        }
+    }
+
+    @Test
+    void concurrentFirstCalls() throws Exception {
+        assertTrue(sqlSessionFactory.getConfiguration() instanceof ConcurrentMybatisConfiguration);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(applicationContext.getBean(DataSource.class));
+        jdbcTemplate.update("DELETE FROM t_lazy_user");
+        jdbcTemplate.update("INSERT INTO t_lazy_user (id, name) VALUES (1, 'one'), (2, 'two')");
+        Collection<LazyMapperFactoryBean> factoryBeans = applicationContext.getBeansOfType(LazyMapperFactoryBean.class).values();
+        assertEquals(1, factoryBeans.size());
+        LazyMapperFactoryBean<?> factoryBean = factoryBeans.iterator().next();
+        assertFalse(factoryBean.isInitialized());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    //mybatis-plus注入的方法与扩展方法各调用一次
+                    List<String> names = new ArrayList<>();
+                    names.add(mapper.selectById(1L).getName());
+                    mapper.selectByIds(Arrays.asList(2L, 1L)).forEach(user -> names.add(user.getName()));
+                    names.add(String.valueOf(mapper.selectCount(null)));
+                    return names;
+                }));
+            }
+            assertTrue(ready.await(10, TimeUnit.SECONDS));
+            start.countDown();
+            for (Future<List<String>> future : futures) {
+                assertEquals(Arrays.asList("one", "two", "one", "2"), future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(factoryBean.isInitialized());
+    }
+}
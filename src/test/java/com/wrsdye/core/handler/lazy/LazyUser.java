@@ -0,0 +1,27 @@
+package com.wrsdye.core.handler.lazy;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.wrsdye.core.annotation.BuildMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author wangrx
+ * @description 延迟初始化测试实体
+ * @date 2026/10/20 下午9:30
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@BuildMapper
+@TableName("t_lazy_user")
+public class LazyUser {
+
+    @TableId(type = IdType.INPUT)
+    private Long id;
+
+    private String name;
+}
@@ -0,0 +1,211 @@
+package com.wrsdye.core.routing;
+
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.core.exceptions.MybatisPlusException;
+import com.wrsdye.core.CommonBaseMapper;
+import com.wrsdye.core.annotation.EnableAutoMapper;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author wangrx
+ * @description 读写分离测试，一个H2主库与两个H2从库，各库中主键1的name为库名
+ * @date 2026/10/20 下午6:10
+ */
+@SpringBootTest(classes = ReadWriteRoutingTest.Config.class)
+class ReadWriteRoutingTest {
+
+    private static final String PRIMARY = "primary";
+
+    private static final String REPLICA_1 = "replica-1";
+
+    private static final String REPLICA_2 = "replica-2";
+
+    private static final List<String> DATABASES = Arrays.asList(PRIMARY, REPLICA_1, REPLICA_2);
+
+    @Autowired
+    private CommonBaseMapper<RoutingUser> mapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReadWriteRoutingDataSource dataSource;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EnableAutoMapper(basePackages = "com.wrsdye.core.routing")
+    static class Config {
+
+        @Bean
+        public ReadWriteRoutingDataSource dataSource() {
+            Map<String, DataSource> replicas = new LinkedHashMap<>();
+            replicas.put(REPLICA_1, h2(REPLICA_1));
+            replicas.put(REPLICA_2, h2(REPLICA_2));
+            return new ReadWriteRoutingDataSource(h2(PRIMARY), replicas, ReadWriteRoutingOptions.builder().pinMillis(60000).build());
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        for (String database : DATABASES) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(h2(database));
+            jdbcTemplate.update("DELETE FROM t_routing_user");
+            jdbcTemplate.update("INSERT INTO t_routing_user (id, name) VALUES (1, ?)", database);
+        }
+        ReadWriteRouting.unpin();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadWriteRouting.unpin();
+    }
+
+    @Test
+    void readsAreSpreadOverReplicas() {
+        List<ReplicaStats> before = dataSource.getReplicaStats();
+        Set<String> sources = new HashSet<>();
+        sources.add(mapper.selectById(1L).getName());
+        sources.add(mapper.selectById(1L).getName());
+        assertEquals(new HashSet<>(Arrays.asList(REPLICA_1, REPLICA_2)), sources);
+        List<ReplicaStats> after = dataSource.getReplicaStats();
+        for (int i = 0; i < after.size(); i++) {
+            assertEquals(before.get(i).getQueries() + 1, after.get(i).getQueries());
+            assertEquals(0, after.get(i).getInFlight());
+        }
+    }
+
+    @Test
+    void readsInTransactionOrPrimaryBlockUsePrimary() {
+        assertEquals(PRIMARY, transactionTemplate.execute(status -> mapper.selectById(1L).getName()));
+        assertEquals(PRIMARY, ReadWriteRouting.primary(() -> mapper.selectById(1L).getName()));
+        assertNotEquals(PRIMARY, mapper.selectById(1L).getName());
+    }
+
+    @Test
+    void writePinsThreadToPrimary() {
+        mapper.insert(new RoutingUser(2L, "written"));
+        assertTrue(ReadWriteRouting.isPinned());
+        assertEquals("written", mapper.selectById(2L).getName());
+        assertEquals(PRIMARY, mapper.selectById(1L).getName());
+
+        ReadWriteRouting.unpin();
+        assertNull(mapper.selectById(2L));
+        assertNotEquals(PRIMARY, mapper.selectById(1L).getName());
+    }
+
+    @Test
+    void writeInTransactionPinsAfterCommit() {
+        transactionTemplate.execute(status -> mapper.insert(new RoutingUser(2L, "written")));
+        assertTrue(ReadWriteRouting.isPinned());
+        assertEquals("written", mapper.selectById(2L).getName());
+    }
+
+    @Test
+    void writeOnRoutedSessionIsRejected() {
+        String selectById = MapperMetadataRegistry.getByEntity(RoutingUser.class).getSqlStatement(SqlMethod.SELECT_BY_ID);
+        String insert = MapperMetadataRegistry.getByEntity(RoutingUser.class).getSqlStatement(SqlMethod.INSERT_ONE);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            RoutingUser user = sqlSession.selectOne(selectById, 1L);
+            assertNotEquals(PRIMARY, user.getName());
+            PersistenceException e = assertThrows(PersistenceException.class, () -> sqlSession.insert(insert, new RoutingUser(3L, "routed")));
+            assertTrue(e.getCause() instanceof MybatisPlusException, String.valueOf(e.getCause()));
+        }
+        for (String database : DATABASES) {
+            assertEquals(0, new JdbcTemplate(h2(database)).queryForObject("SELECT COUNT(*) FROM t_routing_user WHERE id = 3", Integer.class));
+        }
+    }
+
+    @Test
+    void failedReplicaFallsBackToPrimaryAndIsSkipped() throws SQLException {
+        FlakyDataSource replica1 = new FlakyDataSource(h2(REPLICA_1));
+        replica1.failing = true;
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put(REPLICA_1, replica1);
+        replicas.put(REPLICA_2, h2(REPLICA_2));
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(h2(PRIMARY), replicas, ReadWriteRoutingOptions.builder()
+                .failureThreshold(2)
+                .unhealthyMillis(60000)
+                .build());
+
+        //轮询：replica-1失败改走主库，连续失败两次后只使用replica-2
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            sources.add(readName(routing));
+        }
+        assertEquals(Arrays.asList(PRIMARY, REPLICA_2, PRIMARY, REPLICA_2, REPLICA_2, REPLICA_2, REPLICA_2, REPLICA_2), sources);
+
+        ReplicaStats stats1 = routing.getReplicaStats().get(0);
+        assertFalse(stats1.isHealthy());
+        assertEquals(2, stats1.getConnectionFailures());
+        ReplicaStats stats2 = routing.getReplicaStats().get(1);
+        assertTrue(stats2.isHealthy());
+        assertEquals(0, stats2.getInFlight());
+
+        //暂停期间恢复也不参与选择
+        replica1.failing = false;
+        assertEquals(REPLICA_2, readName(routing));
+        assertEquals(REPLICA_2, readName(routing));
+    }
+
+    private static String readName(ReadWriteRoutingDataSource routing) throws SQLException {
+        try (Connection connection = routing.getReadConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT name FROM t_routing_user WHERE id = 1")) {
+            assertTrue(resultSet.next());
+            return resultSet.getString(1);
+        }
+    }
+
+    private static DataSource h2(String database) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;MODE=MySQL;INIT=RUNSCRIPT FROM 'classpath:schema-routing.sql'");
+        return dataSource;
+    }
+
+    /**
+     * 可切换为获取连接失败的数据源
+     */
+    private static class FlakyDataSource extends DelegatingDataSource {
+
+        private volatile boolean failing;
+
+        FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                throw new SQLException("connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
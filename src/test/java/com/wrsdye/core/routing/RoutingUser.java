@@ -0,0 +1,27 @@
+package com.wrsdye.core.routing;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.wrsdye.core.annotation.BuildMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author wangrx
+ * @description 读写分离测试实体，各库中同一主键的name为库名，用于判断查询来自哪个库
+ * @date 2026/10/20 下午6:10
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@BuildMapper
+@TableName("t_routing_user")
+public class RoutingUser {
+
+    @TableId(type = IdType.INPUT)
+    private Long id;
+
+    private String name;
+}
@@ -0,0 +1,124 @@
+package com.wrsdye.core.utils;
+
+import com.baomidou.mybatisplus.core.exceptions.MybatisPlusException;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.wrsdye.core.CommonBaseMapper;
+import com.wrsdye.core.H2TestConfiguration;
+import com.wrsdye.core.dialect.SqlDialect;
+import com.wrsdye.core.entity.Item;
+import com.wrsdye.core.entity.VersionedItem;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author wangrx
+ * @description 按主键列表查询、更新、删除测试，主键去重后按方言的IN列表与参数上限分片
+ * <p>表中有主键1到ROWS的记录，H2的IN列表上限为1000，ROWS条记录需要分多片</p>
+ * @date 2026/10/20 下午8:50
+ */
+@SpringBootTest(classes = H2TestConfiguration.class)
+class ByIdsTest {
+
+    private static final int ROWS = 1200;
+
+    @Autowired
+    private CommonBaseMapper<Item> mapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM t_item");
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (long id = 1; id <= ROWS; id++) {
+            rows.add(new Object[]{id, "item" + id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO t_item (id, name, quantity) VALUES (?, ?, 0)", rows);
+    }
+
+    @Test
+    void chunksRespectInListLimit() {
+        List<List<Object>> chunks = MapperSqlHelper.idChunks(SqlDialect.SQL_SERVER, ids(2500), 0);
+        assertEquals(Arrays.asList(2000, 500), sizes(chunks));
+    }
+
+    @Test
+    void chunksReserveSetParameters() {
+        //SQL Server单条语句最多2100个参数，SET子句占用150个后IN列表只剩1950个
+        List<List<Object>> chunks = MapperSqlHelper.idChunks(SqlDialect.SQL_SERVER, ids(2500), 150);
+        assertEquals(Arrays.asList(1950, 550), sizes(chunks));
+        assertThrows(MybatisPlusException.class, () -> MapperSqlHelper.idChunks(SqlDialect.SQL_SERVER, ids(10), 2100));
+    }
+
+    @Test
+    void chunksDeduplicateIntegerAndLong() {
+        List<List<Object>> chunks = MapperSqlHelper.idChunks(SqlDialect.H2, Arrays.asList(1, 1L, 2L, null, 2, 3L, 1), 0);
+        assertEquals(Collections.singletonList(Arrays.asList(1, 2L, 3L)), chunks);
+    }
+
+    @Test
+    void updateSetParameterCount() {
+        TableInfo item = MapperMetadataRegistry.getByEntity(Item.class).getTableInfo();
+        assertEquals(1, MapperSqlHelper.updateSetParameterCount(item, new Item(null, "name", null)));
+        assertEquals(2, MapperSqlHelper.updateSetParameterCount(item, new Item(null, "name", 1)));
+        //乐观锁字段在条件中另占一个参数
+        TableInfo versioned = MapperMetadataRegistry.getByEntity(VersionedItem.class).getTableInfo();
+        assertEquals(3, MapperSqlHelper.updateSetParameterCount(versioned, new VersionedItem(null, "name", 1)));
+    }
+
+    @Test
+    void selectByIdsKeepOrder() {
+        List<Long> ids = new ArrayList<>(ids(ROWS + 10));
+        Collections.reverse(ids);
+        for (boolean parallel : new boolean[]{false, true}) {
+            List<Long> loaded = mapper.selectByIds(ids, true, parallel).stream().map(Item::getId).collect(Collectors.toList());
+            assertEquals(ids.subList(10, ids.size()), loaded, "parallel " + parallel);
+        }
+    }
+
+    @Test
+    void selectByIdsDeduplicateIntegerAndLong() {
+        List<Item> loaded = mapper.selectByIds(Arrays.<Serializable>asList(3, 1L, 3L, 1, ROWS + 1));
+        assertEquals(Arrays.asList(3L, 1L), loaded.stream().map(Item::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void updateByIds() {
+        List<Serializable> ids = new ArrayList<>(ids(ROWS + 10));
+        ids.add(1);
+        assertEquals(ROWS, mapper.updateByIds(new Item(null, null, 5), ids));
+        assertEquals(ROWS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_item WHERE quantity = 5 AND name LIKE 'item%'", Integer.class));
+    }
+
+    @Test
+    void deleteByIds() {
+        List<Serializable> ids = new ArrayList<>(ids(ROWS - 1));
+        ids.add(1);
+        ids.add(ROWS + 1);
+        assertEquals(ROWS - 1, mapper.deleteByIds(ids));
+        assertEquals(Collections.singletonList((long) ROWS), jdbcTemplate.queryForList("SELECT id FROM t_item", Long.class));
+    }
+
+    private static List<Long> ids(int count) {
+        return LongStream.rangeClosed(1, count).boxed().collect(Collectors.toList());
+    }
+
+    private static List<Integer> sizes(List<List<Object>> chunks) {
+        return chunks.stream().map(List::size).collect(Collectors.toList());
+    }
+}
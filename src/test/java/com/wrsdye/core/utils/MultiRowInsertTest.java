@@ -0,0 +1,117 @@
+package com.wrsdye.core.utils;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.wrsdye.core.CommonBaseMapper;
+import com.wrsdye.core.H2TestConfiguration;
+import com.wrsdye.core.annotation.InsertMode;
+import com.wrsdye.core.dialect.SqlDialect;
+import com.wrsdye.core.entity.Account;
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author wangrx
+ * @description 多值插入测试，分片行数受batchSize、方言参数上限与单条语句大小上限约束，插入后回填自增主键
+ * <p>Account为自增主键，插入的列为name、balance、deleted、created_by四列</p>
+ * @date 2026/10/20 下午9:10
+ */
+@SpringBootTest(classes = H2TestConfiguration.class)
+class MultiRowInsertTest {
+
+    private static final int COLUMNS = 4;
+
+    @Autowired
+    private CommonBaseMapper<Account> mapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TableInfo tableInfo;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM t_account");
+        tableInfo = MapperMetadataRegistry.getByEntity(Account.class).getTableInfo();
+    }
+
+    @Test
+    void chunksRespectParameterLimit() {
+        List<Account> list = accounts(1200, "name");
+        //SQL Server单条语句最多2100个参数，每行4个参数时最多525行
+        assertEquals(Arrays.asList(525, 525, 150), sizes(MapperSqlHelper.multiRowChunks(SqlDialect.SQL_SERVER, tableInfo, COLUMNS, list, 1000)));
+        assertEquals(Collections.nCopies(12, 100), sizes(MapperSqlHelper.multiRowChunks(SqlDialect.SQL_SERVER, tableInfo, COLUMNS, list, 100)));
+        //OTHER最多2000个参数
+        assertEquals(Arrays.asList(500, 500, 200), sizes(MapperSqlHelper.multiRowChunks(SqlDialect.OTHER, tableInfo, COLUMNS, list, 1000)));
+    }
+
+    @Test
+    void chunksRespectPacketLimit() {
+        List<Account> list = accounts(30, repeat(100_000));
+        long rowBytes = MapperSqlHelper.estimateRowBytes(tableInfo, list.get(0));
+        int rows = (int) (SqlDialect.OTHER.getMaxPacketBytes() / rowBytes);
+        assertTrue(rows > 1 && rows < 30, String.valueOf(rows));
+        List<Integer> expected = new ArrayList<>();
+        for (int remaining = 30; remaining > 0; remaining -= rows) {
+            expected.add(Math.min(rows, remaining));
+        }
+        assertEquals(expected, sizes(MapperSqlHelper.multiRowChunks(SqlDialect.OTHER, tableInfo, COLUMNS, list, 1000)));
+    }
+
+    @Test
+    void oversizedRowsGoAlone() {
+        //单行超过语句大小上限时单独成片，由数据库决定是否接受
+        List<Account> list = accounts(3, repeat(2_000_000));
+        assertEquals(Arrays.asList(1, 1, 1), sizes(MapperSqlHelper.multiRowChunks(SqlDialect.OTHER, tableInfo, COLUMNS, list, 1000)));
+    }
+
+    @Test
+    void insertFillsIdsAndFields() {
+        MapperMetadata metadata = MapperMetadataRegistry.getByEntity(Account.class);
+        assertTrue(MapperSqlHelper.supportsMultiRowInsert(metadata));
+        List<Account> list = accounts(250, "name");
+        list.get(1).setDeleted(1);
+        assertTrue(mapper.saveBatch(list, 100, InsertMode.MULTI_ROW));
+        assertEquals(250, list.stream().map(Account::getId).distinct().filter(id -> id != null).count());
+        for (Account account : list) {
+            Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM t_account WHERE id = ?", account.getId());
+            assertEquals(account.getName(), row.get("name"));
+            assertEquals(account.getBalance(), row.get("balance"));
+            assertEquals(H2TestConfiguration.CREATED_BY, row.get("created_by"));
+            assertEquals(account.getDeleted(), row.get("deleted"));
+            assertEquals(H2TestConfiguration.CREATED_BY, account.getCreatedBy());
+        }
+        assertEquals(Integer.valueOf(1), list.get(1).getDeleted());
+        assertEquals(Integer.valueOf(0), list.get(0).getDeleted());
+        assertEquals(250, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_account", Integer.class));
+    }
+
+    private static List<Account> accounts(int count, String prefix) {
+        List<Account> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(new Account(null, prefix + i, i));
+        }
+        return list;
+    }
+
+    private static String repeat(int length) {
+        return String.join("", Collections.nCopies(length, "x"));
+    }
+
+    private static List<Integer> sizes(List<? extends List<?>> chunks) {
+        return chunks.stream().map(List::size).collect(Collectors.toList());
+    }
+}
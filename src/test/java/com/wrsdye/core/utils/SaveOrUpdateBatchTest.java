@@ -0,0 +1,171 @@
+package com.wrsdye.core.utils;
+
+import com.wrsdye.core.CommonBaseMapper;
+import com.wrsdye.core.H2TestConfiguration;
+import com.wrsdye.core.annotation.SaveOrUpdateMode;
+import com.wrsdye.core.batch.BatchOptions;
+import com.wrsdye.core.entity.Account;
+import com.wrsdye.core.entity.VersionedItem;
+import com.wrsdye.core.injector.ExtensionMethod;
+import com.wrsdye.core.injector.methods.InsertMultiRow;
+import com.wrsdye.core.metadata.MapperMetadata;
+import com.wrsdye.core.metadata.MapperMetadataRegistry;
+import org.apache.ibatis.binding.MapperMethod;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author wangrx
+ * @description 批量保存或更新测试，H2下UPSERT使用MERGE INTO ... USING，QUERY先查询已存在的主键再分组插入、更新
+ * <p>表中主键1为正常记录，主键2已逻辑删除，两者的created_by为seed</p>
+ * @date 2026/10/20 下午7:50
+ */
+@SpringBootTest(classes = H2TestConfiguration.class)
+class SaveOrUpdateBatchTest {
+
+    private static final String SEED = "seed";
+
+    @Autowired
+    private CommonBaseMapper<Account> accountMapper;
+
+    @Autowired
+    private CommonBaseMapper<VersionedItem> versionedItemMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlSessionTemplate sqlSessionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM t_account");
+        jdbcTemplate.update("ALTER TABLE t_account ALTER COLUMN id RESTART WITH 100");
+        jdbcTemplate.update("INSERT INTO t_account (id, name, balance, deleted, created_by) VALUES (1, 'one', 1, 0, ?), (2, 'two', 2, 1, ?)",
+                SEED, SEED);
+        jdbcTemplate.update("DELETE FROM t_versioned_item");
+        jdbcTemplate.update("INSERT INTO t_versioned_item (id, name, version) VALUES (1, 'one', 3)");
+    }
+
+    @Test
+    void upsertUpdatesExistingAndInsertsNew() {
+        Account existing = new Account(1L, "one-updated", 10);
+        Account created = new Account(50L, "fifty", 50);
+        Account withoutId = new Account(null, "auto", 7);
+        assertTrue(accountMapper.saveOrUpdateBatch(Arrays.asList(existing, created, withoutId), 100, SaveOrUpdateMode.UPSERT));
+
+        Map<String, Object> row = account(1);
+        assertEquals("one-updated", row.get("name"));
+        assertEquals(10, row.get("balance"));
+        //插入填充字段冲突时不覆盖
+        assertEquals(SEED, row.get("created_by"));
+        assertEquals(0, row.get("deleted"));
+
+        row = account(50);
+        assertEquals("fifty", row.get("name"));
+        assertEquals(H2TestConfiguration.CREATED_BY, row.get("created_by"));
+        assertEquals(0, row.get("deleted"));
+
+        assertEquals(100L, withoutId.getId());
+        assertEquals("auto", account(100).get("name"));
+        assertEquals(4, count());
+    }
+
+    @Test
+    void upsertKeepsLogicDeleteFlag() {
+        accountMapper.saveOrUpdateBatch(Collections.singletonList(new Account(2L, "two-updated", 20)), 100, SaveOrUpdateMode.UPSERT);
+        Map<String, Object> row = account(2);
+        assertEquals("two-updated", row.get("name"));
+        assertEquals(1, row.get("deleted"));
+    }
+
+    @Test
+    void upsertDuplicateNewIdsInOneChunk() {
+        accountMapper.saveOrUpdateBatch(Arrays.asList(new Account(60L, "first", 1), new Account(60L, "second", 2)), 100,
+                SaveOrUpdateMode.UPSERT);
+        assertEquals("second", account(60).get("name"));
+        assertEquals(3, count());
+    }
+
+    @Test
+    void upsertStreaming() {
+        Account withoutId = new Account(null, "auto", 7);
+        List<Account> list = Arrays.asList(new Account(1L, "one-updated", 10), withoutId, new Account(70L, "seventy", 70),
+                new Account(70L, "seventy-again", 71));
+        assertEquals(4, accountMapper.saveOrUpdateBatch(list.iterator(), BatchOptions.defaults()));
+        assertEquals("one-updated", account(1).get("name"));
+        assertEquals(SEED, account(1).get("created_by"));
+        assertEquals("seventy-again", account(70).get("name"));
+        assertNotNull(withoutId.getId());
+        assertEquals("auto", account(withoutId.getId()).get("name"));
+        assertEquals(4, count());
+    }
+
+    @Test
+    void queryUpdatesExistingAndInsertsWithoutId() {
+        Account withoutId = new Account(null, "auto", 7);
+        assertTrue(accountMapper.saveOrUpdateBatch(Arrays.asList(new Account(1L, "one-updated", 10), withoutId), 100, SaveOrUpdateMode.QUERY));
+        Map<String, Object> row = account(1);
+        assertEquals("one-updated", row.get("name"));
+        assertEquals(SEED, row.get("created_by"));
+        assertEquals(100L, withoutId.getId());
+        assertEquals(H2TestConfiguration.CREATED_BY, account(100).get("created_by"));
+        assertEquals(3, count());
+    }
+
+    @Test
+    void versionedEntityDoesNotUseUpsert() {
+        assertFalse(MapperSqlHelper.supportsUpsert(MapperMetadataRegistry.getByEntity(VersionedItem.class)));
+        assertTrue(versionedItemMapper.saveOrUpdateBatch(Arrays.asList(new VersionedItem(1L, "one-updated", 3), new VersionedItem(2L, "two", 1))));
+        Map<String, Object> row = versionedItem(1);
+        assertEquals("one-updated", row.get("name"));
+        assertEquals(4, row.get("version"));
+        assertEquals("two", versionedItem(2).get("name"));
+    }
+
+    @Test
+    void queryDuplicateNewIds() {
+        //同一分片内第一条插入、其余更新；跨分片时后一分片查询到前一分片插入的记录
+        for (int batchSize : new int[]{100, 1}) {
+            jdbcTemplate.update("DELETE FROM t_versioned_item WHERE id = 60");
+            versionedItemMapper.saveOrUpdateBatch(Arrays.asList(new VersionedItem(60L, "first", null), new VersionedItem(60L, "second", null)),
+                    batchSize);
+            assertEquals("second", versionedItem(60).get("name"), "batchSize " + batchSize);
+            assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_versioned_item", Integer.class));
+        }
+    }
+
+    @Test
+    void upsertStatementKeepsVersion() {
+        MapperMetadata metadata = MapperMetadataRegistry.getByEntity(VersionedItem.class);
+        MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+        param.put(InsertMultiRow.LIST, Collections.singletonList(new VersionedItem(1L, "merged", 9)));
+        sqlSessionTemplate.insert(metadata.getSqlStatement(ExtensionMethod.UPSERT), param);
+        Map<String, Object> row = versionedItem(1);
+        assertEquals("merged", row.get("name"));
+        assertEquals(3, row.get("version"));
+    }
+
+    private Map<String, Object> account(long id) {
+        return jdbcTemplate.queryForMap("SELECT * FROM t_account WHERE id = ?", id);
+    }
+
+    private Map<String, Object> versionedItem(long id) {
+        return jdbcTemplate.queryForMap("SELECT * FROM t_versioned_item WHERE id = ?", id);
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_account", Integer.class);
+    }
+}
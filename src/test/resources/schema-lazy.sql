@@ -0,0 +1,4 @@
+CREATE TABLE IF NOT EXISTS t_lazy_user (
+    id   BIGINT PRIMARY KEY,
+    name VARCHAR(64)
+);
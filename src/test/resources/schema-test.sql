@@ -0,0 +1,37 @@
+CREATE TABLE IF NOT EXISTS t_cached_user (
+    id   BIGINT PRIMARY KEY,
+    name VARCHAR(64),
+    age  INT
+);
+
+CREATE TABLE IF NOT EXISTS t_account (
+    id         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name       VARCHAR(64),
+    balance    INT,
+    deleted    INT,
+    created_by VARCHAR(64)
+);
+
+CREATE TABLE IF NOT EXISTS t_versioned_item (
+    id      BIGINT PRIMARY KEY,
+    name    VARCHAR(64),
+    version INT
+);
+
+CREATE TABLE IF NOT EXISTS t_item (
+    id       BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name     VARCHAR(64),
+    quantity INT
+);
+
+CREATE TABLE IF NOT EXISTS t_author (
+    id   BIGINT PRIMARY KEY,
+    name VARCHAR(64)
+);
+
+CREATE TABLE IF NOT EXISTS t_book (
+    id        BIGINT PRIMARY KEY,
+    author_id BIGINT,
+    title     VARCHAR(64),
+    FOREIGN KEY (author_id) REFERENCES t_author (id)
+);